@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.benchmarks;
+
+import com.comphenix.protocol.ProtocolManager;
+import com.google.inject.Guice;
+import de.felixklauke.caroline.core.CarolineApplication;
+import de.felixklauke.caroline.core.CarolineBootstrap;
+import de.felixklauke.caroline.core.module.CarolineModule;
+import org.bukkit.Server;
+import org.bukkit.plugin.Plugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time from nothing to an enabled caroline in a cold jvm, once wired by guice and once by the
+ * {@link CarolineBootstrap}.
+ * <p>
+ * Every measurement runs in a fresh fork so class loading and the first invocations are part of it. Run with
+ * {@code -prof cl} to see the amount of loaded classes.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class BootstrapBenchmark {
+
+    /**
+     * The ways to wire caroline.
+     */
+    public enum Wiring {
+
+        /**
+         * The guice injector of the caroline plugin.
+         */
+        GUICE,
+
+        /**
+         * The plain constructors of the embedded bootstrap.
+         */
+        BOOTSTRAP
+    }
+
+    /**
+     * The way caroline is wired.
+     */
+    @Param({"GUICE", "BOOTSTRAP"})
+    private Wiring wiring;
+
+    /**
+     * The stand-in plugin.
+     */
+    private Plugin plugin;
+
+    /**
+     * Disables the enabled caroline.
+     */
+    private Runnable disable;
+
+    /**
+     * Create the stand-in server.
+     */
+    @Setup
+    public void setup() {
+        Server server = StandInServer.createServer(new StandInBukkitScheduler(), new StandInPluginManager().getPluginManager());
+        plugin = StandInServer.createPlugin(server);
+    }
+
+    /**
+     * Disable caroline again.
+     */
+    @TearDown
+    public void tearDown() {
+        if (disable != null) {
+            disable.run();
+        }
+    }
+
+    /**
+     * Wire and enable caroline.
+     *
+     * @return The wired application.
+     */
+    @Benchmark
+    public Object enable() {
+        if (wiring == Wiring.GUICE) {
+            CarolineApplication application = Guice.createInjector(new CarolineModule(plugin, createProtocolManager()))
+                    .getInstance(CarolineApplication.class);
+            application.initialize();
+            disable = application::destroy;
+            return application;
+        }
+
+        CarolineBootstrap bootstrap = new CarolineBootstrap(plugin);
+        bootstrap.enable();
+        disable = bootstrap::disable;
+        return bootstrap;
+    }
+
+    /**
+     * Create a protocol manager that does nothing, the guice module needs one to bind.
+     *
+     * @return The protocol manager.
+     */
+    private static ProtocolManager createProtocolManager() {
+        return (ProtocolManager) Proxy.newProxyInstance(ProtocolManager.class.getClassLoader(), new Class<?>[]{ProtocolManager.class}, (proxy, method, args) -> null);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.benchmarks;
+
+import de.felixklauke.caroline.core.emitter.EventDispatchHub;
+import de.felixklauke.caroline.core.emitter.EventEmitter;
+import io.reactivex.Observable;
+import io.reactivex.ObservableOnSubscribe;
+import io.reactivex.disposables.CompositeDisposable;
+import org.bukkit.Server;
+import org.bukkit.event.EventPriority;
+import org.bukkit.plugin.Plugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of emitting one bukkit event into a growing number of subscriptions, once through the shared
+ * dispatch hub and once through one bukkit registration per subscription.
+ * <p>
+ * Run with {@code -prof gc} to see the allocation per emission.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDispatchBenchmark {
+
+    /**
+     * The dispatch strategies under test.
+     */
+    public enum Dispatch {
+
+        /**
+         * One shared registration per event class and priority.
+         */
+        HUB,
+
+        /**
+         * One registration per subscription.
+         */
+        LEGACY
+    }
+
+    /**
+     * The amount of subscriptions.
+     */
+    @Param({"1", "10", "200"})
+    private int subscribers;
+
+    /**
+     * The dispatch strategy.
+     */
+    @Param({"HUB", "LEGACY"})
+    private Dispatch dispatch;
+
+    /**
+     * The event fired by the benchmark.
+     */
+    private final BenchmarkEvent event = new BenchmarkEvent();
+
+    /**
+     * The subscriptions.
+     */
+    private final CompositeDisposable subscriptions = new CompositeDisposable();
+
+    /**
+     * The stand-in plugin manager.
+     */
+    private StandInPluginManager pluginManager;
+
+    /**
+     * The dispatch hub.
+     */
+    private EventDispatchHub dispatchHub;
+
+    /**
+     * The amount of received events.
+     */
+    private long received;
+
+    /**
+     * Create the stand-in server and subscribe.
+     */
+    @Setup
+    public void setup() {
+        pluginManager = new StandInPluginManager();
+
+        Server server = StandInServer.createServer(new StandInBukkitScheduler(), pluginManager.getPluginManager());
+        Plugin plugin = StandInServer.createPlugin(server);
+
+        dispatchHub = new EventDispatchHub(pluginManager.getPluginManager(), plugin);
+
+        for (int i = 0; i < subscribers; i++) {
+            ObservableOnSubscribe<BenchmarkEvent> source = dispatch == Dispatch.HUB
+                    ? new EventEmitter<>(BenchmarkEvent.class, false, EventPriority.NORMAL, dispatchHub)
+                    : new LegacyEventEmitter<>(BenchmarkEvent.class, EventPriority.NORMAL, pluginManager.getPluginManager(), plugin);
+
+            subscriptions.add(Observable.create(source).subscribe(receivedEvent -> received++));
+        }
+    }
+
+    /**
+     * Dispose the subscriptions.
+     */
+    @TearDown
+    public void tearDown() {
+        subscriptions.dispose();
+    }
+
+    /**
+     * Emit one event to all subscriptions.
+     *
+     * @return The amount of received events.
+     */
+    @Benchmark
+    public long emit() {
+        pluginManager.callEvent(event);
+        return received;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.benchmarks;
+
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableOnSubscribe;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+
+/**
+ * The event emitter as it was before the dispatch hub: every subscription registers its own bukkit executor and
+ * checks the event class reflectively on every call. Kept as the reference for the event dispatch benchmark.
+ *
+ * @param <EventType> The type of the event.
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class LegacyEventEmitter<EventType> implements ObservableOnSubscribe<EventType> {
+
+    /**
+     * The bukkit skeleton listener.
+     */
+    private final Listener listener = new Listener() {
+    };
+
+    /**
+     * The clazz of the event.
+     */
+    private final Class<? extends Event> eventClazz;
+
+    /**
+     * The priority of the listener.
+     */
+    private final EventPriority eventPriority;
+
+    /**
+     * The bukkit plugin manager.
+     */
+    private final PluginManager pluginManager;
+
+    /**
+     * The bukkit plugin instance.
+     */
+    private final Plugin plugin;
+
+    /**
+     * Create a new legacy event emitter.
+     *
+     * @param eventClazz    The class of the event.
+     * @param eventPriority The event priority.
+     * @param pluginManager The bukkit plugin manager.
+     * @param plugin        The bukkit plugin instance.
+     */
+    public LegacyEventEmitter(Class<? extends Event> eventClazz, EventPriority eventPriority, PluginManager pluginManager, Plugin plugin) {
+        this.eventClazz = eventClazz;
+        this.eventPriority = eventPriority;
+        this.pluginManager = pluginManager;
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void subscribe(ObservableEmitter<EventType> observableEmitter) {
+        pluginManager.registerEvent(eventClazz, listener, eventPriority, (listener1, event) -> {
+            if (eventClazz.isAssignableFrom(event.getClass())) {
+                observableEmitter.onNext((EventType) event);
+            }
+        }, plugin, false);
+    }
+}
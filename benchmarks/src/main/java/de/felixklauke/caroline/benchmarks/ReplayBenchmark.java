@@ -0,0 +1,174 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.benchmarks;
+
+import de.felixklauke.caroline.core.emitter.EventDispatchHub;
+import de.felixklauke.caroline.core.emitter.EventEmitter;
+import de.felixklauke.caroline.core.recorder.EventCodec;
+import de.felixklauke.caroline.core.recorder.EventRecorder;
+import de.felixklauke.caroline.core.recorder.EventReplayer;
+import de.felixklauke.caroline.core.recorder.ReplaySpeed;
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import org.bukkit.Server;
+import org.bukkit.event.EventPriority;
+import org.bukkit.plugin.Plugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost per event of replaying a recorded journal at maximum speed into a subscription, which is the
+ * overhead a replayed load test adds on top of the pipelines under test.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark {
+
+    /**
+     * The amount of recorded events.
+     */
+    private static final int EVENT_COUNT = 10000;
+
+    /**
+     * The codec of the benchmark event, writing a sequence number like a small real event would.
+     */
+    private static final EventCodec<BenchmarkEvent> CODEC = new EventCodec<BenchmarkEvent>() {
+        @Override
+        public void encode(BenchmarkEvent event, DataOutput output) throws IOException {
+            output.writeInt(event.hashCode());
+        }
+
+        @Override
+        public BenchmarkEvent decode(DataInput input) throws IOException {
+            input.readInt();
+            return new BenchmarkEvent();
+        }
+    };
+
+    /**
+     * The stand-in bukkit scheduler.
+     */
+    private StandInBukkitScheduler bukkitScheduler;
+
+    /**
+     * The replayer under test.
+     */
+    private EventReplayer replayer;
+
+    /**
+     * The journal file.
+     */
+    private Path journal;
+
+    /**
+     * The subscription receiving the replayed events.
+     */
+    private Disposable subscription;
+
+    /**
+     * The amount of received events.
+     */
+    private long received;
+
+    /**
+     * Record the journal and subscribe to the replayed events.
+     *
+     * @throws Exception If the journal can't be recorded.
+     */
+    @Setup
+    public void setup() throws Exception {
+        bukkitScheduler = new StandInBukkitScheduler();
+
+        StandInPluginManager pluginManager = new StandInPluginManager();
+        Server server = StandInServer.createServer(bukkitScheduler, pluginManager.getPluginManager());
+        Plugin plugin = StandInServer.createPlugin(server);
+        EventDispatchHub dispatchHub = new EventDispatchHub(pluginManager.getPluginManager(), plugin);
+
+        journal = Files.createTempFile("caroline-replay", ".journal");
+        EventRecorder recorder = new EventRecorder(journal, dispatchHub).record(BenchmarkEvent.class, CODEC);
+
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            pluginManager.callEvent(new BenchmarkEvent());
+        }
+
+        recorder.dispose();
+        if (!recorder.awaitTermination(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("The journal wasn't written in time.");
+        }
+
+        replayer = new EventReplayer(journal, plugin, pluginManager.getPluginManager(), bukkitScheduler)
+                .register(BenchmarkEvent.class, CODEC);
+        subscription = Observable.create(new EventEmitter<BenchmarkEvent>(BenchmarkEvent.class, false, EventPriority.NORMAL, dispatchHub))
+                .subscribe(event -> received++);
+    }
+
+    /**
+     * Dispose the subscription and delete the journal.
+     *
+     * @throws IOException If the journal can't be deleted.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        subscription.dispose();
+        Files.deleteIfExists(journal);
+    }
+
+    /**
+     * Replay the whole journal in a single tick.
+     *
+     * @return The amount of received events.
+     */
+    @Benchmark
+    @OperationsPerInvocation(EVENT_COUNT)
+    public long replay() {
+        Disposable replay = replayer.replay(ReplaySpeed.MAX).subscribe();
+        bukkitScheduler.heartbeat();
+        replay.dispose();
+        return received;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.benchmarks;
+
+import de.felixklauke.caroline.core.scheduler.SyncSchedulerMode;
+import de.felixklauke.caroline.core.scheduler.SynchronousScheduler;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import org.bukkit.Server;
+import org.bukkit.plugin.Plugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of scheduling work on the main thread through the synchronous scheduler, once backed by one
+ * bukkit task per runnable and once by the tick trampoline.
+ * <p>
+ * Run with {@code -prof gc} to see the allocation per scheduled task.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerBenchmark {
+
+    /**
+     * The amount of tasks scheduled per tick in the batch benchmark.
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * The amount of operations after which the stand-in scheduler drops the cancelled tasks.
+     */
+    private static final int FLUSH_INTERVAL = 1024;
+
+    /**
+     * The mode of the synchronous scheduler.
+     */
+    @Param({"TASK", "TRAMPOLINE"})
+    private SyncSchedulerMode mode;
+
+    /**
+     * The stand-in bukkit scheduler.
+     */
+    private StandInBukkitScheduler bukkitScheduler;
+
+    /**
+     * The scheduler under test.
+     */
+    private SynchronousScheduler scheduler;
+
+    /**
+     * The current worker.
+     */
+    private Scheduler.Worker worker;
+
+    /**
+     * The amount of operations since the last flush.
+     */
+    private int operations;
+
+    /**
+     * The amount of executed tasks.
+     */
+    private long executions;
+
+    /**
+     * The task scheduled by the benchmarks.
+     */
+    private final Runnable task = () -> executions++;
+
+    /**
+     * Create the stand-in server and start the scheduler.
+     */
+    @Setup
+    public void setup() {
+        bukkitScheduler = new StandInBukkitScheduler();
+
+        StandInPluginManager pluginManager = new StandInPluginManager();
+        Server server = StandInServer.createServer(bukkitScheduler, pluginManager.getPluginManager());
+        Plugin plugin = StandInServer.createPlugin(server);
+
+        scheduler = new SynchronousScheduler(plugin, bukkitScheduler, mode);
+        scheduler.start();
+        worker = scheduler.createWorker();
+    }
+
+    /**
+     * Stop the scheduler.
+     */
+    @TearDown
+    public void tearDown() {
+        worker.dispose();
+        scheduler.shutdown();
+    }
+
+    /**
+     * Schedule a single task and run the tick that executes it.
+     *
+     * @return The amount of executed tasks.
+     */
+    @Benchmark
+    public long scheduleAndRun() {
+        worker.schedule(task);
+        bukkitScheduler.heartbeat();
+        flush();
+        return executions;
+    }
+
+    /**
+     * Schedule a batch of tasks and run the tick that executes them.
+     *
+     * @return The amount of executed tasks.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long scheduleBatchAndRun() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            worker.schedule(task);
+        }
+
+        bukkitScheduler.heartbeat();
+        return executions;
+    }
+
+    /**
+     * Schedule a task and dispose it before it runs.
+     *
+     * @return If the task was disposed.
+     */
+    @Benchmark
+    public boolean scheduleAndDispose() {
+        Disposable disposable = worker.schedule(task);
+        disposable.dispose();
+        flush();
+        return disposable.isDisposed();
+    }
+
+    /**
+     * Schedule a delayed task and dispose it before it runs.
+     *
+     * @return If the task was disposed.
+     */
+    @Benchmark
+    public boolean scheduleDelayedAndDispose() {
+        Disposable disposable = worker.schedule(task, 1, TimeUnit.SECONDS);
+        disposable.dispose();
+        flush();
+        return disposable.isDisposed();
+    }
+
+    /**
+     * Flush the stand-in scheduler every few operations.
+     */
+    private void flush() {
+        if (++operations < FLUSH_INTERVAL) {
+            return;
+        }
+
+        operations = 0;
+        bukkitScheduler.heartbeat();
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.benchmarks;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.scheduler.BukkitWorker;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A single threaded in-process bukkit scheduler.
+ * <p>
+ * Like the craft scheduler it allocates a task object per scheduled runnable and queues it until the next heartbeat.
+ * Asynchronous tasks are executed by the heartbeat as well, so the benchmarks measure the scheduling overhead only.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class StandInBukkitScheduler implements BukkitScheduler {
+
+    /**
+     * The queued tasks.
+     */
+    private final ArrayDeque<StandInTask> pendingTasks = new ArrayDeque<>();
+
+    /**
+     * The id of the next task.
+     */
+    private int nextTaskId;
+
+    /**
+     * The current tick.
+     */
+    private long currentTick;
+
+    /**
+     * Run one tick: execute all due tasks and drop cancelled ones.
+     */
+    public void heartbeat() {
+        long tick = currentTick++;
+
+        for (int remaining = pendingTasks.size(); remaining > 0; remaining--) {
+            StandInTask task = pendingTasks.poll();
+
+            if (task.isCancelled()) {
+                continue;
+            }
+
+            if (task.nextRunTick > tick) {
+                pendingTasks.offer(task);
+                continue;
+            }
+
+            task.run();
+
+            if (task.isPeriodic() && !task.isCancelled()) {
+                task.nextRunTick = tick + task.getPeriod();
+                pendingTasks.offer(task);
+            }
+        }
+    }
+
+    /**
+     * Get the amount of queued tasks including cancelled ones that weren't dropped yet.
+     *
+     * @return The amount of tasks.
+     */
+    public int getQueueSize() {
+        return pendingTasks.size();
+    }
+
+    /**
+     * Queue a new task.
+     *
+     * @param plugin   The owner.
+     * @param runnable The runnable.
+     * @param delay    The delay in ticks.
+     * @param period   The period in ticks, zero or less for one shot tasks.
+     * @param sync     If the task runs on the server thread.
+     * @return The task.
+     */
+    private StandInTask queue(Plugin plugin, Runnable runnable, long delay, long period, boolean sync) {
+        StandInTask task = new StandInTask(++nextTaskId, plugin, runnable, currentTick + Math.max(delay, 0L), period, sync);
+        pendingTasks.offer(task);
+        return task;
+    }
+
+    @Override
+    public int scheduleSyncDelayedTask(Plugin plugin, Runnable task, long delay) {
+        return runTaskLater(plugin, task, delay).getTaskId();
+    }
+
+    @Override
+    @Deprecated
+    public int scheduleSyncDelayedTask(Plugin plugin, BukkitRunnable task, long delay) {
+        return scheduleSyncDelayedTask(plugin, (Runnable) task, delay);
+    }
+
+    @Override
+    public int scheduleSyncDelayedTask(Plugin plugin, Runnable task) {
+        return runTask(plugin, task).getTaskId();
+    }
+
+    @Override
+    @Deprecated
+    public int scheduleSyncDelayedTask(Plugin plugin, BukkitRunnable task) {
+        return scheduleSyncDelayedTask(plugin, (Runnable) task);
+    }
+
+    @Override
+    public int scheduleSyncRepeatingTask(Plugin plugin, Runnable task, long delay, long period) {
+        return runTaskTimer(plugin, task, delay, period).getTaskId();
+    }
+
+    @Override
+    @Deprecated
+    public int scheduleSyncRepeatingTask(Plugin plugin, BukkitRunnable task, long delay, long period) {
+        return scheduleSyncRepeatingTask(plugin, (Runnable) task, delay, period);
+    }
+
+    @Override
+    @Deprecated
+    public int scheduleAsyncDelayedTask(Plugin plugin, Runnable task, long delay) {
+        return runTaskLaterAsynchronously(plugin, task, delay).getTaskId();
+    }
+
+    @Override
+    @Deprecated
+    public int scheduleAsyncDelayedTask(Plugin plugin, Runnable task) {
+        return runTaskAsynchronously(plugin, task).getTaskId();
+    }
+
+    @Override
+    @Deprecated
+    public int scheduleAsyncRepeatingTask(Plugin plugin, Runnable task, long delay, long period) {
+        return runTaskTimerAsynchronously(plugin, task, delay, period).getTaskId();
+    }
+
+    @Override
+    public <T> Future<T> callSyncMethod(Plugin plugin, Callable<T> task) {
+        FutureTask<T> futureTask = new FutureTask<>(task);
+        runTask(plugin, futureTask);
+        return futureTask;
+    }
+
+    @Override
+    public void cancelTask(int taskId) {
+        for (StandInTask task : pendingTasks) {
+            if (task.getTaskId() == taskId) {
+                task.cancel();
+            }
+        }
+    }
+
+    @Override
+    public void cancelTasks(Plugin plugin) {
+        for (StandInTask task : pendingTasks) {
+            if (task.getOwner() == plugin) {
+                task.cancel();
+            }
+        }
+    }
+
+    /**
+     * Cancel all queued tasks.
+     */
+    public void cancelAllTasks() {
+        pendingTasks.forEach(StandInTask::cancel);
+    }
+
+    @Override
+    public boolean isCurrentlyRunning(int taskId) {
+        return false;
+    }
+
+    @Override
+    public boolean isQueued(int taskId) {
+        for (StandInTask task : pendingTasks) {
+            if (task.getTaskId() == taskId && !task.isCancelled()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public List<BukkitWorker> getActiveWorkers() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<BukkitTask> getPendingTasks() {
+        return new ArrayList<>(pendingTasks);
+    }
+
+    @Override
+    public BukkitTask runTask(Plugin plugin, Runnable task) {
+        return queue(plugin, task, 0L, 0L, true);
+    }
+
+    @Override
+    @Deprecated
+    public BukkitTask runTask(Plugin plugin, BukkitRunnable task) {
+        return runTask(plugin, (Runnable) task);
+    }
+
+    @Override
+    public BukkitTask runTaskAsynchronously(Plugin plugin, Runnable task) {
+        return queue(plugin, task, 0L, 0L, false);
+    }
+
+    @Override
+    @Deprecated
+    public BukkitTask runTaskAsynchronously(Plugin plugin, BukkitRunnable task) {
+        return runTaskAsynchronously(plugin, (Runnable) task);
+    }
+
+    @Override
+    public BukkitTask runTaskLater(Plugin plugin, Runnable task, long delay) {
+        return queue(plugin, task, delay, 0L, true);
+    }
+
+    @Override
+    @Deprecated
+    public BukkitTask runTaskLater(Plugin plugin, BukkitRunnable task, long delay) {
+        return runTaskLater(plugin, (Runnable) task, delay);
+    }
+
+    @Override
+    public BukkitTask runTaskLaterAsynchronously(Plugin plugin, Runnable task, long delay) {
+        return queue(plugin, task, delay, 0L, false);
+    }
+
+    @Override
+    @Deprecated
+    public BukkitTask runTaskLaterAsynchronously(Plugin plugin, BukkitRunnable task, long delay) {
+        return runTaskLaterAsynchronously(plugin, (Runnable) task, delay);
+    }
+
+    @Override
+    public BukkitTask runTaskTimer(Plugin plugin, Runnable task, long delay, long period) {
+        return queue(plugin, task, delay, period, true);
+    }
+
+    @Override
+    @Deprecated
+    public BukkitTask runTaskTimer(Plugin plugin, BukkitRunnable task, long delay, long period) {
+        return runTaskTimer(plugin, (Runnable) task, delay, period);
+    }
+
+    @Override
+    public BukkitTask runTaskTimerAsynchronously(Plugin plugin, Runnable task, long delay, long period) {
+        return queue(plugin, task, delay, period, false);
+    }
+
+    @Override
+    @Deprecated
+    public BukkitTask runTaskTimerAsynchronously(Plugin plugin, BukkitRunnable task, long delay, long period) {
+        return runTaskTimerAsynchronously(plugin, (Runnable) task, delay, period);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.benchmarks;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.PluginManager;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An in-process stand-in for the event part of the bukkit plugin manager.
+ * <p>
+ * Registrations are kept in one array per event class that is rebuilt on every registration, like a baked handler
+ * list. Calling an event invokes every executor of that array. Only the registration goes through the
+ * {@link PluginManager} interface, so dispatching is measured without proxy overhead.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class StandInPluginManager {
+
+    /**
+     * The baked registrations by their event class.
+     */
+    private final Map<Class<? extends Event>, Registration[]> registrations = new HashMap<>();
+
+    /**
+     * The plugin manager view handed to caroline.
+     */
+    private final PluginManager pluginManager = (PluginManager) Proxy.newProxyInstance(
+            PluginManager.class.getClassLoader(), new Class<?>[]{PluginManager.class}, (proxy, method, args) -> {
+                if (method.getName().equals("registerEvent") && args.length == 6) {
+                    registerEvent((Class<? extends Event>) args[0], (Listener) args[1], (EventPriority) args[2], (EventExecutor) args[3]);
+                    return null;
+                }
+
+                if (method.getName().equals("callEvent")) {
+                    callEvent((Event) args[0]);
+                    return null;
+                }
+
+                if (method.getName().equals("getPlugin")) {
+                    // No other plugins are installed.
+                    return null;
+                }
+
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+    /**
+     * Get the plugin manager view handed to caroline.
+     *
+     * @return The plugin manager.
+     */
+    public PluginManager getPluginManager() {
+        return pluginManager;
+    }
+
+    /**
+     * Call an event on all executors registered for its class.
+     *
+     * @param event The event.
+     */
+    public void callEvent(Event event) {
+        Registration[] handlers = registrations.get(event.getClass());
+
+        if (handlers == null) {
+            return;
+        }
+
+        for (Registration registration : handlers) {
+            try {
+                registration.executor.execute(registration.listener, event);
+            } catch (EventException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Get the amount of registrations of an event class.
+     *
+     * @param eventClazz The event class.
+     * @return The amount of registrations.
+     */
+    public int getRegistrationCount(Class<? extends Event> eventClazz) {
+        Registration[] handlers = registrations.get(eventClazz);
+        return handlers == null ? 0 : handlers.length;
+    }
+
+    /**
+     * Register an executor and bake the array of its event class again.
+     *
+     * @param eventClazz The event class.
+     * @param listener   The listener.
+     * @param priority   The priority.
+     * @param executor   The executor.
+     */
+    private void registerEvent(Class<? extends Event> eventClazz, Listener listener, EventPriority priority, EventExecutor executor) {
+        Registration[] handlers = registrations.getOrDefault(eventClazz, new Registration[0]);
+        Registration[] baked = Arrays.copyOf(handlers, handlers.length + 1);
+        baked[handlers.length] = new Registration(listener, priority, executor);
+        Arrays.sort(baked, (first, second) -> first.priority.compareTo(second.priority));
+        registrations.put(eventClazz, baked);
+    }
+
+    /**
+     * A single registered executor.
+     */
+    private static final class Registration {
+
+        /**
+         * The listener.
+         */
+        private final Listener listener;
+
+        /**
+         * The priority.
+         */
+        private final EventPriority priority;
+
+        /**
+         * The executor.
+         */
+        private final EventExecutor executor;
+
+        /**
+         * Create a new registration.
+         *
+         * @param listener The listener.
+         * @param priority The priority.
+         * @param executor The executor.
+         */
+        Registration(Listener listener, EventPriority priority, EventExecutor executor) {
+            this.listener = listener;
+            this.priority = priority;
+            this.executor = executor;
+        }
+    }
+}
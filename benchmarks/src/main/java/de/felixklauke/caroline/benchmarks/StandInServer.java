@@ -0,0 +1,167 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.benchmarks;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+
+/**
+ * Creates stand-in servers and plugins that hand out the stand-in scheduler and plugin manager.
+ * <p>
+ * Both are proxies since they are never part of a measured hot path.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public final class StandInServer {
+
+    /**
+     * The logger of the stand-ins.
+     */
+    private static final Logger LOGGER = Logger.getLogger("caroline-benchmarks");
+
+    private StandInServer() {
+    }
+
+    /**
+     * Create a stand-in server and install it as the bukkit server if there isn't one yet.
+     * <p>
+     * The thread calling this method is treated as the primary thread.
+     *
+     * @param bukkitScheduler The scheduler of the server.
+     * @param pluginManager   The plugin manager of the server.
+     * @return The server.
+     */
+    public static Server createServer(BukkitScheduler bukkitScheduler, PluginManager pluginManager) {
+        Thread primaryThread = Thread.currentThread();
+
+        Server server = (Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class<?>[]{Server.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getScheduler":
+                    return bukkitScheduler;
+                case "getPluginManager":
+                    return pluginManager;
+                case "isPrimaryThread":
+                    return Thread.currentThread() == primaryThread;
+                case "getLogger":
+                    return LOGGER;
+                case "getName":
+                case "getVersion":
+                case "getBukkitVersion":
+                    return "caroline-benchmarks";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        });
+
+        if (Bukkit.getServer() == null) {
+            Bukkit.setServer(server);
+        }
+
+        return server;
+    }
+
+    /**
+     * Create a stand-in plugin running on the given server, its config is empty.
+     *
+     * @param server The server.
+     * @return The plugin.
+     */
+    public static Plugin createPlugin(Server server) {
+        FileConfiguration config = new YamlConfiguration();
+
+        return (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(), new Class<?>[]{Plugin.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getServer":
+                    return server;
+                case "getLogger":
+                    return LOGGER;
+                case "getConfig":
+                    return config;
+                case "getName":
+                    return "caroline-benchmarks";
+                case "isEnabled":
+                    return true;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "caroline-benchmarks";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    /**
+     * Get the default value of a return type.
+     *
+     * @param returnType The return type.
+     * @return The default value.
+     */
+    private static Object defaultValue(Class<?> returnType) {
+        if (returnType == boolean.class) {
+            return false;
+        }
+
+        if (returnType == int.class) {
+            return 0;
+        }
+
+        if (returnType == long.class) {
+            return 0L;
+        }
+
+        if (returnType == double.class) {
+            return 0D;
+        }
+
+        if (returnType == float.class) {
+            return 0F;
+        }
+
+        if (returnType == short.class) {
+            return (short) 0;
+        }
+
+        if (returnType == byte.class) {
+            return (byte) 0;
+        }
+
+        if (returnType == char.class) {
+            return (char) 0;
+        }
+
+        return null;
+    }
+}
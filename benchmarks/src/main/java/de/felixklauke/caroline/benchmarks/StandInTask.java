@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.benchmarks;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * A task of the {@link StandInBukkitScheduler}.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public final class StandInTask implements BukkitTask {
+
+    /**
+     * The id of the task.
+     */
+    private final int taskId;
+
+    /**
+     * The owner of the task.
+     */
+    private final Plugin owner;
+
+    /**
+     * The runnable of the task.
+     */
+    private final Runnable runnable;
+
+    /**
+     * The period in ticks, zero or less for one shot tasks.
+     */
+    private final long period;
+
+    /**
+     * If the task runs on the server thread.
+     */
+    private final boolean sync;
+
+    /**
+     * The tick the task runs next.
+     */
+    long nextRunTick;
+
+    /**
+     * If the task was cancelled.
+     */
+    private boolean cancelled;
+
+    /**
+     * Create a new stand-in task.
+     *
+     * @param taskId      The id of the task.
+     * @param owner       The owner of the task.
+     * @param runnable    The runnable of the task.
+     * @param nextRunTick The tick the task runs first.
+     * @param period      The period in ticks, zero or less for one shot tasks.
+     * @param sync        If the task runs on the server thread.
+     */
+    StandInTask(int taskId, Plugin owner, Runnable runnable, long nextRunTick, long period, boolean sync) {
+        this.taskId = taskId;
+        this.owner = owner;
+        this.runnable = runnable;
+        this.nextRunTick = nextRunTick;
+        this.period = period;
+        this.sync = sync;
+    }
+
+    /**
+     * Run the task.
+     */
+    void run() {
+        runnable.run();
+    }
+
+    /**
+     * Check if the task repeats.
+     *
+     * @return If the task is periodic.
+     */
+    boolean isPeriodic() {
+        return period > 0;
+    }
+
+    /**
+     * Get the period of the task.
+     *
+     * @return The period in ticks.
+     */
+    long getPeriod() {
+        return period;
+    }
+
+    @Override
+    public int getTaskId() {
+        return taskId;
+    }
+
+    @Override
+    public Plugin getOwner() {
+        return owner;
+    }
+
+    @Override
+    public boolean isSync() {
+        return sync;
+    }
+
+    /**
+     * Check if the task was cancelled.
+     *
+     * @return If the task was cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+}
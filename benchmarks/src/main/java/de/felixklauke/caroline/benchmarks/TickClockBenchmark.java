@@ -0,0 +1,170 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.benchmarks;
+
+import de.felixklauke.caroline.core.emitter.EventDispatchHub;
+import de.felixklauke.caroline.core.scheduler.SyncTimerMode;
+import de.felixklauke.caroline.core.scheduler.SynchronousScheduler;
+import de.felixklauke.caroline.core.scheduler.TickClock;
+import io.reactivex.Observable;
+import io.reactivex.disposables.CompositeDisposable;
+import org.bukkit.Server;
+import org.bukkit.plugin.Plugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost per subscriber and tick of many per tick consumers, sharing the tick clock or each with an
+ * {@code interval()} of its own on the synchronous scheduler.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickClockBenchmark {
+
+    /**
+     * The amount of per tick consumers.
+     */
+    private static final int SUBSCRIBERS = 500;
+
+    /**
+     * The sources of the ticks under test.
+     */
+    public enum Source {
+
+        /**
+         * The shared tick clock.
+         */
+        CLOCK,
+
+        /**
+         * An interval per subscriber, timed by the timing wheel of the synchronous scheduler.
+         */
+        WHEEL_INTERVAL,
+
+        /**
+         * An interval per subscriber, with a bukkit task each.
+         */
+        TASK_INTERVAL
+    }
+
+    /**
+     * The source under test.
+     */
+    @Param({"CLOCK", "WHEEL_INTERVAL", "TASK_INTERVAL"})
+    private Source source;
+
+    /**
+     * The stand-in bukkit scheduler.
+     */
+    private StandInBukkitScheduler bukkitScheduler;
+
+    /**
+     * The tick clock.
+     */
+    private TickClock tickClock;
+
+    /**
+     * The synchronous scheduler timing the intervals.
+     */
+    private SynchronousScheduler scheduler;
+
+    /**
+     * The subscriptions of the consumers.
+     */
+    private final CompositeDisposable subscriptions = new CompositeDisposable();
+
+    /**
+     * The amount of received ticks.
+     */
+    private long received;
+
+    /**
+     * Create the stand-in server and subscribe the consumers.
+     */
+    @Setup
+    public void setup() {
+        bukkitScheduler = new StandInBukkitScheduler();
+
+        StandInPluginManager pluginManager = new StandInPluginManager();
+        Server server = StandInServer.createServer(bukkitScheduler, pluginManager.getPluginManager());
+        Plugin plugin = StandInServer.createPlugin(server);
+
+        tickClock = new TickClock(plugin, bukkitScheduler, new EventDispatchHub(pluginManager.getPluginManager(), plugin));
+        tickClock.start();
+
+        SyncTimerMode timerMode = source == Source.TASK_INTERVAL ? SyncTimerMode.TASKS : SyncTimerMode.WHEEL;
+        scheduler = new SynchronousScheduler(plugin, bukkitScheduler, null, timerMode, 0, "caroline-benchmark");
+        scheduler.start();
+
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            Observable<?> ticks = source == Source.CLOCK
+                    ? tickClock.getTicks()
+                    : Observable.interval(50, TimeUnit.MILLISECONDS, scheduler);
+
+            subscriptions.add(ticks.subscribe(tick -> received++));
+        }
+    }
+
+    /**
+     * Dispose the consumers and stop the clock and the scheduler.
+     */
+    @TearDown
+    public void tearDown() {
+        subscriptions.dispose();
+        tickClock.shutdown();
+        scheduler.shutdown();
+    }
+
+    /**
+     * Run a single tick.
+     *
+     * @return The amount of received ticks.
+     */
+    @Benchmark
+    @OperationsPerInvocation(SUBSCRIBERS)
+    public long tick() {
+        bukkitScheduler.heartbeat();
+        return received;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.benchmarks;
+
+import de.felixklauke.caroline.core.scheduler.WheelTimer;
+import io.reactivex.disposables.Disposable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures scheduling and cancelling timeouts that never fire, the common case for timeouts guarding an operation,
+ * with the wheel timer and a scheduled thread pool executor.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WheelTimerBenchmark {
+
+    /**
+     * The amount of timeouts per invocation.
+     */
+    private static final int TIMEOUTS = 10_000;
+
+    /**
+     * The timers under test.
+     */
+    public enum Timer {
+
+        /**
+         * The hashed wheel timer.
+         */
+        WHEEL,
+
+        /**
+         * A scheduled thread pool executor.
+         */
+        EXECUTOR
+    }
+
+    /**
+     * The timer under test.
+     */
+    @Param({"WHEEL", "EXECUTOR"})
+    private Timer timer;
+
+    /**
+     * The wheel timer.
+     */
+    private WheelTimer wheelTimer;
+
+    /**
+     * The scheduled executor.
+     */
+    private ScheduledThreadPoolExecutor executor;
+
+    /**
+     * The wheel timeouts of the current invocation.
+     */
+    private final Disposable[] disposables = new Disposable[TIMEOUTS];
+
+    /**
+     * The executor timeouts of the current invocation.
+     */
+    private final Future<?>[] futures = new Future<?>[TIMEOUTS];
+
+    /**
+     * The task of the timeouts.
+     */
+    private final Runnable task = () -> {
+    };
+
+    /**
+     * Start the timers.
+     */
+    @Setup
+    public void setup() {
+        wheelTimer = new WheelTimer(Runnable::run, "caroline-benchmark-timer");
+        wheelTimer.start();
+
+        executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Stop the timers.
+     */
+    @TearDown
+    public void tearDown() {
+        wheelTimer.shutdown();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Schedule timeouts and cancel all of them.
+     *
+     * @return The last timeout.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TIMEOUTS)
+    public Object scheduleAndCancel() {
+        if (timer == Timer.WHEEL) {
+            for (int i = 0; i < TIMEOUTS; i++) {
+                disposables[i] = wheelTimer.schedule(task, 30, TimeUnit.SECONDS);
+            }
+
+            for (Disposable disposable : disposables) {
+                disposable.dispose();
+            }
+
+            return disposables[TIMEOUTS - 1];
+        }
+
+        for (int i = 0; i < TIMEOUTS; i++) {
+            futures[i] = executor.schedule(task, 30, TimeUnit.SECONDS);
+        }
+
+        for (Future<?> future : futures) {
+            future.cancel(false);
+        }
+
+        return futures[TIMEOUTS - 1];
+    }
+}
@@ -24,8 +24,16 @@
 
 package de.felixklauke.caroline.core;
 
+import de.felixklauke.caroline.core.metrics.CarolineMetrics;
+import de.felixklauke.caroline.core.metrics.SlowTaskProfiler;
+import de.felixklauke.caroline.core.metrics.StatsCommand;
+import de.felixklauke.caroline.core.scheduler.PluginSchedulerRegistry;
+import de.felixklauke.caroline.core.scheduler.TickClock;
 import io.reactivex.Scheduler;
+import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.plugins.RxJavaPlugins;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.server.PluginDisableEvent;
 import org.bukkit.plugin.Plugin;
 
 import javax.inject.Inject;
@@ -54,18 +62,72 @@ public class CarolineApplication {
      */
     private final Scheduler asyncScheduler;
 
+    /**
+     * The scheduler backing rx javas computation scheduler.
+     */
+    private final Scheduler computationScheduler;
+
+    /**
+     * The scheduler backing rx javas io and new thread schedulers.
+     */
+    private final Scheduler ioScheduler;
+
+    /**
+     * The metrics of all schedulers and event subscriptions.
+     */
+    private final CarolineMetrics metrics;
+
+    /**
+     * The profiler of slow server thread tasks.
+     */
+    private final SlowTaskProfiler profiler;
+
+    /**
+     * The command printing the metrics.
+     */
+    private final StatsCommand statsCommand;
+
+    /**
+     * The schedulers of the plugins that use their own.
+     */
+    private final PluginSchedulerRegistry pluginSchedulers;
+
+    /**
+     * The clock emitting every server tick.
+     */
+    private final TickClock tickClock;
+
+    /**
+     * The subscriptions of the built in commands and listeners.
+     */
+    private final CompositeDisposable subscriptions = new CompositeDisposable();
+
     /**
      * Create a new caroline application.
      *
-     * @param plugin         The plugin.
-     * @param syncScheduler  The synchronous scheduler.
-     * @param asyncScheduler The asynchronous scheduler.
+     * @param plugin               The plugin.
+     * @param syncScheduler        The synchronous scheduler.
+     * @param asyncScheduler       The asynchronous scheduler.
+     * @param computationScheduler The scheduler backing rx javas computation scheduler.
+     * @param ioScheduler          The scheduler backing rx javas io and new thread schedulers.
+     * @param metrics              The metrics of all schedulers and event subscriptions.
+     * @param profiler             The profiler of slow server thread tasks.
+     * @param statsCommand         The command printing the metrics.
+     * @param pluginSchedulers     The schedulers of the plugins that use their own.
+     * @param tickClock            The clock emitting every server tick.
      */
     @Inject
-    public CarolineApplication(Plugin plugin, @Named("syncScheduler") Scheduler syncScheduler, @Named("asyncScheduler") Scheduler asyncScheduler) {
+    public CarolineApplication(Plugin plugin, @Named("syncScheduler") Scheduler syncScheduler, @Named("asyncScheduler") Scheduler asyncScheduler, @Named("computationScheduler") Scheduler computationScheduler, @Named("ioScheduler") Scheduler ioScheduler, CarolineMetrics metrics, SlowTaskProfiler profiler, StatsCommand statsCommand, PluginSchedulerRegistry pluginSchedulers, TickClock tickClock) {
         this.plugin = plugin;
         this.syncScheduler = syncScheduler;
         this.asyncScheduler = asyncScheduler;
+        this.computationScheduler = computationScheduler;
+        this.ioScheduler = ioScheduler;
+        this.metrics = metrics;
+        this.profiler = profiler;
+        this.statsCommand = statsCommand;
+        this.pluginSchedulers = pluginSchedulers;
+        this.tickClock = tickClock;
     }
 
     /**
@@ -76,18 +138,42 @@ public class CarolineApplication {
     public void initialize() {
         RxJavaPlugins.setErrorHandler(throwable -> plugin.getLogger().log(Level.SEVERE, "Unhandled exception. ", throwable));
 
-        RxJavaPlugins.setInitComputationSchedulerHandler(schedulerCallable -> syncScheduler);
-        RxJavaPlugins.setInitIoSchedulerHandler(schedulerCallable -> asyncScheduler);
-        RxJavaPlugins.setInitNewThreadSchedulerHandler(schedulerCallable -> asyncScheduler);
-        RxJavaPlugins.setComputationSchedulerHandler(scheduler -> syncScheduler);
-        RxJavaPlugins.setIoSchedulerHandler(scheduler -> asyncScheduler);
-        RxJavaPlugins.setNewThreadSchedulerHandler(scheduler -> asyncScheduler);
+        RxJavaPlugins.setInitComputationSchedulerHandler(schedulerCallable -> computationScheduler);
+        RxJavaPlugins.setInitIoSchedulerHandler(schedulerCallable -> ioScheduler);
+        RxJavaPlugins.setInitNewThreadSchedulerHandler(schedulerCallable -> ioScheduler);
+        RxJavaPlugins.setComputationSchedulerHandler(scheduler -> computationScheduler);
+        RxJavaPlugins.setIoSchedulerHandler(scheduler -> ioScheduler);
+        RxJavaPlugins.setNewThreadSchedulerHandler(scheduler -> ioScheduler);
+
+        profiler.start();
+        syncScheduler.start();
+        asyncScheduler.start();
+        computationScheduler.start();
+        ioScheduler.start();
+        metrics.start();
+        tickClock.start();
+
+        subscriptions.add(RxCaroline.observeCommand(StatsCommand.NAME).subscribe(statsCommand));
+        subscriptions.add(RxCaroline.completeCommand(StatsCommand.NAME, statsCommand::complete));
+        subscriptions.add(RxCaroline.observeEvent(PluginDisableEvent.class, EventPriority.MONITOR)
+                .subscribe(event -> pluginSchedulers.remove(event.getPlugin())));
     }
 
     /**
      * Destroy the application and clean da shit up.
      */
     public void destroy() {
+        subscriptions.dispose();
+        metrics.shutdown();
+        tickClock.shutdown();
+        profiler.shutdown();
+        pluginSchedulers.shutdown();
+
+        syncScheduler.shutdown();
+        asyncScheduler.shutdown();
+        computationScheduler.shutdown();
+        ioScheduler.shutdown();
+
         RxJavaPlugins.reset();
         RxCaroline.reset();
     }
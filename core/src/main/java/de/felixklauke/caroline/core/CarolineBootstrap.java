@@ -0,0 +1,330 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core;
+
+import com.comphenix.protocol.ProtocolLibrary;
+import com.comphenix.protocol.ProtocolManager;
+import de.felixklauke.caroline.core.command.CommandCompleter;
+import de.felixklauke.caroline.core.config.CarolineConfig;
+import de.felixklauke.caroline.core.emitter.EventDispatchHub;
+import de.felixklauke.caroline.core.metrics.CarolineMetrics;
+import de.felixklauke.caroline.core.metrics.SlowTaskProfiler;
+import de.felixklauke.caroline.core.scheduler.CarolineSchedulers;
+import de.felixklauke.caroline.core.scheduler.PluginSchedulerRegistry;
+import de.felixklauke.caroline.core.scheduler.TickClock;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.plugins.RxJavaPlugins;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import java.util.logging.Level;
+
+/**
+ * Wires caroline with plain constructors instead of guice, for plugins that shade caroline instead of depending on
+ * the caroline plugin.
+ * <p>
+ * The computation and io schedulers are only created once rx java asks for them, so a plugin that never uses them
+ * never starts their threads. ProtocolLib is optional, packet observables fail if it isn't installed. The
+ * {@code /caroline stats} command isn't registered, the metrics are available via {@link RxCaroline#metrics()} and
+ * the profile of slow server thread tasks via {@link #getProfiler()}.
+ *
+ * <pre>{@code
+ * public void onEnable() {
+ *     caroline = new CarolineBootstrap(this);
+ *     caroline.enable();
+ * }
+ *
+ * public void onDisable() {
+ *     caroline.disable();
+ * }
+ * }</pre>
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class CarolineBootstrap {
+
+    /**
+     * The name of the protocol lib plugin.
+     */
+    private static final String PROTOCOL_LIB = "ProtocolLib";
+
+    /**
+     * The plugin caroline runs for.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The caroline config.
+     */
+    private final CarolineConfig config;
+
+    /**
+     * The bukkit plugin manager.
+     */
+    private final PluginManager pluginManager;
+
+    /**
+     * The hub that holds all bukkit event registrations.
+     */
+    private final EventDispatchHub dispatchHub;
+
+    /**
+     * The synchronous scheduler.
+     */
+    private final Scheduler syncScheduler;
+
+    /**
+     * The asynchronous scheduler.
+     */
+    private final Scheduler asyncScheduler;
+
+    /**
+     * The schedulers of the plugins that use their own.
+     */
+    private final PluginSchedulerRegistry pluginSchedulers;
+
+    /**
+     * The completer of reactive commands.
+     */
+    private final CommandCompleter commandCompleter;
+
+    /**
+     * The metrics of all schedulers and event subscriptions.
+     */
+    private final CarolineMetrics metrics;
+
+    /**
+     * The profiler of slow server thread tasks.
+     */
+    private final SlowTaskProfiler profiler;
+
+    /**
+     * The clock emitting every server tick.
+     */
+    private final TickClock tickClock;
+
+    /**
+     * The scheduler backing rx javas computation scheduler, null until rx java asks for it.
+     */
+    private volatile Scheduler computationScheduler;
+
+    /**
+     * The scheduler backing rx javas io and new thread schedulers, null until rx java asks for it.
+     */
+    private volatile Scheduler ioScheduler;
+
+    /**
+     * The subscription that removes the schedulers of disabled plugins.
+     */
+    private Disposable pluginDisableSubscription;
+
+    /**
+     * If caroline is enabled.
+     */
+    private boolean enabled;
+
+    /**
+     * Create a new bootstrap reading the caroline settings from the config of the plugin.
+     *
+     * @param plugin The plugin caroline runs for.
+     */
+    public CarolineBootstrap(Plugin plugin) {
+        this(plugin, plugin.getConfig());
+    }
+
+    /**
+     * Create a new bootstrap.
+     *
+     * @param plugin        The plugin caroline runs for.
+     * @param configSection The section holding the caroline settings, missing settings use their defaults.
+     */
+    public CarolineBootstrap(Plugin plugin, ConfigurationSection configSection) {
+        BukkitScheduler bukkitScheduler = plugin.getServer().getScheduler();
+
+        this.plugin = plugin;
+        this.config = CarolineConfig.fromConfiguration(configSection);
+        this.pluginManager = plugin.getServer().getPluginManager();
+        this.dispatchHub = new EventDispatchHub(pluginManager, plugin);
+        this.tickClock = new TickClock(plugin, bukkitScheduler, dispatchHub);
+        this.syncScheduler = CarolineSchedulers.createSyncScheduler(plugin, bukkitScheduler, tickClock, config);
+        this.asyncScheduler = CarolineSchedulers.createAsyncScheduler(plugin, bukkitScheduler, config);
+        this.pluginSchedulers = new PluginSchedulerRegistry(bukkitScheduler, tickClock, config);
+        this.commandCompleter = new CommandCompleter(dispatchHub, asyncScheduler, syncScheduler);
+        this.metrics = new CarolineMetrics(plugin, bukkitScheduler, dispatchHub, syncScheduler, pluginSchedulers);
+        metrics.register(asyncScheduler);
+        this.profiler = new SlowTaskProfiler(config);
+    }
+
+    /**
+     * Install the schedulers into rx java, start them and wire the static api.
+     * <p>
+     * A disabled bootstrap can be enabled again, the lazily created schedulers are created anew then.
+     *
+     * @throws IllegalStateException If the bootstrap is already enabled.
+     */
+    public synchronized void enable() {
+        if (enabled) {
+            throw new IllegalStateException("Caroline is already enabled.");
+        }
+
+        enabled = true;
+        ProtocolManager protocolManager = pluginManager.getPlugin(PROTOCOL_LIB) != null ? ProtocolLibrary.getProtocolManager() : null;
+        RxCaroline.initialize(plugin, dispatchHub, protocolManager, commandCompleter, metrics, pluginSchedulers, tickClock, syncScheduler);
+
+        RxJavaPlugins.setErrorHandler(throwable -> plugin.getLogger().log(Level.SEVERE, "Unhandled exception. ", throwable));
+
+        RxJavaPlugins.setInitComputationSchedulerHandler(schedulerCallable -> getComputationScheduler());
+        RxJavaPlugins.setInitIoSchedulerHandler(schedulerCallable -> getIoScheduler());
+        RxJavaPlugins.setInitNewThreadSchedulerHandler(schedulerCallable -> getIoScheduler());
+        RxJavaPlugins.setComputationSchedulerHandler(scheduler -> getComputationScheduler());
+        RxJavaPlugins.setIoSchedulerHandler(scheduler -> getIoScheduler());
+        RxJavaPlugins.setNewThreadSchedulerHandler(scheduler -> getIoScheduler());
+
+        profiler.start();
+        syncScheduler.start();
+        asyncScheduler.start();
+        metrics.start();
+        tickClock.start();
+
+        pluginDisableSubscription = RxCaroline.observeEvent(PluginDisableEvent.class, EventPriority.MONITOR)
+                .subscribe(event -> pluginSchedulers.remove(event.getPlugin()));
+    }
+
+    /**
+     * Stop all schedulers, remove the rx java hooks and dispose all subscriptions. Does nothing if the bootstrap isn't
+     * enabled.
+     */
+    public synchronized void disable() {
+        if (!enabled) {
+            return;
+        }
+
+        enabled = false;
+        pluginDisableSubscription.dispose();
+        pluginDisableSubscription = null;
+
+        metrics.shutdown();
+        tickClock.shutdown();
+        profiler.shutdown();
+        pluginSchedulers.shutdown();
+
+        syncScheduler.shutdown();
+        asyncScheduler.shutdown();
+
+        // The lazy schedulers may be the sync and async ones, which are restarted by the next enable.
+        if (computationScheduler != null) {
+            computationScheduler.shutdown();
+            computationScheduler = null;
+        }
+
+        if (ioScheduler != null) {
+            ioScheduler.shutdown();
+            ioScheduler = null;
+        }
+
+        RxJavaPlugins.reset();
+        RxCaroline.reset();
+    }
+
+    /**
+     * Get the scheduler backing rx javas computation scheduler and create it on first use.
+     *
+     * @return The computation scheduler.
+     */
+    public Scheduler getComputationScheduler() {
+        Scheduler scheduler = computationScheduler;
+
+        if (scheduler != null) {
+            return scheduler;
+        }
+
+        synchronized (this) {
+            if (computationScheduler == null) {
+                computationScheduler = startLazily(CarolineSchedulers.createComputationScheduler(syncScheduler, config));
+            }
+
+            return computationScheduler;
+        }
+    }
+
+    /**
+     * Get the scheduler backing rx javas io and new thread schedulers and create it on first use.
+     *
+     * @return The io scheduler.
+     */
+    public Scheduler getIoScheduler() {
+        Scheduler scheduler = ioScheduler;
+
+        if (scheduler != null) {
+            return scheduler;
+        }
+
+        synchronized (this) {
+            if (ioScheduler == null) {
+                ioScheduler = startLazily(CarolineSchedulers.createIoScheduler(asyncScheduler, config));
+            }
+
+            return ioScheduler;
+        }
+    }
+
+    /**
+     * Start a lazily created scheduler unless it is one of the eagerly started ones, and add its metrics.
+     *
+     * @param scheduler The scheduler.
+     * @return The scheduler.
+     */
+    private Scheduler startLazily(Scheduler scheduler) {
+        if (scheduler != syncScheduler && scheduler != asyncScheduler) {
+            scheduler.start();
+            metrics.register(scheduler);
+        }
+
+        return scheduler;
+    }
+
+    /**
+     * Get the metrics of all schedulers and event subscriptions.
+     *
+     * @return The metrics.
+     */
+    public CarolineMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the profiler of slow server thread tasks.
+     *
+     * @return The profiler.
+     */
+    public SlowTaskProfiler getProfiler() {
+        return profiler;
+    }
+}
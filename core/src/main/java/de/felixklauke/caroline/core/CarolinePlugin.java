@@ -48,6 +48,8 @@ public class CarolinePlugin extends JavaPlugin {
 
     @Override
     public void onLoad() {
+        saveDefaultConfig();
+
         injector = Guice.createInjector(new CarolineModule(this));
         carolineApplication = injector.getInstance(CarolineApplication.class);
     }
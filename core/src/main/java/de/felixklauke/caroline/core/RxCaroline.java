@@ -24,16 +24,68 @@
 
 package de.felixklauke.caroline.core;
 
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.ProtocolManager;
+import com.comphenix.protocol.events.ListenerPriority;
+import com.comphenix.protocol.events.PacketEvent;
+import de.felixklauke.caroline.core.cache.AsyncLoadingCache;
+import de.felixklauke.caroline.core.cache.PlayerDataCache;
+import de.felixklauke.caroline.core.command.CommandCompleter;
+import de.felixklauke.caroline.core.command.CommandContext;
+import de.felixklauke.caroline.core.command.CommandEmitter;
+import de.felixklauke.caroline.core.emitter.BatchedEventEmitter;
+import de.felixklauke.caroline.core.emitter.EventDispatchHub;
+import de.felixklauke.caroline.core.emitter.ChunkKey;
+import de.felixklauke.caroline.core.emitter.ConflatingEventEmitter;
 import de.felixklauke.caroline.core.emitter.EventEmitter;
+import de.felixklauke.caroline.core.emitter.EventKey;
+import de.felixklauke.caroline.core.emitter.EventKeys;
+import de.felixklauke.caroline.core.emitter.FlowableEventEmitter;
+import de.felixklauke.caroline.core.emitter.KeyedEventEmitter;
+import de.felixklauke.caroline.core.emitter.PacketEmitter;
+import de.felixklauke.caroline.core.metrics.CarolineMetrics;
+import de.felixklauke.caroline.core.operator.TickSpreadingTransformer;
+import de.felixklauke.caroline.core.recorder.EventCodec;
+import de.felixklauke.caroline.core.recorder.EventRecorder;
+import de.felixklauke.caroline.core.recorder.EventReplayer;
+import de.felixklauke.caroline.core.scheduler.PluginSchedulerRegistry;
+import de.felixklauke.caroline.core.scheduler.PluginSchedulers;
+import de.felixklauke.caroline.core.scheduler.SynchronousScheduler;
+import de.felixklauke.caroline.core.scheduler.ServerTick;
+import de.felixklauke.caroline.core.scheduler.TaskPriority;
+import de.felixklauke.caroline.core.scheduler.TickClock;
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableTransformer;
 import io.reactivex.Observable;
+import io.reactivex.Scheduler;
 import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.BiConsumer;
+import io.reactivex.functions.Function;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
-import org.bukkit.event.HandlerList;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.Plugin;
-import org.bukkit.plugin.PluginManager;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author Felix Klauke <fklauke@itemis.de>
@@ -41,9 +93,9 @@ import javax.inject.Inject;
 public class RxCaroline {
 
     /**
-     * The composite disposable to clean up when the plugin gets disabled.
+     * The live subscriptions to clean up when the plugin gets disabled. Subscriptions leave it once they end.
      */
-    private static CompositeDisposable compositeDisposable = new CompositeDisposable();
+    private static volatile CompositeDisposable compositeDisposable = new CompositeDisposable();
 
     /**
      * The bukkit plugin instance.
@@ -52,10 +104,170 @@ public class RxCaroline {
     private static Plugin plugin;
 
     /**
-     * The bukkit plugin manager.
+     * The hub that holds all bukkit event registrations.
      */
     @Inject
-    private static PluginManager pluginManager;
+    private static EventDispatchHub dispatchHub;
+
+    /**
+     * The protocol lib protocol manager.
+     */
+    @Inject
+    private static ProtocolManager protocolManager;
+
+    /**
+     * The completer of reactive commands.
+     */
+    @Inject
+    private static CommandCompleter commandCompleter;
+
+    /**
+     * The metrics of all schedulers and event subscriptions.
+     */
+    @Inject
+    private static CarolineMetrics metrics;
+
+    /**
+     * The schedulers of the plugins that use their own.
+     */
+    @Inject
+    private static PluginSchedulerRegistry pluginSchedulers;
+
+    /**
+     * The clock emitting every server tick.
+     */
+    @Inject
+    private static TickClock tickClock;
+
+    /**
+     * The scheduler that runs tasks on the server thread.
+     */
+    @Inject
+    @Named("syncScheduler")
+    private static Scheduler syncScheduler;
+
+    /**
+     * Wire the static api without guice, see {@link CarolineBootstrap}.
+     *
+     * @param plugin           The bukkit plugin instance.
+     * @param dispatchHub      The hub that holds all bukkit event registrations.
+     * @param protocolManager  The protocol lib protocol manager, null if protocol lib isn't available.
+     * @param commandCompleter The completer of reactive commands.
+     * @param metrics          The metrics of all schedulers and event subscriptions.
+     * @param pluginSchedulers The schedulers of the plugins that use their own.
+     * @param tickClock        The clock emitting every server tick.
+     * @param syncScheduler    The scheduler that runs tasks on the server thread.
+     */
+    static void initialize(Plugin plugin, EventDispatchHub dispatchHub, ProtocolManager protocolManager, CommandCompleter commandCompleter, CarolineMetrics metrics, PluginSchedulerRegistry pluginSchedulers, TickClock tickClock, Scheduler syncScheduler) {
+        RxCaroline.plugin = plugin;
+        RxCaroline.dispatchHub = dispatchHub;
+        RxCaroline.protocolManager = protocolManager;
+        RxCaroline.commandCompleter = commandCompleter;
+        RxCaroline.metrics = metrics;
+        RxCaroline.pluginSchedulers = pluginSchedulers;
+        RxCaroline.tickClock = tickClock;
+        RxCaroline.syncScheduler = syncScheduler;
+    }
+
+    /**
+     * Get the scheduler that runs tasks on the server thread.
+     * <p>
+     * Use it to get back to the server thread via {@code observeOn(RxCaroline.mainThread())} when the computation
+     * scheduler runs on its own threads.
+     *
+     * @return The main thread scheduler.
+     */
+    public static Scheduler mainThread() {
+        return syncScheduler;
+    }
+
+    /**
+     * Get the scheduler that runs tasks on the server thread with the given priority.
+     * <p>
+     * Priorities and the tick budget only apply when the synchronous scheduler runs in trampoline mode.
+     *
+     * @param priority The priority of the tasks.
+     * @return The main thread scheduler.
+     */
+    public static Scheduler mainThread(TaskPriority priority) {
+        if (syncScheduler instanceof SynchronousScheduler) {
+            return ((SynchronousScheduler) syncScheduler).withPriority(priority);
+        }
+
+        return syncScheduler;
+    }
+
+    /**
+     * Get the schedulers of the given plugin.
+     * <p>
+     * Their tasks are owned by the plugin instead of caroline and queue in a trampoline of their own that may only
+     * use the main thread quota of the plugin per tick, so one busy plugin can't starve the tick for the others.
+     * Their main thread time shows up per plugin in the {@link #metrics()}. They are stopped when the plugin gets
+     * disabled.
+     *
+     * @param plugin The plugin.
+     * @return The schedulers of the plugin.
+     */
+    public static PluginSchedulers schedulersFor(Plugin plugin) {
+        return pluginSchedulers.get(plugin);
+    }
+
+    /**
+     * Spread the items of a flowable over as many ticks as needed, emitting them on the server thread for at most
+     * the given time slice per tick.
+     * <p>
+     * Use it for heavy maintenance jobs like {@code Flowable.fromIterable(world.getEntities())
+     * .compose(RxCaroline.spreadOverTicks(5, TimeUnit.MILLISECONDS))} so they run at a fixed cost per tick.
+     *
+     * @param slice The maximum time spent emitting items per tick.
+     * @param unit  The unit of the time slice.
+     * @param <T>   The type of the items.
+     * @return The transformer.
+     */
+    public static <T> FlowableTransformer<T, T> spreadOverTicks(long slice, TimeUnit unit) {
+        return spreadOverTicks(slice, unit, TickSpreadingTransformer.DEFAULT_PREFETCH);
+    }
+
+    /**
+     * Spread the items of a flowable over as many ticks as needed, requesting the given amount of items from the
+     * upstream at once.
+     *
+     * @param slice    The maximum time spent emitting items per tick.
+     * @param unit     The unit of the time slice.
+     * @param prefetch The amount of items requested from the upstream at once.
+     * @param <T>      The type of the items.
+     * @return The transformer.
+     */
+    public static <T> FlowableTransformer<T, T> spreadOverTicks(long slice, TimeUnit unit, int prefetch) {
+        return new TickSpreadingTransformer<>(plugin, plugin.getServer().getScheduler(), slice, unit, prefetch);
+    }
+
+    /**
+     * Observe every server tick on the server thread.
+     * <p>
+     * All subscribers share one repeating task, use it instead of {@code Observable.interval(50, MILLISECONDS)} for
+     * per tick work. The emitted tick is reused for every emission, read its values before switching threads:
+     * <pre>{@code
+     * RxCaroline.ticks()
+     *         .filter(tick -> tick.getTick() % 20 == 0 && !(tick.getMspt() > 40D))
+     *         .subscribe(tick -> particles.spawnNext());
+     * }</pre>
+     *
+     * @return The observable of the server ticks.
+     */
+    public static Observable<ServerTick> ticks() {
+        return tickClock.getTicks()
+                .compose(RxCaroline::track);
+    }
+
+    /**
+     * Get the metrics of all schedulers and event subscriptions.
+     *
+     * @return The metrics.
+     */
+    public static CarolineMetrics metrics() {
+        return metrics;
+    }
 
     /**
      * Observe on a specific spigot event.
@@ -102,7 +314,69 @@ public class RxCaroline {
      * @return The observable.
      */
     public static <EventType extends Event> Observable<EventType> observeEvent(Class<EventType> eventClazz, EventPriority eventPriority, boolean ignoreCancelled) {
-        return observeEvent(new EventEmitter<EventType>(eventClazz, ignoreCancelled, eventPriority, pluginManager, plugin));
+        return observeEvent(new EventEmitter<EventType>(eventClazz, ignoreCancelled, eventPriority, dispatchHub));
+    }
+
+    /**
+     * Observe the events of a single player.
+     * <p>
+     * Events are routed by the unique id of the player through a hash index, so subscribing for every online player
+     * costs a single lookup per event instead of one filter per subscription. Supports player events and entity
+     * events of players.
+     *
+     * @param eventClazz  The class of the event.
+     * @param player      The player.
+     * @param <EventType> The type of the event.
+     * @return The observable.
+     */
+    public static <EventType extends Event> Observable<EventType> observeEvent(Class<EventType> eventClazz, Player player) {
+        return observeEvent(eventClazz, EventPriority.NORMAL, false, EventKeys.PLAYER, player.getUniqueId());
+    }
+
+    /**
+     * Observe the events of a single world.
+     * <p>
+     * Supports world, chunk, block, player and entity events.
+     *
+     * @param eventClazz  The class of the event.
+     * @param world       The world.
+     * @param <EventType> The type of the event.
+     * @return The observable.
+     */
+    public static <EventType extends Event> Observable<EventType> observeEvent(Class<EventType> eventClazz, World world) {
+        return observeEvent(eventClazz, EventPriority.NORMAL, false, EventKeys.WORLD, world.getUID());
+    }
+
+    /**
+     * Observe the events of a single chunk.
+     * <p>
+     * Supports chunk and block events, player and entity events are routed by the chunk the player or entity is
+     * in when the event gets fired.
+     *
+     * @param eventClazz  The class of the event.
+     * @param chunk       The chunk.
+     * @param <EventType> The type of the event.
+     * @return The observable.
+     */
+    public static <EventType extends Event> Observable<EventType> observeEvent(Class<EventType> eventClazz, Chunk chunk) {
+        return observeEvent(eventClazz, EventPriority.NORMAL, false, EventKeys.CHUNK, ChunkKey.of(chunk));
+    }
+
+    /**
+     * Observe the events with a specific key.
+     *
+     * @param eventClazz      The class of the event.
+     * @param eventPriority   The event priority.
+     * @param ignoreCancelled If we should ignore cancelled events.
+     * @param eventKey        The event key extracting the routing key, should be a constant.
+     * @param key             The key of the events.
+     * @param <EventType>     The type of the event.
+     * @param <KeyType>       The type of the key.
+     * @return The observable.
+     */
+    public static <EventType extends Event, KeyType> Observable<EventType> observeEvent(Class<EventType> eventClazz, EventPriority eventPriority, boolean ignoreCancelled, EventKey<KeyType> eventKey, KeyType key) {
+        return Observable.create(new KeyedEventEmitter<EventType, KeyType>(eventClazz, ignoreCancelled, eventPriority, eventKey, key, dispatchHub))
+                .compose(RxCaroline::track);
     }
 
     /**
@@ -114,14 +388,500 @@ public class RxCaroline {
      */
     private static <EventType extends Event> Observable<EventType> observeEvent(EventEmitter<EventType> eventEmitter) {
         return Observable.create(eventEmitter)
-                .doOnSubscribe(compositeDisposable::add)
-                .doOnDispose(() -> HandlerList.unregisterAll(eventEmitter.getListener()));
+                .compose(RxCaroline::track);
+    }
+
+    /**
+     * Observe a high frequency event in batches of all events of a tick.
+     * <p>
+     * One list is emitted per tick that saw events, at the start of the following tick. Each list belongs to the
+     * downstream, so it may be handed to another thread in a single hop.
+     *
+     * @param eventClazz  The class of the event.
+     * @param <EventType> The type of the event.
+     * @return The observable.
+     */
+    public static <EventType extends Event> Observable<List<EventType>> observeEventBatched(Class<EventType> eventClazz) {
+        return observeEventBatched(eventClazz, 0);
+    }
+
+    /**
+     * Observe a high frequency event in batches of all events of a tick, but at most the given amount of events.
+     *
+     * @param eventClazz   The class of the event.
+     * @param maxBatchSize The maximum amount of events per batch, zero or less for one batch per tick.
+     * @param <EventType>  The type of the event.
+     * @return The observable.
+     */
+    public static <EventType extends Event> Observable<List<EventType>> observeEventBatched(Class<EventType> eventClazz, int maxBatchSize) {
+        return observeEventBatched(eventClazz, EventPriority.NORMAL, false, maxBatchSize);
+    }
+
+    /**
+     * Observe a high frequency event with a given event priority in batches of all events of a tick, but at most the
+     * given amount of events.
+     *
+     * @param eventClazz      The class of the event.
+     * @param eventPriority   The event priority.
+     * @param ignoreCancelled If we should ignore cancelled events.
+     * @param maxBatchSize    The maximum amount of events per batch, zero or less for one batch per tick.
+     * @param <EventType>     The type of the event.
+     * @return The observable.
+     */
+    public static <EventType extends Event> Observable<List<EventType>> observeEventBatched(Class<EventType> eventClazz, EventPriority eventPriority, boolean ignoreCancelled, int maxBatchSize) {
+        return Observable.create(new BatchedEventEmitter<EventType>(eventClazz, ignoreCancelled, eventPriority, maxBatchSize, dispatchHub, plugin, plugin.getServer().getScheduler()))
+                .compose(RxCaroline::track);
+    }
+
+    /**
+     * Observe only the latest event per key and tick, like the last move of every player.
+     * <p>
+     * At most one event per key is kept until the start of the following tick, when all of them are emitted. Memory
+     * is bounded by the amount of keys no matter how often the event fires.
+     *
+     * @param eventClazz  The class of the event.
+     * @param keyFunction The function extracting the key of an event.
+     * @param <EventType> The type of the event.
+     * @return The observable.
+     */
+    public static <EventType extends Event> Observable<EventType> observeEventConflated(Class<EventType> eventClazz, Function<? super EventType, ?> keyFunction) {
+        return observeEventConflated(eventClazz, EventPriority.NORMAL, false, keyFunction);
+    }
+
+    /**
+     * Observe only the latest event per key and tick with a given event priority.
+     *
+     * @param eventClazz      The class of the event.
+     * @param eventPriority   The event priority.
+     * @param ignoreCancelled If we should ignore cancelled events.
+     * @param keyFunction     The function extracting the key of an event.
+     * @param <EventType>     The type of the event.
+     * @return The observable.
+     */
+    public static <EventType extends Event> Observable<EventType> observeEventConflated(Class<EventType> eventClazz, EventPriority eventPriority, boolean ignoreCancelled, Function<? super EventType, ?> keyFunction) {
+        return Observable.create(new ConflatingEventEmitter<EventType, Object>(eventClazz, ignoreCancelled, eventPriority, keyFunction, dispatchHub, plugin, plugin.getServer().getScheduler()))
+                .compose(RxCaroline::track);
+    }
+
+    /**
+     * Observe an event off the server thread through snapshots taken right in the listener.
+     * <p>
+     * The snapshot function runs synchronously in the listener and should only copy what the handler needs, like a
+     * uuid or a location, since bukkit objects must not be touched from other threads. The snapshots of a tick are
+     * emitted as one list on the io scheduler. Return null from the snapshot function to skip an event, a snapshot
+     * function that throws is reported to rx java and skips the event as well.
+     *
+     * @param eventClazz       The class of the event.
+     * @param snapshotFunction The function taking the immutable snapshot of an event.
+     * @param <EventType>      The type of the event.
+     * @param <SnapshotType>   The type of the snapshots.
+     * @return The observable.
+     */
+    public static <EventType extends Event, SnapshotType> Observable<List<SnapshotType>> observeEventAsync(Class<EventType> eventClazz, Function<? super EventType, ? extends SnapshotType> snapshotFunction) {
+        return observeEventAsync(eventClazz, EventPriority.NORMAL, false, snapshotFunction);
+    }
+
+    /**
+     * Observe an event with a given event priority off the server thread through snapshots taken right in the
+     * listener.
+     *
+     * @param eventClazz       The class of the event.
+     * @param eventPriority    The event priority.
+     * @param ignoreCancelled  If we should ignore cancelled events.
+     * @param snapshotFunction The function taking the immutable snapshot of an event.
+     * @param <EventType>      The type of the event.
+     * @param <SnapshotType>   The type of the snapshots.
+     * @return The observable.
+     */
+    public static <EventType extends Event, SnapshotType> Observable<List<SnapshotType>> observeEventAsync(Class<EventType> eventClazz, EventPriority eventPriority, boolean ignoreCancelled, Function<? super EventType, ? extends SnapshotType> snapshotFunction) {
+        return Observable.create(new BatchedEventEmitter<SnapshotType>(eventClazz, ignoreCancelled, eventPriority, snapshotFunction, 0, dispatchHub, plugin, plugin.getServer().getScheduler()))
+                .compose(RxCaroline::track)
+                .observeOn(Schedulers.io());
+    }
+
+    /**
+     * Handle an event off the server thread and apply the resulting changes back on it.
+     * <p>
+     * The snapshots of every tick are handed to the handler on the io scheduler, the handler may block. The
+     * mutations it returns are executed on the server thread in their order, a failing mutation doesn't stop the
+     * others. Return an empty list if nothing has to change. A handler that throws or returns null is reported to rx
+     * java and skips its batch, the following batches are still handled.
+     *
+     * @param eventClazz       The class of the event.
+     * @param snapshotFunction The function taking the immutable snapshot of an event.
+     * @param handler          The function computing the mutations of a batch of snapshots.
+     * @param <EventType>      The type of the event.
+     * @param <SnapshotType>   The type of the snapshots.
+     * @return The disposable to stop handling the event.
+     */
+    public static <EventType extends Event, SnapshotType> Disposable handleEventAsync(Class<EventType> eventClazz, Function<? super EventType, ? extends SnapshotType> snapshotFunction, Function<? super List<SnapshotType>, ? extends Iterable<? extends Runnable>> handler) {
+        return RxCaroline.<EventType, SnapshotType>observeEventAsync(eventClazz, snapshotFunction)
+                .map(snapshots -> handleBatch(handler, snapshots))
+                .observeOn(syncScheduler)
+                .subscribe(RxCaroline::applyMutations, RxJavaPlugins::onError);
+    }
+
+    /**
+     * Flow the events of the given class, dropping events while the subscriber has no demand.
+     *
+     * @param eventClazz  The class of the event.
+     * @param <EventType> The type of the event.
+     * @return The flowable.
+     */
+    public static <EventType extends Event> Flowable<EventType> flowEvent(Class<EventType> eventClazz) {
+        return flowEvent(eventClazz, BackpressureStrategy.DROP);
+    }
+
+    /**
+     * Flow the events of the given class with the given backpressure strategy.
+     * <p>
+     * {@link BackpressureStrategy#BUFFER} buffers without bound, use {@link #flowEvent(Class, int)} for a bounded
+     * buffer.
+     *
+     * @param eventClazz           The class of the event.
+     * @param backpressureStrategy The backpressure strategy.
+     * @param <EventType>          The type of the event.
+     * @return The flowable.
+     */
+    public static <EventType extends Event> Flowable<EventType> flowEvent(Class<EventType> eventClazz, BackpressureStrategy backpressureStrategy) {
+        return flowEvent(eventClazz, EventPriority.NORMAL, false, backpressureStrategy, 0);
+    }
+
+    /**
+     * Flow the events of the given class through a bounded buffer that drops the oldest event once it is full.
+     *
+     * @param eventClazz  The class of the event.
+     * @param bufferSize  The maximum amount of buffered events.
+     * @param <EventType> The type of the event.
+     * @return The flowable.
+     */
+    public static <EventType extends Event> Flowable<EventType> flowEvent(Class<EventType> eventClazz, int bufferSize) {
+        return flowEvent(eventClazz, EventPriority.NORMAL, false, BackpressureStrategy.BUFFER, bufferSize);
+    }
+
+    /**
+     * Flow the events of the given class.
+     * <p>
+     * Events dropped by the {@link BackpressureStrategy#DROP}, {@link BackpressureStrategy#LATEST} and bounded
+     * {@link BackpressureStrategy#BUFFER} strategies are counted in the {@link #metrics()}. The latest strategy is a
+     * buffer of a single event that drops the oldest one, so only the events it replaces are counted.
+     *
+     * @param eventClazz           The class of the event.
+     * @param eventPriority        The event priority.
+     * @param ignoreCancelled      If we should ignore cancelled events.
+     * @param backpressureStrategy The backpressure strategy.
+     * @param bufferSize           The maximum amount of buffered events for the buffer strategy, zero or less for
+     *                             no bound.
+     * @param <EventType>          The type of the event.
+     * @return The flowable.
+     */
+    public static <EventType extends Event> Flowable<EventType> flowEvent(Class<EventType> eventClazz, EventPriority eventPriority, boolean ignoreCancelled, BackpressureStrategy backpressureStrategy, int bufferSize) {
+        boolean latest = backpressureStrategy == BackpressureStrategy.LATEST;
+
+        if (!latest && (backpressureStrategy != BackpressureStrategy.BUFFER || bufferSize <= 0)) {
+            return Flowable.create(new FlowableEventEmitter<EventType>(eventClazz, ignoreCancelled, eventPriority, backpressureStrategy, dispatchHub), backpressureStrategy)
+                    .compose(RxCaroline::trackFlowable);
+        }
+
+        FlowableEventEmitter<EventType> eventEmitter = new FlowableEventEmitter<>(eventClazz, ignoreCancelled, eventPriority, BackpressureStrategy.MISSING, dispatchHub);
+        return Flowable.create(eventEmitter, BackpressureStrategy.MISSING)
+                .onBackpressureBuffer(latest ? 1 : bufferSize, eventEmitter::onOverflow, BackpressureOverflowStrategy.DROP_OLDEST)
+                .compose(RxCaroline::trackFlowable);
+    }
+
+    /**
+     * Observe incoming packets of the given types.
+     * <p>
+     * The packets are emitted on the netty threads, use {@code observeOn(RxCaroline.mainThread())} before touching
+     * the world.
+     *
+     * @param packetTypes The types of the packets.
+     * @return The observable.
+     */
+    public static Observable<PacketEvent> observePacket(PacketType... packetTypes) {
+        return observePacket(ListenerPriority.NORMAL, packetTypes);
+    }
+
+    /**
+     * Observe incoming packets of the given types with a given listener priority.
+     *
+     * @param listenerPriority The listener priority.
+     * @param packetTypes      The types of the packets.
+     * @return The observable.
+     */
+    public static Observable<PacketEvent> observePacket(ListenerPriority listenerPriority, PacketType... packetTypes) {
+        return observePacket(new PacketEmitter(protocolManager, plugin, listenerPriority, false, packetTypes));
+    }
+
+    /**
+     * Observe outgoing packets of the given types.
+     * <p>
+     * The packets are emitted on the netty or the sending threads, use {@code observeOn(RxCaroline.mainThread())}
+     * before touching the world.
+     *
+     * @param packetTypes The types of the packets.
+     * @return The observable.
+     */
+    public static Observable<PacketEvent> observeOutgoingPacket(PacketType... packetTypes) {
+        return observeOutgoingPacket(ListenerPriority.NORMAL, packetTypes);
+    }
+
+    /**
+     * Observe outgoing packets of the given types with a given listener priority.
+     *
+     * @param listenerPriority The listener priority.
+     * @param packetTypes      The types of the packets.
+     * @return The observable.
+     */
+    public static Observable<PacketEvent> observeOutgoingPacket(ListenerPriority listenerPriority, PacketType... packetTypes) {
+        return observePacket(new PacketEmitter(protocolManager, plugin, listenerPriority, true, packetTypes));
+    }
+
+    /**
+     * Create an observable based on the given packet emitter.
+     *
+     * @param packetEmitter The emitter.
+     * @return The observable.
+     */
+    private static Observable<PacketEvent> observePacket(PacketEmitter packetEmitter) {
+        if (protocolManager == null) {
+            return Observable.error(new IllegalStateException("ProtocolLib is not available."));
+        }
+
+        return Observable.create(packetEmitter)
+                .compose(RxCaroline::track);
+    }
+
+    /**
+     * Observe invocations of a command by players and the console.
+     * <p>
+     * The command doesn't have to be declared in the plugin.yml. Matching invocations are cancelled so no other
+     * command with the same name will be executed.
+     *
+     * @param name    The name of the command.
+     * @param aliases The aliases of the command.
+     * @return The observable.
+     */
+    public static Observable<CommandContext> observeCommand(String name, String... aliases) {
+        return Observable.create(new CommandEmitter(name, aliases, dispatchHub, syncScheduler))
+                .compose(RxCaroline::track);
+    }
+
+    /**
+     * Register a tab completer for the arguments of a command.
+     * <p>
+     * The completer runs on the asynchronous scheduler and may block. Its suggestions are shown from the next tab
+     * completion request of the same command line on.
+     *
+     * @param name      The name of the command.
+     * @param completer The function computing the suggestions.
+     * @return The disposable to unregister the completer.
+     */
+    public static Disposable completeCommand(String name, Function<CommandContext, List<String>> completer) {
+        Disposable registration = commandCompleter.register(name, completer);
+        CompositeDisposable tracking = compositeDisposable;
+        tracking.add(registration);
+
+        return Disposables.fromAction(() -> {
+            tracking.delete(registration);
+            registration.dispose();
+        });
+    }
+
+    /**
+     * Create a cache that loads and writes its values on the io scheduler and can be read from the server thread.
+     * <p>
+     * The cache is disposed with the plugin unless it was disposed before, which writes all dirty values.
+     *
+     * @param loader            The function loading a value, may block but must not return null.
+     * @param writer            The consumer writing a dirty value, may block. Null if values are never written.
+     * @param maxSize           The maximum amount of entries, zero or less for no limit.
+     * @param expireAfterAccess The time after the last access an entry expires, zero or less to never expire.
+     * @param unit              The unit of the expiry time.
+     * @param <KeyType>         The type of the keys.
+     * @param <ValueType>       The type of the values.
+     * @return The cache.
+     */
+    public static <KeyType, ValueType> AsyncLoadingCache<KeyType, ValueType> cache(Function<? super KeyType, ? extends ValueType> loader, BiConsumer<? super KeyType, ? super ValueType> writer, int maxSize, long expireAfterAccess, TimeUnit unit) {
+        CompositeDisposable tracking = compositeDisposable;
+        AsyncLoadingCache<KeyType, ValueType> cache = new AsyncLoadingCache<KeyType, ValueType>(loader, writer, maxSize, expireAfterAccess, unit, Schedulers.io()) {
+            @Override
+            public void dispose() {
+                tracking.delete(this);
+                super.dispose();
+            }
+        };
+
+        tracking.add(cache);
+        return cache;
+    }
+
+    /**
+     * Create a cache for per player data that starts loading on pre login and writes behind on quit.
+     * <p>
+     * The cache is disposed with the plugin unless it was disposed before, which writes all dirty values.
+     *
+     * @param loader            The function loading the data of a player, may block but must not return null.
+     * @param writer            The consumer writing dirty data, may block. Null if data is never written.
+     * @param maxSize           The maximum amount of entries, zero or less for no limit.
+     * @param expireAfterAccess The time after the last access an entry expires, zero or less to never expire.
+     * @param unit              The unit of the expiry time.
+     * @param <ValueType>       The type of the player data.
+     * @return The cache.
+     */
+    public static <ValueType> PlayerDataCache<ValueType> playerCache(Function<? super UUID, ? extends ValueType> loader, BiConsumer<? super UUID, ? super ValueType> writer, int maxSize, long expireAfterAccess, TimeUnit unit) {
+        CompositeDisposable tracking = compositeDisposable;
+        PlayerDataCache<ValueType> cache = new PlayerDataCache<ValueType>(loader, writer, maxSize, expireAfterAccess, unit, Schedulers.io(),
+                observeEvent(AsyncPlayerPreLoginEvent.class, EventPriority.MONITOR),
+                observeEvent(PlayerQuitEvent.class, EventPriority.MONITOR)) {
+            @Override
+            public void dispose() {
+                tracking.delete(this);
+                super.dispose();
+            }
+        };
+
+        tracking.add(cache);
+        return cache;
+    }
+
+    /**
+     * Start recording events into an event journal, add the event classes to record with
+     * {@link EventRecorder#record(Class, EventCodec)}.
+     * <p>
+     * The recorder is disposed with the plugin unless it was disposed before, which closes the journal.
+     *
+     * @param path The path of the journal file, an existing file is replaced.
+     * @return The recorder.
+     * @throws IOException If the journal can't be created.
+     */
+    public static EventRecorder recordEvents(Path path) throws IOException {
+        CompositeDisposable tracking = compositeDisposable;
+        EventRecorder recorder = new EventRecorder(path, dispatchHub) {
+            @Override
+            public void dispose() {
+                tracking.delete(this);
+                super.dispose();
+            }
+        };
+
+        tracking.add(recorder);
+        return recorder;
+    }
+
+    /**
+     * Create a replayer of an event journal that calls the events through the plugin manager of the server.
+     *
+     * @param path The path of the journal file.
+     * @return The replayer.
+     */
+    public static EventReplayer replayEvents(Path path) {
+        return new EventReplayer(path, plugin, plugin.getServer().getPluginManager(), plugin.getServer().getScheduler());
     }
 
     /**
      * Clean da shiat up.
      */
     public static void reset() {
-        compositeDisposable.dispose();
+        CompositeDisposable tracking = compositeDisposable;
+        compositeDisposable = new CompositeDisposable();
+        tracking.dispose();
+        dispatchHub.shutdown();
+    }
+
+    /**
+     * Compute the mutations of a batch of snapshots, a failing handler is reported and skips the batch.
+     *
+     * @param handler        The function computing the mutations of a batch of snapshots.
+     * @param snapshots      The batch of snapshots.
+     * @param <SnapshotType> The type of the snapshots.
+     * @return The mutations, empty if the handler failed.
+     */
+    private static <SnapshotType> Iterable<? extends Runnable> handleBatch(Function<? super List<SnapshotType>, ? extends Iterable<? extends Runnable>> handler, List<SnapshotType> snapshots) {
+        Iterable<? extends Runnable> mutations;
+
+        try {
+            mutations = handler.apply(snapshots);
+        } catch (Throwable throwable) {
+            Exceptions.throwIfFatal(throwable);
+            RxJavaPlugins.onError(throwable);
+            return Collections.emptyList();
+        }
+
+        if (mutations == null) {
+            RxJavaPlugins.onError(new NullPointerException("The handler of " + snapshots.size() + " snapshots returned null."));
+            return Collections.emptyList();
+        }
+
+        return mutations;
+    }
+
+    /**
+     * Execute the given mutations, a failing mutation is reported and doesn't stop the others.
+     *
+     * @param mutations The mutations.
+     */
+    private static void applyMutations(Iterable<? extends Runnable> mutations) {
+        for (Runnable mutation : mutations) {
+            try {
+                mutation.run();
+            } catch (Throwable throwable) {
+                Exceptions.throwIfFatal(throwable);
+                RxJavaPlugins.onError(throwable);
+            }
+        }
+    }
+
+    /**
+     * Track the subscriptions of an observable until they are disposed or terminated.
+     *
+     * @param observable The observable.
+     * @param <T>        The type of the elements.
+     * @return The tracked observable.
+     */
+    private static <T> Observable<T> track(Observable<T> observable) {
+        return Observable.defer(() -> {
+            CompositeDisposable tracking = compositeDisposable;
+            AtomicReference<Disposable> subscription = new AtomicReference<>();
+
+            return observable
+                    .doOnSubscribe(disposable -> {
+                        subscription.set(disposable);
+                        tracking.add(disposable);
+                    })
+                    .doFinally(() -> {
+                        Disposable disposable = subscription.get();
+                        if (disposable != null) {
+                            tracking.delete(disposable);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Track the subscriptions of a flowable until they are cancelled or terminated.
+     *
+     * @param flowable The flowable.
+     * @param <T>      The type of the elements.
+     * @return The tracked flowable.
+     */
+    private static <T> Flowable<T> trackFlowable(Flowable<T> flowable) {
+        return Flowable.defer(() -> {
+            CompositeDisposable tracking = compositeDisposable;
+            AtomicReference<Disposable> subscription = new AtomicReference<>();
+
+            return flowable
+                    .doOnSubscribe(upstream -> {
+                        Disposable disposable = Disposables.fromSubscription(upstream);
+                        subscription.set(disposable);
+                        tracking.add(disposable);
+                    })
+                    .doFinally(() -> {
+                        Disposable disposable = subscription.get();
+                        if (disposable != null) {
+                            tracking.delete(disposable);
+                        }
+                    });
+        });
     }
 }
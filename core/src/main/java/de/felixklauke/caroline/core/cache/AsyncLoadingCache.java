@@ -0,0 +1,532 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.cache;
+
+import io.reactivex.Completable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.BiConsumer;
+import io.reactivex.functions.Function;
+import io.reactivex.plugins.RxJavaPlugins;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A cache that loads and writes its values on a background scheduler and can be read from the server thread
+ * without blocking.
+ * <p>
+ * Loads of the same key are shared and started eagerly, so a load triggered early, for example on pre login, is
+ * usually done when the value is read on the server thread via {@link #getIfPresent(Object)}. Changed values are
+ * marked dirty and written behind when they get flushed, invalidated, evicted or when the cache is disposed. Writes of
+ * the same key run in order and a load waits for the pending writes of its key, so it never reads stale data. Loads
+ * still running when their key is invalidated don't cache their value.
+ * <p>
+ * A sweep on the background scheduler evicts entries that weren't accessed for the configured time and the least
+ * recently accessed entries above the maximum size.
+ *
+ * @param <KeyType>   The type of the keys.
+ * @param <ValueType> The type of the values.
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class AsyncLoadingCache<KeyType, ValueType> implements Disposable {
+
+    /**
+     * The interval of the eviction sweep in milliseconds.
+     */
+    private static final long SWEEP_INTERVAL_MILLIS = 1000L;
+
+    /**
+     * The cached entries.
+     */
+    private final ConcurrentMap<KeyType, CacheEntry<ValueType>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The loads in progress.
+     */
+    private final ConcurrentMap<KeyType, Load> loads = new ConcurrentHashMap<>();
+
+    /**
+     * The last pending write of every key that is written behind.
+     */
+    private final ConcurrentMap<KeyType, Completable> writes = new ConcurrentHashMap<>();
+
+    /**
+     * The writes behind that didn't run yet, in the order they were queued.
+     */
+    private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    /**
+     * If the cache is disposed.
+     */
+    private final AtomicBoolean disposed = new AtomicBoolean();
+
+    /**
+     * The function loading a value, may block.
+     */
+    private final Function<? super KeyType, ? extends ValueType> loader;
+
+    /**
+     * The consumer writing a dirty value, may block. Null if values are never written.
+     */
+    private final BiConsumer<? super KeyType, ? super ValueType> writer;
+
+    /**
+     * The maximum amount of entries, zero or less for no limit.
+     */
+    private final int maxSize;
+
+    /**
+     * The nanoseconds after the last access an entry expires, zero or less to never expire.
+     */
+    private final long expireAfterAccessNanos;
+
+    /**
+     * The scheduler running loads, writes and the eviction sweep.
+     */
+    private final Scheduler scheduler;
+
+    /**
+     * The eviction sweep.
+     */
+    private final Disposable sweepTask;
+
+    /**
+     * Create a new async loading cache.
+     *
+     * @param loader            The function loading a value, may block but must not return null.
+     * @param writer            The consumer writing a dirty value, may block. Null if values are never written.
+     * @param maxSize           The maximum amount of entries, zero or less for no limit.
+     * @param expireAfterAccess The time after the last access an entry expires, zero or less to never expire.
+     * @param unit              The unit of the expiry time.
+     * @param scheduler         The scheduler running loads, writes and the eviction sweep.
+     */
+    public AsyncLoadingCache(Function<? super KeyType, ? extends ValueType> loader, BiConsumer<? super KeyType, ? super ValueType> writer, int maxSize, long expireAfterAccess, TimeUnit unit, Scheduler scheduler) {
+        this.loader = loader;
+        this.writer = writer;
+        this.maxSize = maxSize;
+        this.expireAfterAccessNanos = unit.toNanos(expireAfterAccess);
+        this.scheduler = scheduler;
+        this.sweepTask = scheduler.schedulePeriodicallyDirect(this::sweep, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the value of a key and load it if it isn't cached.
+     * <p>
+     * Cached values are emitted right away, loaded values on the background scheduler once the pending writes of the
+     * key are done.
+     *
+     * @param key The key.
+     * @return The single emitting the value.
+     */
+    public Single<ValueType> get(KeyType key) {
+        CacheEntry<ValueType> entry = entries.get(key);
+        if (entry != null) {
+            entry.touch();
+            return Single.just(entry.value);
+        }
+
+        Load load = loads.get(key);
+        if (load != null) {
+            return load.value;
+        }
+
+        Completable pendingWrite = writes.get(key);
+        load = new Load(key, pendingWrite == null ? Completable.complete() : pendingWrite);
+
+        Load existingLoad = loads.putIfAbsent(key, load);
+        if (existingLoad != null) {
+            return existingLoad.value;
+        }
+
+        load.value.subscribe((value, throwable) -> {
+        });
+        return load.value;
+    }
+
+    /**
+     * Get the value of a key if it is cached.
+     * <p>
+     * Never blocks and never loads, safe to call from the server thread.
+     *
+     * @param key The key.
+     * @return The value, null if it isn't cached.
+     */
+    public ValueType getIfPresent(KeyType key) {
+        CacheEntry<ValueType> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        entry.touch();
+        return entry.value;
+    }
+
+    /**
+     * Cache a value and mark it dirty so it gets written behind.
+     *
+     * @param key   The key.
+     * @param value The value.
+     */
+    public void put(KeyType key, ValueType value) {
+        CacheEntry<ValueType> entry = new CacheEntry<>(value);
+        entry.dirty = true;
+        entries.put(key, entry);
+    }
+
+    /**
+     * Mark the cached value of a key dirty after it was changed in place.
+     *
+     * @param key The key.
+     * @return If the value is cached.
+     */
+    public boolean markDirty(KeyType key) {
+        CacheEntry<ValueType> entry = entries.get(key);
+        if (entry == null) {
+            return false;
+        }
+
+        entry.dirty = true;
+        entry.touch();
+        return true;
+    }
+
+    /**
+     * Write the value of a key on the background scheduler if it is dirty.
+     *
+     * @param key The key.
+     * @return The completable of the write, already started.
+     */
+    public Completable flush(KeyType key) {
+        CacheEntry<ValueType> entry = entries.get(key);
+        return entry == null ? Completable.complete() : writeBehind(key, entry);
+    }
+
+    /**
+     * Remove the value of a key and write it on the background scheduler if it is dirty.
+     * <p>
+     * A load of the key that is still running won't cache its value, the next {@link #get(Object)} loads again after
+     * the write.
+     *
+     * @param key The key.
+     * @return The completable of the write, already started.
+     */
+    public Completable invalidate(KeyType key) {
+        loads.remove(key);
+
+        CacheEntry<ValueType> entry = entries.get(key);
+        return entry == null ? Completable.complete() : remove(key, entry);
+    }
+
+    /**
+     * Get the amount of cached values.
+     *
+     * @return The amount of values.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Stop the eviction sweep and write all dirty values on the calling thread.
+     * <p>
+     * Blocks until all values are written, so the data is safe when the plugin gets disabled. Writes behind that were
+     * queued by flushes, invalidations or evictions but didn't run yet are run here too, bukkit cancels the tasks of a
+     * disabled plugin before they might get to it.
+     */
+    @Override
+    public void dispose() {
+        if (!disposed.compareAndSet(false, true)) {
+            return;
+        }
+
+        sweepTask.dispose();
+
+        for (PendingWrite pendingWrite : pendingWrites) {
+            pendingWrite.run();
+        }
+
+        for (Map.Entry<KeyType, CacheEntry<ValueType>> entry : entries.entrySet()) {
+            write(entry.getKey(), entry.getValue());
+        }
+
+        entries.clear();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed.get();
+    }
+
+    /**
+     * Remove an entry and write it on the background scheduler if it is dirty.
+     * <p>
+     * The write is queued before the entry is removed, so loads started after the removal wait for it.
+     *
+     * @param key   The key.
+     * @param entry The entry.
+     * @return The completable of the write, already started.
+     */
+    private Completable remove(KeyType key, CacheEntry<ValueType> entry) {
+        Completable write = writeBehind(key, entry);
+        entries.remove(key, entry);
+        return write;
+    }
+
+    /**
+     * Evict expired entries and the least recently accessed entries above the maximum size.
+     */
+    private void sweep() {
+        long nowNanos = System.nanoTime();
+
+        if (expireAfterAccessNanos > 0) {
+            for (Map.Entry<KeyType, CacheEntry<ValueType>> entry : entries.entrySet()) {
+                if (nowNanos - entry.getValue().lastAccessNanos > expireAfterAccessNanos) {
+                    evict(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        int overflow = maxSize > 0 ? entries.size() - maxSize : 0;
+        if (overflow <= 0) {
+            return;
+        }
+
+        List<Map.Entry<KeyType, CacheEntry<ValueType>>> candidates = new ArrayList<>(entries.entrySet());
+        candidates.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccessNanos));
+
+        for (int i = 0; i < overflow && i < candidates.size(); i++) {
+            evict(candidates.get(i).getKey(), candidates.get(i).getValue());
+        }
+    }
+
+    /**
+     * Evict an entry unless it was replaced and write it behind if it is dirty.
+     *
+     * @param key   The key.
+     * @param entry The entry.
+     */
+    private void evict(KeyType key, CacheEntry<ValueType> entry) {
+        if (entries.get(key) == entry) {
+            remove(key, entry);
+        }
+    }
+
+    /**
+     * Write an entry on the background scheduler if it is dirty, after the pending writes of its key.
+     *
+     * @param key   The key.
+     * @param entry The entry.
+     * @return The completable of the write, already started.
+     */
+    private Completable writeBehind(KeyType key, CacheEntry<ValueType> entry) {
+        if (!entry.dirty || writer == null) {
+            return Completable.complete();
+        }
+
+        PendingWrite pendingWrite = new PendingWrite(key, entry);
+        Completable action = Completable.fromAction(pendingWrite::run)
+                .subscribeOn(scheduler);
+        Completable write = writes.compute(key, (writeKey, previousWrite) -> {
+            // Queued while the key is locked, so the pending writes of a key keep their order for the dispose.
+            pendingWrites.offer(pendingWrite);
+            return (previousWrite == null ? action : previousWrite.onErrorComplete().andThen(action)).cache();
+        });
+
+        write.subscribe(() -> writes.remove(key, write), throwable -> writes.remove(key, write));
+        return write;
+    }
+
+    /**
+     * Write an entry on the current thread if it is dirty.
+     * <p>
+     * The entry is marked clean before it is written, so changes made during the write mark it dirty again. Failed
+     * writes mark it dirty again and are reported to rx java. Writes of the same entry run one after another, so a
+     * write that finds the entry clean returns only after the write that cleaned it is done.
+     *
+     * @param key   The key.
+     * @param entry The entry.
+     */
+    private void write(KeyType key, CacheEntry<ValueType> entry) {
+        if (writer == null) {
+            return;
+        }
+
+        synchronized (entry) {
+            if (!entry.dirty) {
+                return;
+            }
+
+            entry.dirty = false;
+
+            try {
+                writer.accept(key, entry.value);
+            } catch (Throwable throwable) {
+                Exceptions.throwIfFatal(throwable);
+                entry.dirty = true;
+                RxJavaPlugins.onError(throwable);
+            }
+        }
+    }
+
+    /**
+     * A write behind that leaves the pending writes once it ran.
+     */
+    private final class PendingWrite implements Runnable {
+
+        /**
+         * The key.
+         */
+        private final KeyType key;
+
+        /**
+         * The entry.
+         */
+        private final CacheEntry<ValueType> entry;
+
+        /**
+         * Create a new pending write.
+         *
+         * @param key   The key.
+         * @param entry The entry.
+         */
+        PendingWrite(KeyType key, CacheEntry<ValueType> entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+
+        @Override
+        public void run() {
+            try {
+                write(key, entry);
+            } finally {
+                pendingWrites.remove(this);
+            }
+        }
+    }
+
+    /**
+     * A load in progress that caches its value unless its key was invalidated meanwhile.
+     */
+    private final class Load {
+
+        /**
+         * The key.
+         */
+        private final KeyType key;
+
+        /**
+         * The single emitting the loaded or meanwhile cached value, already started once registered.
+         */
+        private final Single<ValueType> value;
+
+        /**
+         * Create a new load.
+         *
+         * @param key          The key.
+         * @param pendingWrite The pending write of the key the load waits for.
+         */
+        Load(KeyType key, Completable pendingWrite) {
+            this.key = key;
+            this.value = pendingWrite.onErrorComplete()
+                    .andThen(Single.<ValueType>fromCallable(() -> loader.apply(key)).subscribeOn(scheduler))
+                    .map(this::store)
+                    .doFinally(() -> loads.remove(key, this))
+                    .cache();
+        }
+
+        /**
+         * Cache the loaded value unless a value was put meanwhile or the load was dropped.
+         * <p>
+         * The value is cached while the load is removed from the loads in progress, so an invalidation either drops
+         * the load before or removes the cached value after.
+         *
+         * @param loadedValue The loaded value.
+         * @return The value to emit.
+         */
+        private ValueType store(ValueType loadedValue) {
+            loads.computeIfPresent(key, (loadKey, load) -> {
+                if (load != this) {
+                    return load;
+                }
+
+                entries.putIfAbsent(key, new CacheEntry<>(loadedValue));
+                return null;
+            });
+
+            CacheEntry<ValueType> entry = entries.get(key);
+            return entry == null ? loadedValue : entry.value;
+        }
+    }
+
+    /**
+     * A single cached value.
+     *
+     * @param <ValueType> The type of the value.
+     */
+    private static final class CacheEntry<ValueType> {
+
+        /**
+         * The value.
+         */
+        private final ValueType value;
+
+        /**
+         * The nano time of the last access.
+         */
+        private volatile long lastAccessNanos = System.nanoTime();
+
+        /**
+         * If the value changed since it was loaded or written.
+         */
+        private volatile boolean dirty;
+
+        /**
+         * Create a new cache entry.
+         *
+         * @param value The value.
+         */
+        CacheEntry(ValueType value) {
+            this.value = value;
+        }
+
+        /**
+         * Record an access.
+         */
+        void touch() {
+            lastAccessNanos = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.cache;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.functions.BiConsumer;
+import io.reactivex.functions.Function;
+import io.reactivex.plugins.RxJavaPlugins;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An async loading cache for per player data.
+ * <p>
+ * The data of a player starts loading as soon as the login got allowed, so it is usually cached when the player
+ * joins. When the player quits the data is removed and written behind on the background scheduler, a player joining
+ * again before that write is done gets the data loaded after it.
+ *
+ * @param <ValueType> The type of the player data.
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class PlayerDataCache<ValueType> extends AsyncLoadingCache<UUID, ValueType> {
+
+    /**
+     * The subscriptions of the login and quit events.
+     */
+    private final CompositeDisposable subscriptions = new CompositeDisposable();
+
+    /**
+     * Create a new player data cache.
+     *
+     * @param loader            The function loading the data of a player, may block but must not return null.
+     * @param writer            The consumer writing dirty data, may block. Null if data is never written.
+     * @param maxSize           The maximum amount of entries, zero or less for no limit.
+     * @param expireAfterAccess The time after the last access an entry expires, zero or less to never expire.
+     * @param unit              The unit of the expiry time.
+     * @param scheduler         The scheduler running loads, writes and the eviction sweep.
+     * @param logins            The pre login events, observed after all other listeners decided.
+     * @param quits             The quit events.
+     */
+    public PlayerDataCache(Function<? super UUID, ? extends ValueType> loader, BiConsumer<? super UUID, ? super ValueType> writer, int maxSize, long expireAfterAccess, TimeUnit unit, Scheduler scheduler, Observable<AsyncPlayerPreLoginEvent> logins, Observable<PlayerQuitEvent> quits) {
+        super(loader, writer, maxSize, expireAfterAccess, unit, scheduler);
+
+        subscriptions.add(logins
+                .filter(event -> event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED)
+                .subscribe(event -> get(event.getUniqueId()).subscribe((value, throwable) -> {
+                    if (throwable != null) {
+                        RxJavaPlugins.onError(throwable);
+                    }
+                })));
+        subscriptions.add(quits.subscribe(event -> invalidate(event.getPlayer().getUniqueId())));
+    }
+
+    /**
+     * Get the cached data of a player.
+     * <p>
+     * Never blocks and never loads, safe to call from the server thread.
+     *
+     * @param player The player.
+     * @return The data, null if it isn't loaded (yet).
+     */
+    public ValueType getIfPresent(Player player) {
+        return getIfPresent(player.getUniqueId());
+    }
+
+    @Override
+    public void dispose() {
+        subscriptions.dispose();
+        super.dispose();
+    }
+}
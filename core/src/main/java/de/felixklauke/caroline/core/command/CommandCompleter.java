@@ -0,0 +1,227 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.command;
+
+import de.felixklauke.caroline.core.emitter.EventDispatchHub;
+import io.reactivex.Emitter;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.functions.Function;
+import io.reactivex.plugins.RxJavaPlugins;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.server.TabCompleteEvent;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Answers tab completion requests of reactive commands without blocking the server thread.
+ * <p>
+ * Bukkit expects the completions right inside the {@link TabCompleteEvent}. The first request of a command line starts
+ * the completion on the asynchronous scheduler and answers with no suggestions, the result is handed back to the
+ * server thread and used for every following request of the same sender and command line until it expires.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class CommandCompleter implements Emitter<Event> {
+
+    /**
+     * The time a computed completion is reused.
+     */
+    private static final long COMPLETION_TTL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * The amount of cached completions that triggers the removal of expired ones.
+     */
+    private static final int CACHE_PRUNE_SIZE = 1024;
+
+    /**
+     * The completers by their lower case command label.
+     */
+    private final ConcurrentMap<String, Function<CommandContext, List<String>>> completers = new ConcurrentHashMap<>();
+
+    /**
+     * The cached completions by sender and command line.
+     */
+    private final ConcurrentMap<String, Completion> completions = new ConcurrentHashMap<>();
+
+    /**
+     * If the completer is attached to the tab complete events.
+     */
+    private final AtomicBoolean attached = new AtomicBoolean();
+
+    /**
+     * The hub that holds the bukkit registrations.
+     */
+    private final EventDispatchHub dispatchHub;
+
+    /**
+     * The scheduler the completions are computed on.
+     */
+    private final Scheduler asyncScheduler;
+
+    /**
+     * The scheduler used to get back to the server thread.
+     */
+    private final Scheduler mainThread;
+
+    /**
+     * Create a new command completer.
+     *
+     * @param dispatchHub    The hub that holds the bukkit registrations.
+     * @param asyncScheduler The scheduler the completions are computed on.
+     * @param mainThread     The scheduler used to get back to the server thread.
+     */
+    @Inject
+    public CommandCompleter(EventDispatchHub dispatchHub, @Named("asyncScheduler") Scheduler asyncScheduler, @Named("syncScheduler") Scheduler mainThread) {
+        this.dispatchHub = dispatchHub;
+        this.asyncScheduler = asyncScheduler;
+        this.mainThread = mainThread;
+    }
+
+    /**
+     * Register the completer of a command.
+     *
+     * @param name      The name of the command.
+     * @param completer The function computing the suggestions, it may block.
+     * @return The disposable to unregister the completer.
+     */
+    public Disposable register(String name, Function<CommandContext, List<String>> completer) {
+        String label = name.toLowerCase(Locale.ROOT);
+
+        if (completers.putIfAbsent(label, completer) != null) {
+            throw new IllegalStateException("There already is a completer for the command " + name + ".");
+        }
+
+        if (attached.compareAndSet(false, true)) {
+            dispatchHub.getDispatcher(TabCompleteEvent.class, EventPriority.NORMAL, true).add(this);
+        }
+
+        return Disposables.fromAction(() -> completers.remove(label, completer));
+    }
+
+    @Override
+    public void onNext(Event event) {
+        TabCompleteEvent tabCompleteEvent = (TabCompleteEvent) event;
+        String buffer = tabCompleteEvent.getBuffer();
+
+        if (!buffer.startsWith("/")) {
+            return;
+        }
+
+        CommandContext context = CommandContext.parse(tabCompleteEvent.getSender(), buffer.substring(1), true, mainThread);
+        Function<CommandContext, List<String>> completer = completers.get(context.getLabel());
+
+        if (completer == null || context.getArgs().length == 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        String cacheKey = tabCompleteEvent.getSender().getName() + '\n' + buffer;
+        Completion completion = completions.get(cacheKey);
+
+        if (completion != null && !completion.isExpired(now)) {
+            tabCompleteEvent.setCompletions(new ArrayList<>(completion.suggestions));
+            return;
+        }
+
+        Completion pendingCompletion = new Completion(now);
+        completions.put(cacheKey, pendingCompletion);
+        pruneCompletions(now);
+
+        Single.fromCallable(() -> completer.apply(context))
+                .subscribeOn(asyncScheduler)
+                .observeOn(mainThread)
+                .subscribe(suggestions -> pendingCompletion.suggestions = suggestions, RxJavaPlugins::onError);
+
+        tabCompleteEvent.setCompletions(new ArrayList<>());
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        RxJavaPlugins.onError(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+    }
+
+    /**
+     * Remove all expired completions once the cache grew too large.
+     *
+     * @param now The current nano time.
+     */
+    private void pruneCompletions(long now) {
+        if (completions.size() > CACHE_PRUNE_SIZE) {
+            completions.values().removeIf(completion -> completion.isExpired(now));
+        }
+    }
+
+    /**
+     * The suggestions computed for a single sender and command line.
+     */
+    private static final class Completion {
+
+        /**
+         * The nano time the completion was requested at.
+         */
+        private final long requestedNanos;
+
+        /**
+         * The suggestions, empty while they are computed.
+         */
+        private volatile List<String> suggestions = Collections.emptyList();
+
+        /**
+         * Create a new completion.
+         *
+         * @param requestedNanos The nano time the completion was requested at.
+         */
+        Completion(long requestedNanos) {
+            this.requestedNanos = requestedNanos;
+        }
+
+        /**
+         * Check if the completion shouldn't be used anymore.
+         *
+         * @param now The current nano time.
+         * @return If the completion expired.
+         */
+        boolean isExpired(long now) {
+            return now - requestedNanos > COMPLETION_TTL_NANOS;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.command;
+
+import io.reactivex.Scheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * A single invocation or tab completion request of a command.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class CommandContext {
+
+    /**
+     * The sender of the command.
+     */
+    private final CommandSender sender;
+
+    /**
+     * The lower case label the command was invoked with.
+     */
+    private final String label;
+
+    /**
+     * The arguments of the command.
+     */
+    private final String[] args;
+
+    /**
+     * The scheduler used to get back to the server thread.
+     */
+    private final Scheduler mainThread;
+
+    /**
+     * Create a new command context.
+     *
+     * @param sender     The sender of the command.
+     * @param label      The lower case label the command was invoked with.
+     * @param args       The arguments of the command.
+     * @param mainThread The scheduler used to get back to the server thread.
+     */
+    public CommandContext(CommandSender sender, String label, String[] args, Scheduler mainThread) {
+        this.sender = sender;
+        this.label = label;
+        this.args = args;
+        this.mainThread = mainThread;
+    }
+
+    /**
+     * Parse a command line without its leading slash.
+     * <p>
+     * For tab completion a trailing space starts a new, empty argument.
+     *
+     * @param sender        The sender of the command.
+     * @param commandLine   The command line.
+     * @param tabCompletion If the command line belongs to a tab completion request.
+     * @param mainThread    The scheduler used to get back to the server thread.
+     * @return The context.
+     */
+    static CommandContext parse(CommandSender sender, String commandLine, boolean tabCompletion, Scheduler mainThread) {
+        String[] parts = commandLine.split(" ", tabCompletion ? -1 : 0);
+        String label = parts.length == 0 ? "" : parts[0].toLowerCase(Locale.ROOT);
+        String[] args = parts.length == 0 ? new String[0] : Arrays.copyOfRange(parts, 1, parts.length);
+        return new CommandContext(sender, label, args, mainThread);
+    }
+
+    /**
+     * Send a message to the sender on the server thread.
+     *
+     * @param message The message.
+     */
+    public void reply(String message) {
+        if (Bukkit.isPrimaryThread()) {
+            sender.sendMessage(message);
+            return;
+        }
+
+        mainThread.scheduleDirect(() -> sender.sendMessage(message));
+    }
+
+    /**
+     * Get the sender of the command.
+     *
+     * @return The sender.
+     */
+    public CommandSender getSender() {
+        return sender;
+    }
+
+    /**
+     * Check if the command was sent by a player.
+     *
+     * @return If the sender is a player.
+     */
+    public boolean isPlayer() {
+        return sender instanceof Player;
+    }
+
+    /**
+     * Get the lower case label the command was invoked with.
+     *
+     * @return The label.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Get the arguments of the command.
+     *
+     * @return The arguments.
+     */
+    public String[] getArgs() {
+        return args;
+    }
+}
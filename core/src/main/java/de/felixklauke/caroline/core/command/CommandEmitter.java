@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.command;
+
+import de.felixklauke.caroline.core.emitter.EventDispatchHub;
+import de.felixklauke.caroline.core.emitter.EventDispatcher;
+import io.reactivex.Emitter;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableOnSubscribe;
+import io.reactivex.Scheduler;
+import org.bukkit.command.CommandSender;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.server.ServerCommandEvent;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A custom command emitter that will emit invocations of a command by players and the console into observables.
+ * <p>
+ * The command doesn't have to be declared in any plugin.yml, matching invocations are intercepted from the command
+ * events and cancelled so bukkit won't answer with an unknown command.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class CommandEmitter implements ObservableOnSubscribe<CommandContext> {
+
+    /**
+     * The lower case name and aliases of the command.
+     */
+    private final Set<String> labels;
+
+    /**
+     * The hub that holds the bukkit registrations.
+     */
+    private final EventDispatchHub dispatchHub;
+
+    /**
+     * The scheduler used to get back to the server thread.
+     */
+    private final Scheduler mainThread;
+
+    /**
+     * Create a new command emitter.
+     *
+     * @param name        The name of the command.
+     * @param aliases     The aliases of the command.
+     * @param dispatchHub The hub that holds the bukkit registrations.
+     * @param mainThread  The scheduler used to get back to the server thread.
+     */
+    public CommandEmitter(String name, String[] aliases, EventDispatchHub dispatchHub, Scheduler mainThread) {
+        this.labels = Stream.concat(Stream.of(name), Stream.of(aliases))
+                .map(label -> label.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        this.dispatchHub = dispatchHub;
+        this.mainThread = mainThread;
+    }
+
+    @Override
+    public void subscribe(ObservableEmitter<CommandContext> observableEmitter) {
+        EventDispatcher playerDispatcher = dispatchHub.getDispatcher(PlayerCommandPreprocessEvent.class, EventPriority.LOWEST, true);
+        EventDispatcher consoleDispatcher = dispatchHub.getDispatcher(ServerCommandEvent.class, EventPriority.LOWEST, true);
+        CommandSink commandSink = new CommandSink(observableEmitter);
+
+        playerDispatcher.add(commandSink);
+        consoleDispatcher.add(commandSink);
+        observableEmitter.setCancellable(() -> {
+            playerDispatcher.remove(commandSink);
+            consoleDispatcher.remove(commandSink);
+        });
+    }
+
+    /**
+     * Translates command events into command contexts.
+     */
+    private final class CommandSink implements Emitter<Event> {
+
+        /**
+         * The downstream emitter.
+         */
+        private final ObservableEmitter<CommandContext> observableEmitter;
+
+        /**
+         * Create a new command sink.
+         *
+         * @param observableEmitter The downstream emitter.
+         */
+        CommandSink(ObservableEmitter<CommandContext> observableEmitter) {
+            this.observableEmitter = observableEmitter;
+        }
+
+        @Override
+        public void onNext(Event event) {
+            CommandSender sender;
+            String commandLine;
+
+            if (event instanceof PlayerCommandPreprocessEvent) {
+                PlayerCommandPreprocessEvent commandEvent = (PlayerCommandPreprocessEvent) event;
+                sender = commandEvent.getPlayer();
+                commandLine = commandEvent.getMessage().substring(1);
+            } else {
+                ServerCommandEvent commandEvent = (ServerCommandEvent) event;
+                sender = commandEvent.getSender();
+                commandLine = commandEvent.getCommand();
+            }
+
+            CommandContext context = CommandContext.parse(sender, commandLine, false, mainThread);
+            if (!labels.contains(context.getLabel())) {
+                return;
+            }
+
+            ((Cancellable) event).setCancelled(true);
+            observableEmitter.onNext(context);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            observableEmitter.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            observableEmitter.onComplete();
+        }
+    }
+}
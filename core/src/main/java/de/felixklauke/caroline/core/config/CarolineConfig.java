@@ -0,0 +1,344 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.config;
+
+import de.felixklauke.caroline.core.scheduler.AsyncTimerMode;
+import de.felixklauke.caroline.core.scheduler.ComputationSchedulerMode;
+import de.felixklauke.caroline.core.scheduler.IoSchedulerMode;
+import de.felixklauke.caroline.core.scheduler.SyncSchedulerMode;
+import de.felixklauke.caroline.core.scheduler.SyncTimerMode;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The settings of caroline read from the plugin config.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class CarolineConfig {
+
+    /**
+     * The way the synchronous scheduler hands its tasks to the server thread.
+     */
+    private final SyncSchedulerMode syncSchedulerMode;
+
+    /**
+     * The nanoseconds normal and deferrable main thread tasks may use per tick, zero for no limit.
+     */
+    private final long tickBudgetNanos;
+
+    /**
+     * The average tick duration in nanoseconds above which deferrable tasks are held back, zero to disable.
+     */
+    private final long sheddingThresholdNanos;
+
+    /**
+     * The maximum amount of ticks a deferrable task is held back.
+     */
+    private final int maxDeferralTicks;
+
+    /**
+     * The maximum amount of nested inline executions on the server thread, zero to never execute inline.
+     */
+    private final int maxInlineDepth;
+
+    /**
+     * The way the synchronous scheduler times delayed and periodic tasks.
+     */
+    private final SyncTimerMode syncTimerMode;
+
+    /**
+     * The way the computation scheduler is backed.
+     */
+    private final ComputationSchedulerMode computationSchedulerMode;
+
+    /**
+     * The amount of computation threads, zero means one per available processor.
+     */
+    private final int computationThreads;
+
+    /**
+     * The way the asynchronous scheduler times delayed and periodic tasks.
+     */
+    private final AsyncTimerMode asyncTimerMode;
+
+    /**
+     * The way the io scheduler is backed.
+     */
+    private final IoSchedulerMode ioSchedulerMode;
+
+    /**
+     * The maximum amount of platform io threads when virtual threads aren't available.
+     */
+    private final int ioFallbackThreads;
+
+    /**
+     * The main thread time every plugin may use per tick in nanoseconds, zero for no limit.
+     */
+    private final long pluginTickQuotaNanos;
+
+    /**
+     * The main thread time single plugins may use per tick in nanoseconds by the name of the plugin.
+     */
+    private final Map<String, Long> pluginTickQuotasNanos = new HashMap<>();
+
+    /**
+     * If slow server thread tasks and event callbacks are profiled.
+     */
+    private final boolean profilingEnabled;
+
+    /**
+     * The nanoseconds above which a server thread task or event callback is reported as slow.
+     */
+    private final long profilingThresholdNanos;
+
+    /**
+     * One in how many subscriptions gets its assembly site captured.
+     */
+    private final int profilingSampleInterval;
+
+    /**
+     * Create a new caroline config.
+     *
+     * @param section The configuration section.
+     */
+    private CarolineConfig(ConfigurationSection section) {
+        this.syncSchedulerMode = readEnum(section, "scheduler.sync.mode", SyncSchedulerMode.TASK);
+        this.tickBudgetNanos = readMillisAsNanos(section, "scheduler.sync.tick-budget-ms");
+        this.sheddingThresholdNanos = readMillisAsNanos(section, "scheduler.sync.shedding-threshold-ms");
+        this.maxDeferralTicks = section.getInt("scheduler.sync.max-deferral-ticks", 100);
+        this.maxInlineDepth = section.getInt("scheduler.sync.inline-max-depth", 0);
+        this.syncTimerMode = readEnum(section, "scheduler.sync.timer", SyncTimerMode.TASKS);
+        this.computationSchedulerMode = readEnum(section, "scheduler.computation.mode", ComputationSchedulerMode.MAIN_THREAD);
+        this.computationThreads = section.getInt("scheduler.computation.threads", 0);
+        this.asyncTimerMode = readEnum(section, "scheduler.async.timer", AsyncTimerMode.TICKS);
+        this.ioSchedulerMode = readEnum(section, "scheduler.io.mode", IoSchedulerMode.BUKKIT);
+        this.ioFallbackThreads = section.getInt("scheduler.io.fallback-threads", 64);
+        this.pluginTickQuotaNanos = readMillisAsNanos(section, "scheduler.plugins.tick-quota-ms");
+
+        ConfigurationSection quotas = section.getConfigurationSection("scheduler.plugins.tick-quotas-ms");
+        if (quotas != null) {
+            for (String pluginName : quotas.getKeys(false)) {
+                pluginTickQuotasNanos.put(pluginName, readMillisAsNanos(quotas, pluginName));
+            }
+        }
+
+        this.profilingEnabled = section.getBoolean("profiling.enabled", false);
+        this.profilingThresholdNanos = readMillisAsNanos(section, "profiling.threshold-ms", 5D);
+        this.profilingSampleInterval = Math.max(section.getInt("profiling.sample-interval", 16), 1);
+    }
+
+    /**
+     * Read the config from the given configuration section.
+     *
+     * @param section The configuration section.
+     * @return The config.
+     */
+    public static CarolineConfig fromConfiguration(ConfigurationSection section) {
+        return new CarolineConfig(section);
+    }
+
+    /**
+     * Read an enum constant by its case insensitive name.
+     *
+     * @param section      The configuration section.
+     * @param path         The path of the value.
+     * @param defaultValue The value to use if nothing is configured.
+     * @param <EnumType>   The type of the enum.
+     * @return The enum constant.
+     */
+    private static <EnumType extends Enum<EnumType>> EnumType readEnum(ConfigurationSection section, String path, EnumType defaultValue) {
+        String value = section.getString(path, defaultValue.name());
+
+        try {
+            return Enum.valueOf(defaultValue.getDeclaringClass(), value.toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value '" + value + "' for " + path + ".", e);
+        }
+    }
+
+    /**
+     * Read a possibly fractional amount of milliseconds as nanoseconds.
+     *
+     * @param section The configuration section.
+     * @param path    The path of the value.
+     * @return The nanoseconds, zero if nothing is configured.
+     */
+    private static long readMillisAsNanos(ConfigurationSection section, String path) {
+        return readMillisAsNanos(section, path, 0D);
+    }
+
+    /**
+     * Read a possibly fractional amount of milliseconds as nanoseconds.
+     *
+     * @param section       The configuration section.
+     * @param path          The path of the value.
+     * @param defaultMillis The milliseconds to use if nothing is configured.
+     * @return The nanoseconds.
+     */
+    private static long readMillisAsNanos(ConfigurationSection section, String path, double defaultMillis) {
+        return (long) (section.getDouble(path, defaultMillis) * TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    /**
+     * Get the way the synchronous scheduler hands its tasks to the server thread.
+     *
+     * @return The sync scheduler mode.
+     */
+    public SyncSchedulerMode getSyncSchedulerMode() {
+        return syncSchedulerMode;
+    }
+
+    /**
+     * Get the nanoseconds normal and deferrable main thread tasks may use per tick.
+     *
+     * @return The tick budget, zero for no limit.
+     */
+    public long getTickBudgetNanos() {
+        return tickBudgetNanos;
+    }
+
+    /**
+     * Get the average tick duration above which deferrable tasks are held back.
+     *
+     * @return The threshold in nanoseconds, zero if deferrable tasks are never held back.
+     */
+    public long getSheddingThresholdNanos() {
+        return sheddingThresholdNanos;
+    }
+
+    /**
+     * Get the maximum amount of ticks a deferrable task is held back.
+     *
+     * @return The amount of ticks.
+     */
+    public int getMaxDeferralTicks() {
+        return maxDeferralTicks;
+    }
+
+    /**
+     * Get the maximum amount of nested inline executions on the server thread.
+     *
+     * @return The maximum depth, zero if tasks are never executed inline.
+     */
+    public int getMaxInlineDepth() {
+        return maxInlineDepth;
+    }
+
+    /**
+     * Get the way the synchronous scheduler times delayed and periodic tasks.
+     *
+     * @return The sync timer mode.
+     */
+    public SyncTimerMode getSyncTimerMode() {
+        return syncTimerMode;
+    }
+
+    /**
+     * Get the way the computation scheduler is backed.
+     *
+     * @return The computation scheduler mode.
+     */
+    public ComputationSchedulerMode getComputationSchedulerMode() {
+        return computationSchedulerMode;
+    }
+
+    /**
+     * Get the amount of computation threads.
+     *
+     * @return The amount of threads, zero means one per available processor.
+     */
+    public int getComputationThreads() {
+        return computationThreads;
+    }
+
+    /**
+     * Get the way the asynchronous scheduler times delayed and periodic tasks.
+     *
+     * @return The async timer mode.
+     */
+    public AsyncTimerMode getAsyncTimerMode() {
+        return asyncTimerMode;
+    }
+
+    /**
+     * Get the way the io scheduler is backed.
+     *
+     * @return The io scheduler mode.
+     */
+    public IoSchedulerMode getIoSchedulerMode() {
+        return ioSchedulerMode;
+    }
+
+    /**
+     * Get the maximum amount of platform io threads when virtual threads aren't available.
+     *
+     * @return The amount of threads.
+     */
+    public int getIoFallbackThreads() {
+        return ioFallbackThreads;
+    }
+
+    /**
+     * Get the main thread time the given plugin may use per tick with its own schedulers.
+     *
+     * @param pluginName The name of the plugin.
+     * @return The quota in nanoseconds, zero for no limit.
+     */
+    public long getPluginTickQuotaNanos(String pluginName) {
+        return pluginTickQuotasNanos.getOrDefault(pluginName, pluginTickQuotaNanos);
+    }
+
+    /**
+     * Check if slow server thread tasks and event callbacks are profiled.
+     *
+     * @return If profiling is enabled.
+     */
+    public boolean isProfilingEnabled() {
+        return profilingEnabled;
+    }
+
+    /**
+     * Get the time above which a server thread task or event callback is reported as slow.
+     *
+     * @return The threshold in nanoseconds.
+     */
+    public long getProfilingThresholdNanos() {
+        return profilingThresholdNanos;
+    }
+
+    /**
+     * Get one in how many subscriptions gets its assembly site captured.
+     *
+     * @return The sample interval.
+     */
+    public int getProfilingSampleInterval() {
+        return profilingSampleInterval;
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.emitter;
+
+import io.reactivex.Emitter;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableOnSubscribe;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.Function;
+import io.reactivex.plugins.RxJavaPlugins;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An event emitter that collects the events of a tick and emits them as a single batch.
+ * <p>
+ * Batches are flushed by a bukkit task at the start of the following tick and whenever they reach the maximum batch
+ * size. Ticks without events emit nothing. Every batch is handed over to the downstream for good, so it can be
+ * processed on another thread; the next buffer is presized to the previous batch to avoid growing it again.
+ * <p>
+ * An optional mapping function turns every event into the element collected for it, right in the listener on the
+ * thread that calls the event. It can take a snapshot of the bukkit objects of the event, so the batches only contain
+ * what it extracted and can be processed on any thread. A mapping function that fails is reported to rx java and
+ * skips the event, the emitter keeps running.
+ *
+ * @param <ElementType> The type of the batch elements, the event itself without a mapping function.
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class BatchedEventEmitter<ElementType> implements ObservableOnSubscribe<List<ElementType>> {
+
+    /**
+     * The initial capacity of a buffer.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The clazz of the event.
+     */
+    private final Class<? extends Event> eventClazz;
+
+    /**
+     * If the listener should ignore cancelled events.
+     */
+    private final boolean ignoreCancelled;
+
+    /**
+     * The priority of the listener.
+     */
+    private final EventPriority eventPriority;
+
+    /**
+     * The function mapping an event to its element, null elements skip the event. Null to collect the events.
+     */
+    private final Function<Object, ? extends ElementType> mappingFunction;
+
+    /**
+     * The maximum amount of elements per batch, zero or less for one batch per tick.
+     */
+    private final int maxBatchSize;
+
+    /**
+     * The hub that holds the bukkit registrations.
+     */
+    private final EventDispatchHub dispatchHub;
+
+    /**
+     * The bukkit plugin instance.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The bukkit scheduler running the flush task.
+     */
+    private final BukkitScheduler bukkitScheduler;
+
+    /**
+     * Create a new batched event emitter that collects the events themselves.
+     *
+     * @param eventClazz      The class of the event.
+     * @param ignoreCancelled If cancelled events should be ignored.
+     * @param eventPriority   The event priority.
+     * @param maxBatchSize    The maximum amount of events per batch, zero or less for one batch per tick.
+     * @param dispatchHub     The hub that holds the bukkit registrations.
+     * @param plugin          The bukkit plugin instance.
+     * @param bukkitScheduler The bukkit scheduler running the flush task.
+     */
+    public BatchedEventEmitter(Class<? extends Event> eventClazz, boolean ignoreCancelled, EventPriority eventPriority, int maxBatchSize, EventDispatchHub dispatchHub, Plugin plugin, BukkitScheduler bukkitScheduler) {
+        this(eventClazz, ignoreCancelled, eventPriority, null, maxBatchSize, dispatchHub, plugin, bukkitScheduler);
+    }
+
+    /**
+     * Create a new batched event emitter that collects what the mapping function returns for every event.
+     *
+     * @param eventClazz      The class of the event.
+     * @param ignoreCancelled If cancelled events should be ignored.
+     * @param eventPriority   The event priority.
+     * @param mappingFunction The function mapping an event to its element, null elements skip the event.
+     * @param maxBatchSize    The maximum amount of elements per batch, zero or less for one batch per tick.
+     * @param dispatchHub     The hub that holds the bukkit registrations.
+     * @param plugin          The bukkit plugin instance.
+     * @param bukkitScheduler The bukkit scheduler running the flush task.
+     * @param <EventType>     The type of the event.
+     */
+    public <EventType extends Event> BatchedEventEmitter(Class<EventType> eventClazz, boolean ignoreCancelled, EventPriority eventPriority, Function<? super EventType, ? extends ElementType> mappingFunction, int maxBatchSize, EventDispatchHub dispatchHub, Plugin plugin, BukkitScheduler bukkitScheduler) {
+        this.eventClazz = eventClazz;
+        this.ignoreCancelled = ignoreCancelled;
+        this.eventPriority = eventPriority;
+        this.mappingFunction = mappingFunction == null ? null : event -> mappingFunction.apply(eventClazz.cast(event));
+        this.maxBatchSize = maxBatchSize;
+        this.dispatchHub = dispatchHub;
+        this.plugin = plugin;
+        this.bukkitScheduler = bukkitScheduler;
+    }
+
+    @Override
+    public void subscribe(ObservableEmitter<List<ElementType>> observableEmitter) {
+        EventDispatcher dispatcher = dispatchHub.getDispatcher(eventClazz, eventPriority, ignoreCancelled);
+        BatchSink sink = new BatchSink(observableEmitter.serialize());
+
+        dispatcher.add(sink);
+        BukkitTask flushTask = bukkitScheduler.runTaskTimer(plugin, sink, 1L, 1L);
+
+        observableEmitter.setCancellable(() -> {
+            dispatcher.remove(sink);
+            flushTask.cancel();
+        });
+    }
+
+    /**
+     * The sink collecting the elements of a single subscription.
+     */
+    private final class BatchSink implements Emitter<Event>, Runnable {
+
+        /**
+         * The downstream emitter.
+         */
+        private final ObservableEmitter<List<ElementType>> emitter;
+
+        /**
+         * The elements collected since the last flush, guarded by this sink.
+         */
+        private List<ElementType> buffer = new ArrayList<>(INITIAL_CAPACITY);
+
+        /**
+         * Create a new batch sink.
+         *
+         * @param emitter The downstream emitter.
+         */
+        BatchSink(ObservableEmitter<List<ElementType>> emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onNext(Event event) {
+            ElementType element;
+
+            try {
+                element = mappingFunction == null ? (ElementType) event : mappingFunction.apply(event);
+            } catch (Throwable throwable) {
+                Exceptions.throwIfFatal(throwable);
+                RxJavaPlugins.onError(throwable);
+                return;
+            }
+
+            if (element == null) {
+                return;
+            }
+
+            List<ElementType> batch = null;
+
+            synchronized (this) {
+                buffer.add(element);
+
+                if (maxBatchSize > 0 && buffer.size() >= maxBatchSize) {
+                    batch = swapBuffer();
+                }
+            }
+
+            if (batch != null) {
+                emitter.onNext(batch);
+            }
+        }
+
+        @Override
+        public void run() {
+            List<ElementType> batch;
+
+            synchronized (this) {
+                if (buffer.isEmpty()) {
+                    return;
+                }
+
+                batch = swapBuffer();
+            }
+
+            emitter.onNext(batch);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            emitter.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            emitter.onComplete();
+        }
+
+        /**
+         * Replace the buffer with an empty one of the same size.
+         *
+         * @return The filled buffer.
+         */
+        private List<ElementType> swapBuffer() {
+            List<ElementType> batch = buffer;
+            buffer = new ArrayList<>(Math.max(batch.size(), INITIAL_CAPACITY));
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.emitter;
+
+import org.bukkit.Chunk;
+import org.bukkit.World;
+
+import java.util.UUID;
+
+/**
+ * The key of a chunk that stays valid after the chunk got unloaded.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public final class ChunkKey {
+
+    /**
+     * The unique id of the world.
+     */
+    private final UUID worldId;
+
+    /**
+     * The x coordinate of the chunk.
+     */
+    private final int x;
+
+    /**
+     * The z coordinate of the chunk.
+     */
+    private final int z;
+
+    /**
+     * Create a new chunk key.
+     *
+     * @param worldId The unique id of the world.
+     * @param x       The x coordinate of the chunk.
+     * @param z       The z coordinate of the chunk.
+     */
+    public ChunkKey(UUID worldId, int x, int z) {
+        this.worldId = worldId;
+        this.x = x;
+        this.z = z;
+    }
+
+    /**
+     * Get the key of a chunk.
+     *
+     * @param chunk The chunk.
+     * @return The key.
+     */
+    public static ChunkKey of(Chunk chunk) {
+        return new ChunkKey(chunk.getWorld().getUID(), chunk.getX(), chunk.getZ());
+    }
+
+    /**
+     * Get the key of the chunk containing the given block coordinates.
+     *
+     * @param world  The world.
+     * @param blockX The x coordinate of the block.
+     * @param blockZ The z coordinate of the block.
+     * @return The key.
+     */
+    public static ChunkKey ofBlock(World world, int blockX, int blockZ) {
+        return new ChunkKey(world.getUID(), blockX >> 4, blockZ >> 4);
+    }
+
+    /**
+     * Get the unique id of the world.
+     *
+     * @return The unique id of the world.
+     */
+    public UUID getWorldId() {
+        return worldId;
+    }
+
+    /**
+     * Get the x coordinate of the chunk.
+     *
+     * @return The x coordinate.
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Get the z coordinate of the chunk.
+     *
+     * @return The z coordinate.
+     */
+    public int getZ() {
+        return z;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof ChunkKey)) {
+            return false;
+        }
+
+        ChunkKey that = (ChunkKey) o;
+        return x == that.x && z == that.z && worldId.equals(that.worldId);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = worldId.hashCode();
+        result = 31 * result + x;
+        result = 31 * result + z;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ChunkKey{worldId=" + worldId + ", x=" + x + ", z=" + z + "}";
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.emitter;
+
+import io.reactivex.Emitter;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableOnSubscribe;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.Function;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An event emitter that keeps only the latest event per key and emits them once per tick.
+ * <p>
+ * The pending events live in a map with one entry per key, so memory is bounded by the amount of keys no matter how
+ * many events are fired. A bukkit task swaps the map with a spare one at the start of the following tick and emits
+ * the latest events in the order their keys first appeared. Both maps are reused for the whole subscription.
+ *
+ * @param <EventType> The type of the event.
+ * @param <KeyType>   The type of the key.
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class ConflatingEventEmitter<EventType, KeyType> implements ObservableOnSubscribe<EventType> {
+
+    /**
+     * The clazz of the event.
+     */
+    private final Class<? extends Event> eventClazz;
+
+    /**
+     * If the listener should ignore cancelled events.
+     */
+    private final boolean ignoreCancelled;
+
+    /**
+     * The priority of the listener.
+     */
+    private final EventPriority eventPriority;
+
+    /**
+     * The function extracting the key of an event.
+     */
+    private final Function<? super EventType, ? extends KeyType> keyFunction;
+
+    /**
+     * The hub that holds the bukkit registrations.
+     */
+    private final EventDispatchHub dispatchHub;
+
+    /**
+     * The bukkit plugin instance.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The bukkit scheduler running the flush task.
+     */
+    private final BukkitScheduler bukkitScheduler;
+
+    /**
+     * Create a new conflating event emitter.
+     *
+     * @param eventClazz      The class of the event.
+     * @param ignoreCancelled If cancelled events should be ignored.
+     * @param eventPriority   The event priority.
+     * @param keyFunction     The function extracting the key of an event.
+     * @param dispatchHub     The hub that holds the bukkit registrations.
+     * @param plugin          The bukkit plugin instance.
+     * @param bukkitScheduler The bukkit scheduler running the flush task.
+     */
+    public ConflatingEventEmitter(Class<? extends Event> eventClazz, boolean ignoreCancelled, EventPriority eventPriority, Function<? super EventType, ? extends KeyType> keyFunction, EventDispatchHub dispatchHub, Plugin plugin, BukkitScheduler bukkitScheduler) {
+        this.eventClazz = eventClazz;
+        this.ignoreCancelled = ignoreCancelled;
+        this.eventPriority = eventPriority;
+        this.keyFunction = keyFunction;
+        this.dispatchHub = dispatchHub;
+        this.plugin = plugin;
+        this.bukkitScheduler = bukkitScheduler;
+    }
+
+    @Override
+    public void subscribe(ObservableEmitter<EventType> observableEmitter) {
+        EventDispatcher dispatcher = dispatchHub.getDispatcher(eventClazz, eventPriority, ignoreCancelled);
+        ConflatingSink sink = new ConflatingSink(observableEmitter.serialize());
+
+        dispatcher.add(sink);
+        BukkitTask flushTask = bukkitScheduler.runTaskTimer(plugin, sink, 1L, 1L);
+
+        observableEmitter.setCancellable(() -> {
+            dispatcher.remove(sink);
+            flushTask.cancel();
+        });
+    }
+
+    /**
+     * The sink conflating the events of a single subscription.
+     */
+    private final class ConflatingSink implements Emitter<Event>, Runnable {
+
+        /**
+         * The downstream emitter.
+         */
+        private final ObservableEmitter<EventType> emitter;
+
+        /**
+         * The latest event per key since the last flush, guarded by this sink.
+         */
+        private Map<KeyType, EventType> pending = new LinkedHashMap<>();
+
+        /**
+         * The empty map swapped in on the next flush, only touched by the flush task.
+         */
+        private Map<KeyType, EventType> spare = new LinkedHashMap<>();
+
+        /**
+         * Create a new conflating sink.
+         *
+         * @param emitter The downstream emitter.
+         */
+        ConflatingSink(ObservableEmitter<EventType> emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onNext(Event event) {
+            EventType typedEvent = (EventType) event;
+            KeyType key;
+
+            try {
+                key = keyFunction.apply(typedEvent);
+            } catch (Throwable throwable) {
+                Exceptions.throwIfFatal(throwable);
+                emitter.onError(throwable);
+                return;
+            }
+
+            synchronized (this) {
+                pending.put(key, typedEvent);
+            }
+        }
+
+        @Override
+        public void run() {
+            Map<KeyType, EventType> latest;
+
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+
+                latest = pending;
+                pending = spare;
+            }
+
+            for (EventType event : latest.values()) {
+                emitter.onNext(event);
+            }
+
+            latest.clear();
+            spare = latest;
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            emitter.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            emitter.onComplete();
+        }
+    }
+}
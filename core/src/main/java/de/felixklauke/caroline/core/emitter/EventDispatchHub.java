@@ -0,0 +1,172 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.emitter;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+
+import javax.inject.Inject;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The central hub that keeps exactly one bukkit registration per event class, event priority and cancel handling
+ * and fans every event out to all of its subscribers.
+ * <p>
+ * Registrations are created lazily on the first subscription and kept until the hub gets shut down, so subscribing
+ * and disposing never touches the bukkit handler lists again.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class EventDispatchHub {
+
+    /**
+     * All dispatchers by their registration key.
+     */
+    private final ConcurrentMap<DispatchKey, EventDispatcher> dispatchers = new ConcurrentHashMap<>();
+
+    /**
+     * The bukkit plugin manager.
+     */
+    private final PluginManager pluginManager;
+
+    /**
+     * The bukkit plugin instance.
+     */
+    private final Plugin plugin;
+
+    /**
+     * Create a new event dispatch hub.
+     *
+     * @param pluginManager The bukkit plugin manager.
+     * @param plugin        The bukkit plugin instance.
+     */
+    @Inject
+    public EventDispatchHub(PluginManager pluginManager, Plugin plugin) {
+        this.pluginManager = pluginManager;
+        this.plugin = plugin;
+    }
+
+    /**
+     * Get the dispatcher for the given registration and register it at bukkit if it doesn't exist yet.
+     *
+     * @param eventClazz      The class of the event.
+     * @param eventPriority   The event priority.
+     * @param ignoreCancelled If cancelled events should be ignored.
+     * @return The dispatcher.
+     */
+    public EventDispatcher getDispatcher(Class<? extends Event> eventClazz, EventPriority eventPriority, boolean ignoreCancelled) {
+        DispatchKey dispatchKey = new DispatchKey(eventClazz, eventPriority, ignoreCancelled);
+        EventDispatcher dispatcher = dispatchers.get(dispatchKey);
+
+        if (dispatcher != null) {
+            return dispatcher;
+        }
+
+        return dispatchers.computeIfAbsent(dispatchKey, key -> {
+            EventDispatcher eventDispatcher = new EventDispatcher(eventClazz);
+            pluginManager.registerEvent(eventClazz, eventDispatcher, eventPriority, eventDispatcher, plugin, ignoreCancelled);
+            return eventDispatcher;
+        });
+    }
+
+    /**
+     * Get all dispatchers registered at bukkit.
+     *
+     * @return The dispatchers.
+     */
+    public Collection<EventDispatcher> getDispatchers() {
+        return Collections.unmodifiableCollection(dispatchers.values());
+    }
+
+    /**
+     * Unregister all dispatchers from bukkit.
+     */
+    public void shutdown() {
+        dispatchers.values().forEach(HandlerList::unregisterAll);
+        dispatchers.clear();
+    }
+
+    /**
+     * The key of a single bukkit registration.
+     */
+    private static final class DispatchKey {
+
+        /**
+         * The clazz of the event.
+         */
+        private final Class<? extends Event> eventClazz;
+
+        /**
+         * The priority of the registration.
+         */
+        private final EventPriority eventPriority;
+
+        /**
+         * If the registration ignores cancelled events.
+         */
+        private final boolean ignoreCancelled;
+
+        /**
+         * Create a new dispatch key.
+         *
+         * @param eventClazz      The class of the event.
+         * @param eventPriority   The event priority.
+         * @param ignoreCancelled If cancelled events should be ignored.
+         */
+        DispatchKey(Class<? extends Event> eventClazz, EventPriority eventPriority, boolean ignoreCancelled) {
+            this.eventClazz = eventClazz;
+            this.eventPriority = eventPriority;
+            this.ignoreCancelled = ignoreCancelled;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof DispatchKey)) {
+                return false;
+            }
+
+            DispatchKey that = (DispatchKey) o;
+            return ignoreCancelled == that.ignoreCancelled && eventClazz == that.eventClazz && eventPriority == that.eventPriority;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = eventClazz.hashCode();
+            result = 31 * result + eventPriority.hashCode();
+            result = 31 * result + (ignoreCancelled ? 1 : 0);
+            return result;
+        }
+    }
+}
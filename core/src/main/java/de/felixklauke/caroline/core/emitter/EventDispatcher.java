@@ -0,0 +1,298 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.emitter;
+
+import de.felixklauke.caroline.core.metrics.SlowTaskProfiler;
+import io.reactivex.Emitter;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+import org.bukkit.event.Event;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A single bukkit registration that fans its events out to a copy-on-write array of emitters.
+ * <p>
+ * The event thread only reads the current array, subscribers swap it with a CAS loop. That way dispatching never
+ * takes a lock and subscribing never touches the bukkit handler list. While profiling, the callbacks of every server
+ * thread event are timed for the {@link SlowTaskProfiler}.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class EventDispatcher implements Listener, EventExecutor {
+
+    /**
+     * The shared empty array used when there are no emitters.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final Emitter[] EMPTY = new Emitter[0];
+
+    /**
+     * The current emitters.
+     */
+    @SuppressWarnings("unchecked")
+    private final AtomicReference<Emitter<Event>[]> emitters = new AtomicReference<>(EMPTY);
+
+    /**
+     * The clazz of the event.
+     */
+    private final Class<? extends Event> eventClazz;
+
+    /**
+     * The amount of dispatched events.
+     */
+    private final LongAdder dispatchedEvents = new LongAdder();
+
+    /**
+     * The amount of events flowable subscriptions dropped for lack of demand.
+     */
+    private final LongAdder droppedEvents = new LongAdder();
+
+    /**
+     * The keyed routers attached to this dispatcher by their event key.
+     */
+    private final ConcurrentMap<EventKey<?>, KeyedEventRouter<?>> routers = new ConcurrentHashMap<>();
+
+    /**
+     * The assembly sites of the emitters that were sampled while profiling.
+     */
+    private final ConcurrentMap<Emitter<?>, Throwable> assemblySites = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new event dispatcher.
+     *
+     * @param eventClazz The class of the event.
+     */
+    EventDispatcher(Class<? extends Event> eventClazz) {
+        this.eventClazz = eventClazz;
+    }
+
+    @Override
+    public void execute(Listener listener, Event event) {
+        // Bukkit hands us every event of the handler list which may be shared with sibling event classes.
+        if (!eventClazz.isInstance(event)) {
+            return;
+        }
+
+        dispatchedEvents.increment();
+
+        SlowTaskProfiler profiler = SlowTaskProfiler.getActive();
+        if (profiler != null && profiler.isMainThread()) {
+            executeProfiled(profiler, event);
+            return;
+        }
+
+        for (Emitter<Event> emitter : emitters.get()) {
+            try {
+                emitter.onNext(event);
+            } catch (Throwable throwable) {
+                Exceptions.throwIfFatal(throwable);
+                RxJavaPlugins.onError(throwable);
+            }
+        }
+    }
+
+    /**
+     * Dispatch an event on the server thread and hand the time of every emitter to the profiler.
+     *
+     * @param profiler The profiler.
+     * @param event    The event.
+     */
+    private void executeProfiled(SlowTaskProfiler profiler, Event event) {
+        for (Emitter<Event> emitter : emitters.get()) {
+            long mark = profiler.mark();
+            long startNanos = System.nanoTime();
+
+            try {
+                emitter.onNext(event);
+            } catch (Throwable throwable) {
+                Exceptions.throwIfFatal(throwable);
+                RxJavaPlugins.onError(throwable);
+            } finally {
+                long durationNanos = System.nanoTime() - startNanos;
+
+                if (durationNanos >= profiler.getThresholdNanos()) {
+                    profiler.onCallbackExecuted(eventClazz, emitter, assemblySites.get(emitter), durationNanos, mark);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add an emitter that should receive all following events.
+     * <p>
+     * While profiling the assembly site of sampled emitters is captured, so slow callbacks can be traced back to
+     * their subscription.
+     *
+     * @param emitter The emitter.
+     */
+    @SuppressWarnings("unchecked")
+    public void add(Emitter<? super Event> emitter) {
+        SlowTaskProfiler profiler = SlowTaskProfiler.getActive();
+        if (profiler != null) {
+            Throwable assemblySite = profiler.sampleAssemblySite();
+
+            if (assemblySite != null) {
+                assemblySites.put(emitter, assemblySite);
+            }
+        }
+
+        Emitter<Event>[] current;
+        Emitter<Event>[] next;
+
+        do {
+            current = emitters.get();
+            int length = current.length;
+            next = new Emitter[length + 1];
+            System.arraycopy(current, 0, next, 0, length);
+            next[length] = (Emitter<Event>) emitter;
+        } while (!emitters.compareAndSet(current, next));
+    }
+
+    /**
+     * Remove an emitter so it won't receive any more events.
+     *
+     * @param emitter The emitter.
+     */
+    @SuppressWarnings("unchecked")
+    public void remove(Emitter<? super Event> emitter) {
+        Emitter<Event>[] current;
+        Emitter<Event>[] next;
+
+        do {
+            current = emitters.get();
+            int length = current.length;
+            int index = -1;
+
+            for (int i = 0; i < length; i++) {
+                if (current[i] == emitter) {
+                    index = i;
+                    break;
+                }
+            }
+
+            if (index < 0) {
+                return;
+            }
+
+            if (length == 1) {
+                next = EMPTY;
+            } else {
+                next = new Emitter[length - 1];
+                System.arraycopy(current, 0, next, 0, index);
+                System.arraycopy(current, index + 1, next, index, length - index - 1);
+            }
+        } while (!emitters.compareAndSet(current, next));
+
+        assemblySites.remove(emitter);
+    }
+
+    /**
+     * Get the keyed router for the given event key and attach it if it doesn't exist yet.
+     *
+     * @param eventKey  The event key.
+     * @param <KeyType> The type of the key.
+     * @return The router.
+     */
+    @SuppressWarnings("unchecked")
+    public <KeyType> KeyedEventRouter<KeyType> getRouter(EventKey<KeyType> eventKey) {
+        KeyedEventRouter<?> router = routers.get(eventKey);
+
+        if (router != null) {
+            return (KeyedEventRouter<KeyType>) router;
+        }
+
+        return (KeyedEventRouter<KeyType>) routers.computeIfAbsent(eventKey, key -> {
+            KeyedEventRouter<KeyType> keyedRouter = new KeyedEventRouter<>(eventKey);
+            add(keyedRouter);
+            return keyedRouter;
+        });
+    }
+
+    /**
+     * Get the amount of emitters currently attached.
+     * <p>
+     * A keyed router counts as a single emitter.
+     *
+     * @return The amount of emitters.
+     */
+    public int size() {
+        return emitters.get().length;
+    }
+
+    /**
+     * Get the amount of subscriptions, including the keyed ones.
+     *
+     * @return The amount of subscriptions.
+     */
+    public int getSubscriptionCount() {
+        int subscriptions = size() - routers.size();
+
+        for (KeyedEventRouter<?> router : routers.values()) {
+            subscriptions += router.size();
+        }
+
+        return subscriptions;
+    }
+
+    /**
+     * Get the class of the dispatched events.
+     *
+     * @return The class of the event.
+     */
+    public Class<? extends Event> getEventClazz() {
+        return eventClazz;
+    }
+
+    /**
+     * Get the amount of events dispatched to the emitters.
+     *
+     * @return The amount of dispatched events.
+     */
+    public long getDispatchedEvents() {
+        return dispatchedEvents.sum();
+    }
+
+    /**
+     * Count an event a flowable subscription dropped for lack of demand.
+     */
+    public void onDropped() {
+        droppedEvents.increment();
+    }
+
+    /**
+     * Get the amount of events flowable subscriptions dropped for lack of demand.
+     *
+     * @return The amount of dropped events.
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+}
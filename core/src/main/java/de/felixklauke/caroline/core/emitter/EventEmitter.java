@@ -28,23 +28,17 @@ import io.reactivex.ObservableEmitter;
 import io.reactivex.ObservableOnSubscribe;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
-import org.bukkit.event.Listener;
-import org.bukkit.plugin.Plugin;
-import org.bukkit.plugin.PluginManager;
 
 /**
  * A custom event emitter that will emit bukkit events into observables.
+ * <p>
+ * The emitter doesn't register any listener on its own, it attaches itself to the shared dispatcher of its
+ * registration in the {@link EventDispatchHub}.
  *
  * @param <EventType> The type of the event.
  */
 public class EventEmitter<EventType> implements ObservableOnSubscribe<EventType> {
 
-    /**
-     * The bukkit skeleton listener.
-     */
-    private final Listener listener = new Listener() {
-    };
-
     /**
      * The clazz of the event.
      */
@@ -61,14 +55,9 @@ public class EventEmitter<EventType> implements ObservableOnSubscribe<EventType>
     private final EventPriority eventPriority;
 
     /**
-     * The bukkit plugin manager.
-     */
-    private final PluginManager pluginManager;
-
-    /**
-     * The bukkit plugin instance.
+     * The hub that holds the bukkit registrations.
      */
-    private final Plugin plugin;
+    private final EventDispatchHub dispatchHub;
 
     /**
      * Create a new event emitter.
@@ -76,32 +65,22 @@ public class EventEmitter<EventType> implements ObservableOnSubscribe<EventType>
      * @param eventClazz      The class of the event..
      * @param ignoreCancelled If cancelled events should be ignored.
      * @param eventPriority   The event priority.
-     * @param pluginManager   The bukkit pluginManager manager.
-     * @param plugin          The bukkit plugin instance.
+     * @param dispatchHub     The hub that holds the bukkit registrations.
      */
-    public EventEmitter(Class<? extends Event> eventClazz, boolean ignoreCancelled, EventPriority eventPriority, PluginManager pluginManager, Plugin plugin) {
+    public EventEmitter(Class<? extends Event> eventClazz, boolean ignoreCancelled, EventPriority eventPriority, EventDispatchHub dispatchHub) {
         this.eventClazz = eventClazz;
         this.ignoreCancelled = ignoreCancelled;
         this.eventPriority = eventPriority;
-        this.pluginManager = pluginManager;
-        this.plugin = plugin;
+        this.dispatchHub = dispatchHub;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public void subscribe(ObservableEmitter<EventType> observableEmitter) {
-        pluginManager.registerEvent(eventClazz, listener, eventPriority, (listener1, event) -> {
-            if (eventClazz.isAssignableFrom(event.getClass())) {
-                observableEmitter.onNext((EventType) event);
-            }
-        }, plugin, ignoreCancelled);
-    }
+        EventDispatcher dispatcher = dispatchHub.getDispatcher(eventClazz, eventPriority, ignoreCancelled);
+        ObservableEmitter<Event> emitter = (ObservableEmitter<Event>) observableEmitter;
 
-    /**
-     * Get the skeleton listener.
-     *
-     * @return The listener.
-     */
-    public Listener getListener() {
-        return listener;
+        dispatcher.add(emitter);
+        observableEmitter.setCancellable(() -> dispatcher.remove(emitter));
     }
 }
@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.emitter;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.BlockEvent;
+import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.event.world.ChunkEvent;
+import org.bukkit.event.world.WorldEvent;
+
+import java.util.UUID;
+
+/**
+ * The built in event keys.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public final class EventKeys {
+
+    /**
+     * Routes player events and entity events of players by the unique id of the player.
+     */
+    public static final EventKey<UUID> PLAYER = EventKeys::extractPlayer;
+
+    /**
+     * Routes world, chunk, block, player and entity events by the unique id of their world.
+     */
+    public static final EventKey<UUID> WORLD = EventKeys::extractWorld;
+
+    /**
+     * Routes chunk and block events by their chunk, player and entity events by the chunk the player or entity is
+     * currently in.
+     */
+    public static final EventKey<ChunkKey> CHUNK = EventKeys::extractChunk;
+
+    private EventKeys() {
+    }
+
+    /**
+     * Extract the unique id of the player of an event.
+     *
+     * @param event The event.
+     * @return The unique id, null if the event doesn't belong to a player.
+     */
+    private static UUID extractPlayer(Event event) {
+        if (event instanceof PlayerEvent) {
+            return ((PlayerEvent) event).getPlayer().getUniqueId();
+        }
+
+        if (event instanceof EntityEvent) {
+            Entity entity = ((EntityEvent) event).getEntity();
+            return entity instanceof Player ? entity.getUniqueId() : null;
+        }
+
+        return null;
+    }
+
+    /**
+     * Extract the unique id of the world of an event.
+     *
+     * @param event The event.
+     * @return The unique id, null if the event doesn't belong to a world.
+     */
+    private static UUID extractWorld(Event event) {
+        World world = null;
+
+        if (event instanceof WorldEvent) {
+            world = ((WorldEvent) event).getWorld();
+        } else if (event instanceof BlockEvent) {
+            world = ((BlockEvent) event).getBlock().getWorld();
+        } else if (event instanceof PlayerEvent) {
+            world = ((PlayerEvent) event).getPlayer().getWorld();
+        } else if (event instanceof EntityEvent) {
+            world = ((EntityEvent) event).getEntity().getWorld();
+        }
+
+        return world == null ? null : world.getUID();
+    }
+
+    /**
+     * Extract the chunk of an event.
+     *
+     * @param event The event.
+     * @return The chunk key, null if the event doesn't belong to a chunk.
+     */
+    private static ChunkKey extractChunk(Event event) {
+        if (event instanceof ChunkEvent) {
+            return ChunkKey.of(((ChunkEvent) event).getChunk());
+        }
+
+        if (event instanceof BlockEvent) {
+            Block block = ((BlockEvent) event).getBlock();
+            return ChunkKey.ofBlock(block.getWorld(), block.getX(), block.getZ());
+        }
+
+        Location location = null;
+
+        if (event instanceof PlayerEvent) {
+            location = ((PlayerEvent) event).getPlayer().getLocation();
+        } else if (event instanceof EntityEvent) {
+            location = ((EntityEvent) event).getEntity().getLocation();
+        }
+
+        return location == null ? null : ChunkKey.ofBlock(location.getWorld(), location.getBlockX(), location.getBlockZ());
+    }
+}
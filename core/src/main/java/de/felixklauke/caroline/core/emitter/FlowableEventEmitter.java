@@ -0,0 +1,163 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.emitter;
+
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Emitter;
+import io.reactivex.FlowableEmitter;
+import io.reactivex.FlowableOnSubscribe;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+
+/**
+ * A custom event emitter that will emit bukkit events into flowables.
+ * <p>
+ * Events that arrive while the downstream has no demand are counted as dropped at the dispatcher of the
+ * registration when the emitter drops them, see {@link EventDispatcher#getDroppedEvents()}. Buffers behind the
+ * emitter count the events they drop via {@link #onOverflow()}, {@link BackpressureStrategy#LATEST} is such a buffer
+ * holding a single event so only the replaced events are counted. Async events may arrive from several threads at
+ * once, the emitter is serialized.
+ *
+ * @param <EventType> The type of the event.
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class FlowableEventEmitter<EventType> implements FlowableOnSubscribe<EventType> {
+
+    /**
+     * The clazz of the event.
+     */
+    private final Class<? extends Event> eventClazz;
+
+    /**
+     * If the listener should ignore cancelled events.
+     */
+    private final boolean ignoreCancelled;
+
+    /**
+     * The priority of the listener.
+     */
+    private final EventPriority eventPriority;
+
+    /**
+     * The strategy of the flowable, drops are only counted for {@link BackpressureStrategy#DROP}.
+     */
+    private final BackpressureStrategy backpressureStrategy;
+
+    /**
+     * The hub that holds the bukkit registrations.
+     */
+    private final EventDispatchHub dispatchHub;
+
+    /**
+     * Create a new flowable event emitter.
+     *
+     * @param eventClazz           The class of the event.
+     * @param ignoreCancelled      If cancelled events should be ignored.
+     * @param eventPriority        The event priority.
+     * @param backpressureStrategy The strategy of the flowable.
+     * @param dispatchHub          The hub that holds the bukkit registrations.
+     */
+    public FlowableEventEmitter(Class<? extends Event> eventClazz, boolean ignoreCancelled, EventPriority eventPriority, BackpressureStrategy backpressureStrategy, EventDispatchHub dispatchHub) {
+        this.eventClazz = eventClazz;
+        this.ignoreCancelled = ignoreCancelled;
+        this.eventPriority = eventPriority;
+        this.backpressureStrategy = backpressureStrategy;
+        this.dispatchHub = dispatchHub;
+    }
+
+    @Override
+    public void subscribe(FlowableEmitter<EventType> flowableEmitter) {
+        EventDispatcher dispatcher = dispatchHub.getDispatcher(eventClazz, eventPriority, ignoreCancelled);
+        DemandSink sink = new DemandSink(flowableEmitter.serialize(), dispatcher);
+
+        dispatcher.add(sink);
+        flowableEmitter.setCancellable(() -> dispatcher.remove(sink));
+    }
+
+    /**
+     * Count an event dropped by a buffer behind this emitter, like a bounded
+     * {@link io.reactivex.Flowable#onBackpressureBuffer(long, io.reactivex.functions.Action,
+     * io.reactivex.BackpressureOverflowStrategy)} or the single event buffer of {@link BackpressureStrategy#LATEST}.
+     */
+    public void onOverflow() {
+        dispatchHub.getDispatcher(eventClazz, eventPriority, ignoreCancelled).onDropped();
+    }
+
+    /**
+     * The sink checking the demand of a single subscription before handing it an event.
+     */
+    private final class DemandSink implements Emitter<Event> {
+
+        /**
+         * The downstream emitter.
+         */
+        private final FlowableEmitter<EventType> emitter;
+
+        /**
+         * The dispatcher counting the dropped events.
+         */
+        private final EventDispatcher dispatcher;
+
+        /**
+         * Create a new demand sink.
+         *
+         * @param emitter    The downstream emitter.
+         * @param dispatcher The dispatcher counting the dropped events.
+         */
+        DemandSink(FlowableEmitter<EventType> emitter, EventDispatcher dispatcher) {
+            this.emitter = emitter;
+            this.dispatcher = dispatcher;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onNext(Event event) {
+            if (backpressureStrategy != BackpressureStrategy.DROP) {
+                emitter.onNext((EventType) event);
+                return;
+            }
+
+            // Concurrent async events could otherwise both see the last requested event and one would vanish uncounted.
+            synchronized (this) {
+                if (emitter.requested() == 0L) {
+                    dispatcher.onDropped();
+                    return;
+                }
+
+                emitter.onNext((EventType) event);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            emitter.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            emitter.onComplete();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.emitter;
+
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableOnSubscribe;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+
+/**
+ * An event emitter that only emits the events with a specific key, like the events of a single player.
+ * <p>
+ * The emitter attaches itself to the keyed router of its dispatcher, so an event is only handed to the
+ * subscriptions of its key instead of being filtered by every subscription.
+ *
+ * @param <EventType> The type of the event.
+ * @param <KeyType>   The type of the key.
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class KeyedEventEmitter<EventType, KeyType> implements ObservableOnSubscribe<EventType> {
+
+    /**
+     * The clazz of the event.
+     */
+    private final Class<? extends Event> eventClazz;
+
+    /**
+     * If the listener should ignore cancelled events.
+     */
+    private final boolean ignoreCancelled;
+
+    /**
+     * The priority of the listener.
+     */
+    private final EventPriority eventPriority;
+
+    /**
+     * The event key extracting the routing key.
+     */
+    private final EventKey<KeyType> eventKey;
+
+    /**
+     * The key of the emitted events.
+     */
+    private final KeyType key;
+
+    /**
+     * The hub that holds the bukkit registrations.
+     */
+    private final EventDispatchHub dispatchHub;
+
+    /**
+     * Create a new keyed event emitter.
+     *
+     * @param eventClazz      The class of the event.
+     * @param ignoreCancelled If cancelled events should be ignored.
+     * @param eventPriority   The event priority.
+     * @param eventKey        The event key extracting the routing key.
+     * @param key             The key of the emitted events.
+     * @param dispatchHub     The hub that holds the bukkit registrations.
+     */
+    public KeyedEventEmitter(Class<? extends Event> eventClazz, boolean ignoreCancelled, EventPriority eventPriority, EventKey<KeyType> eventKey, KeyType key, EventDispatchHub dispatchHub) {
+        this.eventClazz = eventClazz;
+        this.ignoreCancelled = ignoreCancelled;
+        this.eventPriority = eventPriority;
+        this.eventKey = eventKey;
+        this.key = key;
+        this.dispatchHub = dispatchHub;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void subscribe(ObservableEmitter<EventType> observableEmitter) {
+        KeyedEventRouter<KeyType> router = dispatchHub.getDispatcher(eventClazz, eventPriority, ignoreCancelled).getRouter(eventKey);
+        ObservableEmitter<Event> emitter = (ObservableEmitter<Event>) observableEmitter;
+
+        router.add(key, emitter);
+        observableEmitter.setCancellable(() -> router.remove(key, emitter));
+    }
+}
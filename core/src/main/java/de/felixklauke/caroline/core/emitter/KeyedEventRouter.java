@@ -0,0 +1,178 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.emitter;
+
+import io.reactivex.Emitter;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+import org.bukkit.event.Event;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes the events of a dispatcher to the emitters subscribed to their key.
+ * <p>
+ * Every event costs a single key extraction and hash lookup no matter how many keys are subscribed. The emitters of
+ * a key are kept in a copy-on-write array like in the dispatcher.
+ *
+ * @param <KeyType> The type of the key.
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class KeyedEventRouter<KeyType> implements Emitter<Event> {
+
+    /**
+     * The event key extracting the routing key.
+     */
+    private final EventKey<KeyType> eventKey;
+
+    /**
+     * The emitters by their key.
+     */
+    private final ConcurrentMap<KeyType, Emitter<Event>[]> routes = new ConcurrentHashMap<>();
+
+    /**
+     * The amount of attached emitters.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Create a new keyed event router.
+     *
+     * @param eventKey The event key extracting the routing key.
+     */
+    KeyedEventRouter(EventKey<KeyType> eventKey) {
+        this.eventKey = eventKey;
+    }
+
+    @Override
+    public void onNext(Event event) {
+        KeyType key = eventKey.extract(event);
+        if (key == null) {
+            return;
+        }
+
+        Emitter<Event>[] emitters = routes.get(key);
+        if (emitters == null) {
+            return;
+        }
+
+        for (Emitter<Event> emitter : emitters) {
+            try {
+                emitter.onNext(event);
+            } catch (Throwable throwable) {
+                Exceptions.throwIfFatal(throwable);
+                RxJavaPlugins.onError(throwable);
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        RxJavaPlugins.onError(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+    }
+
+    /**
+     * Add an emitter that should receive all following events with the given key.
+     *
+     * @param key     The key.
+     * @param emitter The emitter.
+     */
+    @SuppressWarnings("unchecked")
+    public void add(KeyType key, Emitter<? super Event> emitter) {
+        routes.merge(key, new Emitter[]{emitter}, (current, added) -> {
+            Emitter<Event>[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = added[0];
+            return next;
+        });
+
+        size.incrementAndGet();
+    }
+
+    /**
+     * Remove an emitter from the given key.
+     *
+     * @param key     The key.
+     * @param emitter The emitter.
+     */
+    @SuppressWarnings("unchecked")
+    public void remove(KeyType key, Emitter<? super Event> emitter) {
+        boolean[] removed = new boolean[1];
+
+        routes.computeIfPresent(key, (ignored, current) -> {
+            int index = -1;
+
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == emitter) {
+                    index = i;
+                    break;
+                }
+            }
+
+            if (index < 0) {
+                return current;
+            }
+
+            removed[0] = true;
+
+            if (current.length == 1) {
+                return null;
+            }
+
+            Emitter<Event>[] next = new Emitter[current.length - 1];
+            System.arraycopy(current, 0, next, 0, index);
+            System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+            return next;
+        });
+
+        if (removed[0]) {
+            size.decrementAndGet();
+        }
+    }
+
+    /**
+     * Get the amount of attached emitters over all keys.
+     *
+     * @return The amount of emitters.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Get the amount of keys with at least one emitter.
+     *
+     * @return The amount of keys.
+     */
+    public int getKeyCount() {
+        return routes.size();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.emitter;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.ProtocolManager;
+import com.comphenix.protocol.events.ListenerPriority;
+import com.comphenix.protocol.events.PacketAdapter;
+import com.comphenix.protocol.events.PacketEvent;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableOnSubscribe;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * A custom packet emitter that will emit protocol lib packet events into observables.
+ * <p>
+ * The packet adapter is registered as thread safe so protocol lib calls it right on the netty threads instead of
+ * syncing to the server thread. Packets of different connections arrive concurrently, the emissions are serialized.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class PacketEmitter implements ObservableOnSubscribe<PacketEvent> {
+
+    /**
+     * The protocol lib protocol manager.
+     */
+    private final ProtocolManager protocolManager;
+
+    /**
+     * The bukkit plugin instance.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The priority of the packet listener.
+     */
+    private final ListenerPriority listenerPriority;
+
+    /**
+     * If outgoing packets should be observed instead of incoming ones.
+     */
+    private final boolean outgoing;
+
+    /**
+     * The types of the packets.
+     */
+    private final PacketType[] packetTypes;
+
+    /**
+     * Create a new packet emitter.
+     *
+     * @param protocolManager  The protocol lib protocol manager.
+     * @param plugin           The bukkit plugin instance.
+     * @param listenerPriority The priority of the packet listener.
+     * @param outgoing         If outgoing packets should be observed instead of incoming ones.
+     * @param packetTypes      The types of the packets.
+     */
+    public PacketEmitter(ProtocolManager protocolManager, Plugin plugin, ListenerPriority listenerPriority, boolean outgoing, PacketType... packetTypes) {
+        for (PacketType packetType : packetTypes) {
+            if (outgoing != packetType.isServer()) {
+                throw new IllegalArgumentException("Packet type " + packetType + " isn't an " + (outgoing ? "outgoing" : "incoming") + " packet.");
+            }
+        }
+
+        this.protocolManager = protocolManager;
+        this.plugin = plugin;
+        this.listenerPriority = listenerPriority;
+        this.outgoing = outgoing;
+        this.packetTypes = packetTypes;
+    }
+
+    @Override
+    public void subscribe(ObservableEmitter<PacketEvent> observableEmitter) {
+        ObservableEmitter<PacketEvent> serializedEmitter = observableEmitter.serialize();
+
+        PacketAdapter.AdapterParameteters parameters = PacketAdapter.params(plugin, packetTypes)
+                .listenerPriority(listenerPriority)
+                .optionAsync();
+
+        PacketAdapter packetAdapter = new PacketAdapter(parameters) {
+            @Override
+            public void onPacketReceiving(PacketEvent event) {
+                if (!outgoing) {
+                    serializedEmitter.onNext(event);
+                }
+            }
+
+            @Override
+            public void onPacketSending(PacketEvent event) {
+                if (outgoing) {
+                    serializedEmitter.onNext(event);
+                }
+            }
+        };
+
+        protocolManager.addPacketListener(packetAdapter);
+        observableEmitter.setCancellable(() -> protocolManager.removePacketListener(packetAdapter));
+    }
+}
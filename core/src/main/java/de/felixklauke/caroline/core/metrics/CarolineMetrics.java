@@ -0,0 +1,306 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.metrics;
+
+import de.felixklauke.caroline.core.emitter.EventDispatchHub;
+import de.felixklauke.caroline.core.emitter.EventDispatcher;
+import de.felixklauke.caroline.core.scheduler.PluginSchedulerRegistry;
+import de.felixklauke.caroline.core.scheduler.PluginSchedulers;
+import de.felixklauke.caroline.core.scheduler.SynchronousScheduler;
+import de.felixklauke.caroline.core.scheduler.TaskPriority;
+import io.reactivex.Scheduler;
+import org.bukkit.event.Event;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The central access to all caroline metrics.
+ * <p>
+ * Schedulers record their tasks on their own, this class only collects them. Once started, it samples the server
+ * thread time spent on caroline tasks at the end of every tick, which costs a single bukkit task per tick.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class CarolineMetrics implements Runnable {
+
+    /**
+     * The bukkit plugin instance.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The bukkit scheduler running the sampling task.
+     */
+    private final BukkitScheduler bukkitScheduler;
+
+    /**
+     * The hub that holds all bukkit event registrations.
+     */
+    private final EventDispatchHub dispatchHub;
+
+    /**
+     * The synchronous scheduler.
+     */
+    private final Scheduler syncScheduler;
+
+    /**
+     * The schedulers of the plugins that use their own.
+     */
+    private final PluginSchedulerRegistry pluginSchedulers;
+
+    /**
+     * The metrics of all schedulers by their name, replaced as a whole when a scheduler is added.
+     */
+    private volatile Map<String, SchedulerMetrics> schedulerMetrics = Collections.emptyMap();
+
+    /**
+     * The server thread nanoseconds spent on caroline tasks per tick.
+     */
+    private final LatencyHistogram mainThreadTickNanos = new LatencyHistogram();
+
+    /**
+     * The total server thread nanoseconds at the last sample, only touched by the server thread.
+     */
+    private long lastMainThreadNanos;
+
+    /**
+     * The server thread nanoseconds spent on caroline tasks in the last tick.
+     */
+    private volatile long mainThreadNanosLastTick;
+
+    /**
+     * The sampling task, null if not started.
+     */
+    private BukkitTask samplingTask;
+
+    /**
+     * Create new caroline metrics.
+     *
+     * @param plugin               The bukkit plugin instance.
+     * @param bukkitScheduler      The bukkit scheduler running the sampling task.
+     * @param dispatchHub          The hub that holds all bukkit event registrations.
+     * @param syncScheduler        The synchronous scheduler.
+     * @param asyncScheduler       The asynchronous scheduler.
+     * @param computationScheduler The scheduler backing rx javas computation scheduler.
+     * @param ioScheduler          The scheduler backing rx javas io and new thread schedulers.
+     * @param pluginSchedulers     The schedulers of the plugins that use their own.
+     */
+    @Inject
+    public CarolineMetrics(Plugin plugin, BukkitScheduler bukkitScheduler, EventDispatchHub dispatchHub, @Named("syncScheduler") Scheduler syncScheduler, @Named("asyncScheduler") Scheduler asyncScheduler, @Named("computationScheduler") Scheduler computationScheduler, @Named("ioScheduler") Scheduler ioScheduler, PluginSchedulerRegistry pluginSchedulers) {
+        this(plugin, bukkitScheduler, dispatchHub, syncScheduler, pluginSchedulers);
+
+        register(asyncScheduler);
+        register(computationScheduler);
+        register(ioScheduler);
+    }
+
+    /**
+     * Create new caroline metrics that only know the synchronous scheduler, others are added once they exist.
+     *
+     * @param plugin           The bukkit plugin instance.
+     * @param bukkitScheduler  The bukkit scheduler running the sampling task.
+     * @param dispatchHub      The hub that holds all bukkit event registrations.
+     * @param syncScheduler    The synchronous scheduler.
+     * @param pluginSchedulers The schedulers of the plugins that use their own.
+     */
+    public CarolineMetrics(Plugin plugin, BukkitScheduler bukkitScheduler, EventDispatchHub dispatchHub, Scheduler syncScheduler, PluginSchedulerRegistry pluginSchedulers) {
+        this.plugin = plugin;
+        this.bukkitScheduler = bukkitScheduler;
+        this.dispatchHub = dispatchHub;
+        this.syncScheduler = syncScheduler;
+        this.pluginSchedulers = pluginSchedulers;
+
+        register(syncScheduler);
+    }
+
+    /**
+     * Add the metrics of the given scheduler, schedulers without metrics are ignored. The metrics of a scheduler
+     * with the same name are replaced, like the ones of a scheduler that was created again after a restart.
+     *
+     * @param scheduler The scheduler.
+     */
+    public synchronized void register(Scheduler scheduler) {
+        if (!(scheduler instanceof MeteredScheduler)) {
+            return;
+        }
+
+        SchedulerMetrics metrics = ((MeteredScheduler) scheduler).getMetrics();
+        if (schedulerMetrics.get(metrics.getName()) == metrics) {
+            return;
+        }
+
+        Map<String, SchedulerMetrics> next = new LinkedHashMap<>(schedulerMetrics);
+        next.put(metrics.getName(), metrics);
+        schedulerMetrics = next;
+    }
+
+    /**
+     * Start sampling the server thread time.
+     */
+    public synchronized void start() {
+        if (samplingTask == null) {
+            samplingTask = bukkitScheduler.runTaskTimer(plugin, this, 1L, 1L);
+        }
+    }
+
+    /**
+     * Stop sampling the server thread time.
+     */
+    public synchronized void shutdown() {
+        if (samplingTask != null) {
+            samplingTask.cancel();
+            samplingTask = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        long mainThreadNanos = pluginSchedulers.getMainThreadNanos();
+
+        for (SchedulerMetrics metrics : schedulerMetrics.values()) {
+            mainThreadNanos += metrics.getMainThreadNanos();
+        }
+
+        long tickNanos = mainThreadNanos - lastMainThreadNanos;
+        lastMainThreadNanos = mainThreadNanos;
+        mainThreadNanosLastTick = tickNanos;
+        mainThreadTickNanos.record(tickNanos);
+    }
+
+    /**
+     * Get the metrics of all schedulers.
+     *
+     * @return The scheduler metrics.
+     */
+    public Collection<SchedulerMetrics> getSchedulerMetrics() {
+        return Collections.unmodifiableCollection(schedulerMetrics.values());
+    }
+
+    /**
+     * Get the schedulers of the plugins that use their own, with their main thread time and throttled ticks.
+     *
+     * @return The schedulers of the plugins.
+     */
+    public Collection<PluginSchedulers> getPluginSchedulers() {
+        return pluginSchedulers.getSchedulers();
+    }
+
+    /**
+     * Get the metrics of the scheduler with the given name.
+     *
+     * @param name The name of the scheduler, like caroline-sync.
+     * @return The scheduler metrics, null if there is no such scheduler.
+     */
+    public SchedulerMetrics getSchedulerMetrics(String name) {
+        return schedulerMetrics.get(name);
+    }
+
+    /**
+     * Get the server thread nanoseconds spent on caroline tasks in the last tick.
+     *
+     * @return The nanoseconds.
+     */
+    public long getMainThreadNanosLastTick() {
+        return mainThreadNanosLastTick;
+    }
+
+    /**
+     * Get the histogram of the server thread nanoseconds spent on caroline tasks per tick.
+     *
+     * @return The histogram.
+     */
+    public LatencyHistogram getMainThreadTickNanos() {
+        return mainThreadTickNanos;
+    }
+
+    /**
+     * Get the amount of tasks waiting in the trampoline with the given priority.
+     *
+     * @param priority The priority.
+     * @return The amount of queued tasks, zero if the synchronous scheduler doesn't use a trampoline.
+     */
+    public int getQueuedTasks(TaskPriority priority) {
+        if (syncScheduler instanceof SynchronousScheduler) {
+            return ((SynchronousScheduler) syncScheduler).getQueuedTasks(priority);
+        }
+
+        return 0;
+    }
+
+    /**
+     * Get the amount of live subscriptions per event class.
+     *
+     * @return The amount of subscriptions by their event class.
+     */
+    public Map<Class<? extends Event>, Integer> getSubscriptionCounts() {
+        Map<Class<? extends Event>, Integer> subscriptionCounts = new LinkedHashMap<>();
+
+        for (EventDispatcher dispatcher : dispatchHub.getDispatchers()) {
+            subscriptionCounts.merge(dispatcher.getEventClazz(), dispatcher.getSubscriptionCount(), Integer::sum);
+        }
+
+        return subscriptionCounts;
+    }
+
+    /**
+     * Get the amount of dispatched events per event class.
+     * <p>
+     * An event is counted once per registration it was dispatched through.
+     *
+     * @return The amount of dispatched events by their event class.
+     */
+    public Map<Class<? extends Event>, Long> getDispatchedEvents() {
+        Map<Class<? extends Event>, Long> dispatchedEvents = new LinkedHashMap<>();
+
+        for (EventDispatcher dispatcher : dispatchHub.getDispatchers()) {
+            dispatchedEvents.merge(dispatcher.getEventClazz(), dispatcher.getDispatchedEvents(), Long::sum);
+        }
+
+        return dispatchedEvents;
+    }
+
+    /**
+     * Get the amount of events flowable subscriptions dropped for lack of demand per event class.
+     *
+     * @return The amount of dropped events by their event class.
+     */
+    public Map<Class<? extends Event>, Long> getDroppedEvents() {
+        Map<Class<? extends Event>, Long> droppedEvents = new LinkedHashMap<>();
+
+        for (EventDispatcher dispatcher : dispatchHub.getDispatchers()) {
+            droppedEvents.merge(dispatcher.getEventClazz(), dispatcher.getDroppedEvents(), Long::sum);
+        }
+
+        return droppedEvents;
+    }
+}
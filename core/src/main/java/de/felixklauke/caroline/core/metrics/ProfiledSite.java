@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.metrics;
+
+/**
+ * The slow runs of a single call site found by the {@link SlowTaskProfiler}.
+ * <p>
+ * Only the server thread records, so the counters are plain volatile fields.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class ProfiledSite {
+
+    /**
+     * The description of the call site.
+     */
+    private final String site;
+
+    /**
+     * The captured assembly site, null if the site is only known by its class.
+     */
+    private final Throwable assemblySite;
+
+    /**
+     * The amount of slow runs.
+     */
+    private volatile long slowRuns;
+
+    /**
+     * The nanoseconds of all slow runs.
+     */
+    private volatile long totalNanos;
+
+    /**
+     * The nanoseconds of the slowest run.
+     */
+    private volatile long maxNanos;
+
+    /**
+     * Create a new profiled site.
+     *
+     * @param site         The description of the call site.
+     * @param assemblySite The captured assembly site, null if the site is only known by its class.
+     */
+    ProfiledSite(String site, Throwable assemblySite) {
+        this.site = site;
+        this.assemblySite = assemblySite;
+    }
+
+    /**
+     * Record a slow run, only called by the server thread.
+     *
+     * @param durationNanos The nanoseconds the run took.
+     */
+    void record(long durationNanos) {
+        slowRuns++;
+        totalNanos += durationNanos;
+
+        if (durationNanos > maxNanos) {
+            maxNanos = durationNanos;
+        }
+    }
+
+    /**
+     * Get the description of the call site.
+     *
+     * @return The site.
+     */
+    public String getSite() {
+        return site;
+    }
+
+    /**
+     * Get the stack trace of the place the task or subscription was created.
+     *
+     * @return The assembly site, null if it wasn't sampled.
+     */
+    public Throwable getAssemblySite() {
+        return assemblySite;
+    }
+
+    /**
+     * Get the amount of slow runs.
+     *
+     * @return The amount of slow runs.
+     */
+    public long getSlowRuns() {
+        return slowRuns;
+    }
+
+    /**
+     * Get the nanoseconds of all slow runs.
+     *
+     * @return The total nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Get the nanoseconds of the slowest run.
+     *
+     * @return The maximum nanoseconds.
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters and histograms of a single scheduler.
+ * <p>
+ * All recording methods are lock free and allocation free, so they can be called for every task.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class SchedulerMetrics {
+
+    /**
+     * The name of the scheduler.
+     */
+    private final String name;
+
+    /**
+     * If the tasks of the scheduler run on the server thread.
+     */
+    private final boolean mainThread;
+
+    /**
+     * The amount of scheduled tasks.
+     */
+    private final LongAdder scheduled = new LongAdder();
+
+    /**
+     * The amount of task executions, periodic tasks count once per run.
+     */
+    private final LongAdder executed = new LongAdder();
+
+    /**
+     * The amount of tasks disposed before they ran.
+     */
+    private final LongAdder cancelled = new LongAdder();
+
+    /**
+     * The nanoseconds spent executing tasks on the server thread.
+     */
+    private final LongAdder mainThreadNanos = new LongAdder();
+
+    /**
+     * The time between the moment a task was due and the moment it started.
+     */
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * Create new scheduler metrics.
+     *
+     * @param name       The name of the scheduler.
+     * @param mainThread If the tasks of the scheduler run on the server thread.
+     */
+    public SchedulerMetrics(String name, boolean mainThread) {
+        this.name = name;
+        this.mainThread = mainThread;
+    }
+
+    /**
+     * Record a scheduled task.
+     */
+    public void onScheduled() {
+        scheduled.increment();
+    }
+
+    /**
+     * Record a task that was disposed before it ran.
+     */
+    public void onCancelled() {
+        cancelled.increment();
+    }
+
+    /**
+     * Record an executed task.
+     *
+     * @param latencyNanos  The nanoseconds between the moment the task was due and the moment it started.
+     * @param durationNanos The nanoseconds the task ran.
+     */
+    public void onExecuted(long latencyNanos, long durationNanos) {
+        executed.increment();
+        latency.record(latencyNanos);
+
+        if (mainThread) {
+            mainThreadNanos.add(durationNanos);
+        }
+    }
+
+    /**
+     * Get the name of the scheduler.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Check if the tasks of the scheduler run on the server thread.
+     *
+     * @return If the tasks run on the server thread.
+     */
+    public boolean isMainThread() {
+        return mainThread;
+    }
+
+    /**
+     * Get the amount of scheduled tasks.
+     *
+     * @return The amount of scheduled tasks.
+     */
+    public long getScheduled() {
+        return scheduled.sum();
+    }
+
+    /**
+     * Get the amount of task executions.
+     *
+     * @return The amount of executions.
+     */
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    /**
+     * Get the amount of tasks disposed before they ran.
+     *
+     * @return The amount of cancelled tasks.
+     */
+    public long getCancelled() {
+        return cancelled.sum();
+    }
+
+    /**
+     * Get the total nanoseconds spent executing tasks on the server thread.
+     *
+     * @return The nanoseconds.
+     */
+    public long getMainThreadNanos() {
+        return mainThreadNanos.sum();
+    }
+
+    /**
+     * Get the schedule to run latency histogram.
+     *
+     * @return The histogram.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+}
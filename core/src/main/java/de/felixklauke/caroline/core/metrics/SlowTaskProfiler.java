@@ -0,0 +1,375 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.metrics;
+
+import de.felixklauke.caroline.core.config.CarolineConfig;
+import io.reactivex.Observable;
+
+import javax.inject.Inject;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the rx chains that hog the server thread.
+ * <p>
+ * While profiling, the synchronous schedulers and the event dispatchers hand the time of every server thread task and
+ * event callback to the profiler, which only looks at runs above the threshold. Like rx javas assembly tracking it
+ * captures a stack trace to tell where a chain comes from, but only for one in every sample interval subscriptions
+ * and only once per subscription, when its worker is created or its event callback is added. Slow runs are
+ * aggregated per call site: the first frame outside of caroline, rx java and the server of a sampled subscription,
+ * or the class of the task or callback if its subscription wasn't sampled. If a slow run contains other slow runs,
+ * like an event called by a task, only the innermost ones are recorded.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class SlowTaskProfiler {
+
+    /**
+     * The maximum amount of distinct sites, further sites are recorded as one.
+     */
+    private static final int MAX_SITES = 1024;
+
+    /**
+     * The site that collects the slow runs once there are too many sites.
+     */
+    private static final String OTHER_SITES = "other sites";
+
+    /**
+     * The packages whose frames don't tell which plugin a chain belongs to.
+     */
+    private static final String[] FRAMEWORK_PACKAGES = {
+            SlowTaskProfiler.class.getPackage().getName().substring(0, SlowTaskProfiler.class.getPackage().getName().lastIndexOf('.') + 1),
+            Observable.class.getPackage().getName() + ".",
+            "java.", "javax.", "sun.", "jdk.", "com.google.", "com.comphenix.", "org.bukkit.", "org.spigotmc.", "net.minecraft."
+    };
+
+    /**
+     * The profiler that is currently running, null if there is none.
+     */
+    private static volatile SlowTaskProfiler active;
+
+    /**
+     * If the profiler runs once started.
+     */
+    private final boolean enabled;
+
+    /**
+     * The nanoseconds above which a run is slow.
+     */
+    private final long thresholdNanos;
+
+    /**
+     * One in how many subscriptions gets its assembly site captured.
+     */
+    private final int sampleInterval;
+
+    /**
+     * The slow runs by their site.
+     */
+    private final ConcurrentMap<String, ProfiledSite> sites = new ConcurrentHashMap<>();
+
+    /**
+     * The server thread, set when the profiler is started.
+     */
+    private volatile Thread mainThread;
+
+    /**
+     * The amount of recorded slow runs, only touched by the server thread.
+     */
+    private long recordedRuns;
+
+    /**
+     * Create a new slow task profiler from the caroline config.
+     *
+     * @param config The caroline config.
+     */
+    @Inject
+    public SlowTaskProfiler(CarolineConfig config) {
+        this(config.isProfilingEnabled(), config.getProfilingThresholdNanos(), config.getProfilingSampleInterval());
+    }
+
+    /**
+     * Create a new slow task profiler.
+     *
+     * @param enabled        If the profiler runs once started.
+     * @param thresholdNanos The nanoseconds above which a run is slow.
+     * @param sampleInterval One in how many subscriptions gets its assembly site captured.
+     */
+    public SlowTaskProfiler(boolean enabled, long thresholdNanos, int sampleInterval) {
+        this.enabled = enabled;
+        this.thresholdNanos = thresholdNanos;
+        this.sampleInterval = Math.max(sampleInterval, 1);
+    }
+
+    /**
+     * Get the profiler that is currently running.
+     *
+     * @return The profiler, null if profiling is disabled.
+     */
+    public static SlowTaskProfiler getActive() {
+        return active;
+    }
+
+    /**
+     * Start profiling if enabled, has to be called on the server thread.
+     */
+    public synchronized void start() {
+        if (!enabled) {
+            return;
+        }
+
+        mainThread = Thread.currentThread();
+        active = this;
+    }
+
+    /**
+     * Stop profiling, the recorded sites are kept.
+     */
+    public synchronized void shutdown() {
+        if (active == this) {
+            active = null;
+        }
+    }
+
+    /**
+     * Check if the profiler runs once started.
+     *
+     * @return If profiling is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the nanoseconds above which a run is slow.
+     *
+     * @return The threshold in nanoseconds.
+     */
+    public long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    /**
+     * Check if the current thread is the profiled server thread.
+     *
+     * @return If the current thread is the server thread.
+     */
+    public boolean isMainThread() {
+        return Thread.currentThread() == mainThread;
+    }
+
+    /**
+     * Capture the assembly site of a new subscription if it is sampled.
+     *
+     * @return The assembly site, null if the subscription isn't sampled.
+     */
+    public Throwable sampleAssemblySite() {
+        if (sampleInterval > 1 && ThreadLocalRandom.current().nextInt(sampleInterval) != 0) {
+            return null;
+        }
+
+        return new Throwable("Assembly site");
+    }
+
+    /**
+     * Mark the start of a run on the server thread, so the run can tell if slow runs were recorded meanwhile.
+     *
+     * @return The mark to pass when the run finished.
+     */
+    public long mark() {
+        return recordedRuns;
+    }
+
+    /**
+     * Record a finished server thread task if it was slow.
+     *
+     * @param schedulerName The name of the scheduler that ran the task.
+     * @param runnable      The runnable of the task.
+     * @param assemblySite  The assembly site of the task, null if it wasn't sampled.
+     * @param durationNanos The nanoseconds the task ran.
+     * @param mark          The mark taken before the task ran.
+     */
+    public void onTaskExecuted(String schedulerName, Runnable runnable, Throwable assemblySite, long durationNanos, long mark) {
+        if (durationNanos < thresholdNanos || recordedRuns != mark) {
+            return;
+        }
+
+        String site = assemblySite != null
+                ? "task of " + schedulerName + " subscribed at " + describe(assemblySite)
+                : "task of " + schedulerName + " running " + runnable.getClass().getName();
+
+        record(site, assemblySite, durationNanos);
+    }
+
+    /**
+     * Record a finished event callback on the server thread if it was slow.
+     *
+     * @param eventClazz    The class of the dispatched event.
+     * @param callback      The callback.
+     * @param assemblySite  The assembly site of the callback, null if it wasn't sampled.
+     * @param durationNanos The nanoseconds the callback ran.
+     * @param mark          The mark taken before the callback ran.
+     */
+    public void onCallbackExecuted(Class<?> eventClazz, Object callback, Throwable assemblySite, long durationNanos, long mark) {
+        if (durationNanos < thresholdNanos || recordedRuns != mark) {
+            return;
+        }
+
+        String site = assemblySite != null
+                ? eventClazz.getSimpleName() + " callback subscribed at " + describe(assemblySite)
+                : eventClazz.getSimpleName() + " callback of " + callback.getClass().getName();
+
+        record(site, assemblySite, durationNanos);
+    }
+
+    /**
+     * Record a slow run of the given site.
+     *
+     * @param site          The description of the site.
+     * @param assemblySite  The assembly site, null if it wasn't sampled.
+     * @param durationNanos The nanoseconds of the run.
+     */
+    private void record(String site, Throwable assemblySite, long durationNanos) {
+        recordedRuns++;
+
+        ProfiledSite profiledSite = sites.get(site);
+        if (profiledSite == null) {
+            profiledSite = sites.size() < MAX_SITES
+                    ? sites.computeIfAbsent(site, key -> new ProfiledSite(key, assemblySite))
+                    : sites.computeIfAbsent(OTHER_SITES, key -> new ProfiledSite(key, null));
+        }
+
+        profiledSite.record(durationNanos);
+    }
+
+    /**
+     * Get the first frame of the given assembly site outside of caroline, rx java and the server.
+     *
+     * @param assemblySite The assembly site.
+     * @return The frame, or a placeholder if all frames belong to the framework.
+     */
+    private static String describe(Throwable assemblySite) {
+        for (StackTraceElement element : assemblySite.getStackTrace()) {
+            if (!isFrameworkFrame(element)) {
+                return element.toString();
+            }
+        }
+
+        return "an unknown site";
+    }
+
+    /**
+     * Check if the given frame belongs to caroline, rx java, the jdk or the server.
+     *
+     * @param element The frame.
+     * @return If it is a framework frame.
+     */
+    private static boolean isFrameworkFrame(StackTraceElement element) {
+        String className = element.getClassName();
+
+        for (String frameworkPackage : FRAMEWORK_PACKAGES) {
+            if (className.startsWith(frameworkPackage)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Get all sites with slow runs, the ones with the most time first.
+     *
+     * @return The sites.
+     */
+    public List<ProfiledSite> getSites() {
+        List<ProfiledSite> result = new ArrayList<>(sites.values());
+        result.sort(Comparator.comparingLong(ProfiledSite::getTotalNanos).reversed());
+        return result;
+    }
+
+    /**
+     * Forget all recorded sites.
+     */
+    public void reset() {
+        sites.clear();
+    }
+
+    /**
+     * Write all sites with slow runs, the ones with the most time first, and the stack traces of their assembly
+     * sites into the given file.
+     *
+     * @param path The file.
+     * @throws IOException If the file couldn't be written.
+     */
+    public void dump(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write(String.format(Locale.ROOT, "# Server thread runs above %.2f ms, one in %d subscriptions sampled", toMillis(thresholdNanos), sampleInterval));
+            writer.newLine();
+
+            for (ProfiledSite site : getSites()) {
+                writer.newLine();
+                writer.write(String.format(Locale.ROOT, "%.2f ms in %d slow runs, at most %.2f ms: %s", toMillis(site.getTotalNanos()), site.getSlowRuns(), toMillis(site.getMaxNanos()), site.getSite()));
+                writer.newLine();
+
+                if (site.getAssemblySite() == null) {
+                    continue;
+                }
+
+                boolean leading = true;
+                for (StackTraceElement element : site.getAssemblySite().getStackTrace()) {
+                    // The frames before the first plugin frame only show how caroline captured the site.
+                    if (leading && isFrameworkFrame(element)) {
+                        continue;
+                    }
+
+                    leading = false;
+                    writer.write("    at " + element);
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * Convert nanoseconds to fractional milliseconds.
+     *
+     * @param nanos The nanoseconds.
+     * @return The milliseconds.
+     */
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.metrics;
+
+import de.felixklauke.caroline.core.command.CommandContext;
+import de.felixklauke.caroline.core.scheduler.PluginSchedulers;
+import de.felixklauke.caroline.core.scheduler.TaskPriority;
+import io.reactivex.Completable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.schedulers.Schedulers;
+import org.bukkit.event.Event;
+import org.bukkit.plugin.Plugin;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The {@code /caroline stats} command that prints the caroline metrics and the {@code /caroline profile} command
+ * that prints the slowest call sites and writes all of them into a file.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class StatsCommand implements Consumer<CommandContext> {
+
+    /**
+     * The name of the command.
+     */
+    public static final String NAME = "caroline";
+
+    /**
+     * The permission needed to see the stats.
+     */
+    public static final String PERMISSION = "caroline.stats";
+
+    /**
+     * The sub commands.
+     */
+    private static final List<String> SUB_COMMANDS = Arrays.asList("stats", "profile");
+
+    /**
+     * The amount of sites printed by the profile command.
+     */
+    private static final int PRINTED_SITES = 5;
+
+    /**
+     * The bukkit plugin whose data folder the profiles are written to.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The metrics to print.
+     */
+    private final CarolineMetrics metrics;
+
+    /**
+     * The profiler of slow server thread tasks.
+     */
+    private final SlowTaskProfiler profiler;
+
+    /**
+     * Create a new stats command.
+     *
+     * @param plugin   The bukkit plugin whose data folder the profiles are written to.
+     * @param metrics  The metrics to print.
+     * @param profiler The profiler of slow server thread tasks.
+     */
+    @Inject
+    public StatsCommand(Plugin plugin, CarolineMetrics metrics, SlowTaskProfiler profiler) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+        this.profiler = profiler;
+    }
+
+    @Override
+    public void accept(CommandContext context) {
+        if (!context.getSender().hasPermission(PERMISSION)) {
+            context.reply("You don't have permission to do that.");
+            return;
+        }
+
+        String[] args = context.getArgs();
+        if (args.length == 1 && args[0].equalsIgnoreCase("stats")) {
+            printStats(context);
+        } else if (args.length == 1 && args[0].equalsIgnoreCase("profile")) {
+            printProfile(context);
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("profile") && args[1].equalsIgnoreCase("reset")) {
+            profiler.reset();
+            context.reply("Profile reset.");
+        } else {
+            context.reply("Usage: /" + NAME + " <stats|profile [reset]>");
+        }
+    }
+
+    /**
+     * Print the caroline metrics.
+     *
+     * @param context The context of the command.
+     */
+    private void printStats(CommandContext context) {
+        LatencyHistogram tickNanos = metrics.getMainThreadTickNanos();
+        context.reply("Main thread: " + formatNanos(metrics.getMainThreadNanosLastTick()) + " last tick, "
+                + formatHistogram(tickNanos) + " per tick");
+        context.reply("Queued: critical " + metrics.getQueuedTasks(TaskPriority.CRITICAL)
+                + ", normal " + metrics.getQueuedTasks(TaskPriority.NORMAL)
+                + ", deferrable " + metrics.getQueuedTasks(TaskPriority.DEFERRABLE));
+
+        for (SchedulerMetrics schedulerMetrics : metrics.getSchedulerMetrics()) {
+            context.reply(schedulerMetrics.getName() + ": scheduled " + schedulerMetrics.getScheduled()
+                    + ", executed " + schedulerMetrics.getExecuted()
+                    + ", cancelled " + schedulerMetrics.getCancelled()
+                    + ", latency " + formatHistogram(schedulerMetrics.getLatency()));
+        }
+
+        for (PluginSchedulers pluginSchedulers : metrics.getPluginSchedulers()) {
+            SchedulerMetrics syncMetrics = pluginSchedulers.getSyncMetrics();
+            long tickQuotaNanos = pluginSchedulers.getTickQuotaNanos();
+
+            context.reply(pluginSchedulers.getPlugin().getName() + ": " + formatNanos(pluginSchedulers.getMainThreadNanos())
+                    + " on the main thread, executed " + syncMetrics.getExecuted()
+                    + ", quota " + (tickQuotaNanos > 0 ? formatNanos(tickQuotaNanos) : "none")
+                    + ", throttled " + pluginSchedulers.getThrottledTicks() + " ticks"
+                    + ", latency " + formatHistogram(syncMetrics.getLatency()));
+        }
+
+        Map<Class<? extends Event>, Long> dispatchedEvents = metrics.getDispatchedEvents();
+        Map<Class<? extends Event>, Long> droppedEvents = metrics.getDroppedEvents();
+        for (Map.Entry<Class<? extends Event>, Integer> entry : metrics.getSubscriptionCounts().entrySet()) {
+            context.reply(entry.getKey().getSimpleName() + ": " + entry.getValue() + " subscriptions, "
+                    + dispatchedEvents.getOrDefault(entry.getKey(), 0L) + " dispatched, "
+                    + droppedEvents.getOrDefault(entry.getKey(), 0L) + " dropped");
+        }
+    }
+
+    /**
+     * Print the slowest call sites and write all of them into a file in the data folder, off the server thread.
+     *
+     * @param context The context of the command.
+     */
+    private void printProfile(CommandContext context) {
+        if (!profiler.isEnabled()) {
+            context.reply("Profiling is disabled, set profiling.enabled in the config of caroline.");
+            return;
+        }
+
+        List<ProfiledSite> sites = profiler.getSites();
+        context.reply(sites.size() + " sites with runs above " + formatNanos(profiler.getThresholdNanos()) + ":");
+
+        for (ProfiledSite site : sites.subList(0, Math.min(sites.size(), PRINTED_SITES))) {
+            context.reply(formatNanos(site.getTotalNanos()) + " in " + site.getSlowRuns() + " runs, max "
+                    + formatNanos(site.getMaxNanos()) + ": " + site.getSite());
+        }
+
+        File file = new File(plugin.getDataFolder(), "profile-" + System.currentTimeMillis() + ".txt");
+        Completable.fromAction(() -> {
+            Path path = file.toPath();
+            Files.createDirectories(path.getParent());
+            profiler.dump(path);
+        })
+                .subscribeOn(Schedulers.io())
+                .subscribe(() -> context.reply("Wrote the profile to " + file.getPath() + "."),
+                        throwable -> context.reply("Couldn't write the profile: " + throwable.getMessage()));
+    }
+
+    /**
+     * Complete the arguments of the command.
+     *
+     * @param context The context of the partial command.
+     * @return The completions.
+     */
+    public List<String> complete(CommandContext context) {
+        String[] args = context.getArgs();
+
+        if (args.length == 1) {
+            List<String> completions = new ArrayList<>();
+
+            for (String subCommand : SUB_COMMANDS) {
+                if (subCommand.startsWith(args[0].toLowerCase(Locale.ROOT))) {
+                    completions.add(subCommand);
+                }
+            }
+
+            return completions;
+        }
+
+        if (args.length == 2 && args[0].equalsIgnoreCase("profile") && "reset".startsWith(args[1].toLowerCase(Locale.ROOT))) {
+            return Collections.singletonList("reset");
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Format the percentiles of a histogram.
+     *
+     * @param histogram The histogram.
+     * @return The formatted percentiles.
+     */
+    private static String formatHistogram(LatencyHistogram histogram) {
+        return "p50 " + formatNanos(histogram.getValueAtPercentile(50D))
+                + " p99 " + formatNanos(histogram.getValueAtPercentile(99D))
+                + " max " + formatNanos(histogram.getMax());
+    }
+
+    /**
+     * Format nanoseconds as milliseconds.
+     *
+     * @param nanos The nanoseconds.
+     * @return The formatted milliseconds.
+     */
+    private static String formatNanos(long nanos) {
+        return String.format("%.2fms", nanos / 1_000_000D);
+    }
+}
@@ -24,14 +24,24 @@
 
 package de.felixklauke.caroline.core.module;
 
+import com.comphenix.protocol.ProtocolLibrary;
+import com.comphenix.protocol.ProtocolManager;
 import com.google.inject.AbstractModule;
-import com.google.inject.name.Names;
-import de.felixklauke.caroline.core.CarolinePlugin;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
 import de.felixklauke.caroline.core.RxCaroline;
-import de.felixklauke.caroline.core.scheduler.AsynchronousScheduler;
-import de.felixklauke.caroline.core.scheduler.SynchronousScheduler;
+import de.felixklauke.caroline.core.command.CommandCompleter;
+import de.felixklauke.caroline.core.config.CarolineConfig;
+import de.felixklauke.caroline.core.emitter.EventDispatchHub;
+import de.felixklauke.caroline.core.metrics.CarolineMetrics;
+import de.felixklauke.caroline.core.metrics.SlowTaskProfiler;
+import de.felixklauke.caroline.core.scheduler.CarolineSchedulers;
+import de.felixklauke.caroline.core.scheduler.PluginSchedulerRegistry;
+import de.felixklauke.caroline.core.scheduler.TickClock;
 import io.reactivex.Scheduler;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
 import org.bukkit.scheduler.BukkitScheduler;
 
 /**
@@ -44,25 +54,106 @@ public class CarolineModule extends AbstractModule {
     /**
      * The caroline plugin instance.
      */
-    private final CarolinePlugin carolinePlugin;
+    private final Plugin carolinePlugin;
+
+    /**
+     * The protocol lib protocol manager.
+     */
+    private final ProtocolManager protocolManager;
 
     /**
      * Create a new caroline dependency module.
      *
      * @param carolinePlugin The caroline plugin instance.
      */
-    public CarolineModule(CarolinePlugin carolinePlugin) {
+    public CarolineModule(Plugin carolinePlugin) {
+        this(carolinePlugin, ProtocolLibrary.getProtocolManager());
+    }
+
+    /**
+     * Create a new caroline dependency module with the given protocol manager.
+     *
+     * @param carolinePlugin  The caroline plugin instance.
+     * @param protocolManager The protocol lib protocol manager.
+     */
+    public CarolineModule(Plugin carolinePlugin, ProtocolManager protocolManager) {
         this.carolinePlugin = carolinePlugin;
+        this.protocolManager = protocolManager;
     }
 
     @Override
     protected void configure() {
         bind(Plugin.class).toInstance(carolinePlugin);
+        bind(CarolineConfig.class).toInstance(CarolineConfig.fromConfiguration(carolinePlugin.getConfig()));
         bind(BukkitScheduler.class).toInstance(carolinePlugin.getServer().getScheduler());
-
-        bind(Scheduler.class).annotatedWith(Names.named("syncScheduler")).to(SynchronousScheduler.class).asEagerSingleton();
-        bind(Scheduler.class).annotatedWith(Names.named("asyncScheduler")).to(AsynchronousScheduler.class).asEagerSingleton();
+        bind(PluginManager.class).toInstance(carolinePlugin.getServer().getPluginManager());
+        bind(ProtocolManager.class).toInstance(protocolManager);
+        bind(EventDispatchHub.class).asEagerSingleton();
+        bind(CommandCompleter.class).asEagerSingleton();
+        bind(PluginSchedulerRegistry.class).asEagerSingleton();
+        bind(CarolineMetrics.class).asEagerSingleton();
+        bind(SlowTaskProfiler.class).asEagerSingleton();
+        bind(TickClock.class).asEagerSingleton();
 
         requestStaticInjection(RxCaroline.class);
     }
+
+    /**
+     * Provide the synchronous scheduler in the configured mode.
+     *
+     * @param plugin          The bukkit plugin.
+     * @param bukkitScheduler The bukkit scheduler.
+     * @param tickClock       The clock measuring the tick durations.
+     * @param config          The caroline config.
+     * @return The synchronous scheduler.
+     */
+    @Provides
+    @Singleton
+    @Named("syncScheduler")
+    Scheduler provideSyncScheduler(Plugin plugin, BukkitScheduler bukkitScheduler, TickClock tickClock, CarolineConfig config) {
+        return CarolineSchedulers.createSyncScheduler(plugin, bukkitScheduler, tickClock, config);
+    }
+
+    /**
+     * Provide the asynchronous scheduler with the configured timer.
+     *
+     * @param plugin          The bukkit plugin.
+     * @param bukkitScheduler The bukkit scheduler.
+     * @param config          The caroline config.
+     * @return The asynchronous scheduler.
+     */
+    @Provides
+    @Singleton
+    @Named("asyncScheduler")
+    Scheduler provideAsyncScheduler(Plugin plugin, BukkitScheduler bukkitScheduler, CarolineConfig config) {
+        return CarolineSchedulers.createAsyncScheduler(plugin, bukkitScheduler, config);
+    }
+
+    /**
+     * Provide the scheduler that backs rx javas computation scheduler.
+     *
+     * @param syncScheduler The synchronous scheduler.
+     * @param config        The caroline config.
+     * @return The computation scheduler.
+     */
+    @Provides
+    @Singleton
+    @Named("computationScheduler")
+    Scheduler provideComputationScheduler(@Named("syncScheduler") Scheduler syncScheduler, CarolineConfig config) {
+        return CarolineSchedulers.createComputationScheduler(syncScheduler, config);
+    }
+
+    /**
+     * Provide the scheduler that backs rx javas io and new thread schedulers.
+     *
+     * @param asyncScheduler The asynchronous scheduler.
+     * @param config         The caroline config.
+     * @return The io scheduler.
+     */
+    @Provides
+    @Singleton
+    @Named("ioScheduler")
+    Scheduler provideIoScheduler(@Named("asyncScheduler") Scheduler asyncScheduler, CarolineConfig config) {
+        return CarolineSchedulers.createIoScheduler(asyncScheduler, config);
+    }
 }
@@ -0,0 +1,288 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.operator;
+
+import io.reactivex.Flowable;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.FlowableTransformer;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A transformer that spreads the items of a large source over as many ticks as needed, so processing them costs
+ * at most a fixed time slice per tick.
+ * <p>
+ * Items are emitted on the server thread by a bukkit task running once per tick. Every run emits items until the
+ * time slice is used up and only then stops requesting from the upstream, the next batch is requested when the
+ * following tick starts. At least one item is emitted per tick so a job always makes progress.
+ *
+ * @param <T> The type of the items.
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class TickSpreadingTransformer<T> implements FlowableTransformer<T, T> {
+
+    /**
+     * The default amount of items requested from the upstream at once.
+     */
+    public static final int DEFAULT_PREFETCH = 16;
+
+    /**
+     * The bukkit plugin instance.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The bukkit scheduler running the tick task.
+     */
+    private final BukkitScheduler bukkitScheduler;
+
+    /**
+     * The maximum nanoseconds spent emitting items per tick.
+     */
+    private final long sliceNanos;
+
+    /**
+     * The amount of items requested from the upstream at once.
+     */
+    private final int prefetch;
+
+    /**
+     * Create a new tick spreading transformer.
+     *
+     * @param plugin          The bukkit plugin instance.
+     * @param bukkitScheduler The bukkit scheduler running the tick task.
+     * @param slice           The maximum time spent emitting items per tick.
+     * @param unit            The unit of the time slice.
+     * @param prefetch        The amount of items requested from the upstream at once.
+     */
+    public TickSpreadingTransformer(Plugin plugin, BukkitScheduler bukkitScheduler, long slice, TimeUnit unit, int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch must be positive: " + prefetch);
+        }
+
+        this.plugin = plugin;
+        this.bukkitScheduler = bukkitScheduler;
+        this.sliceNanos = unit.toNanos(slice);
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public Publisher<T> apply(Flowable<T> upstream) {
+        return upstream.lift(downstream -> new TickSpreadingSubscriber(downstream));
+    }
+
+    /**
+     * The subscriber queueing the upstream items and emitting them tick by tick.
+     */
+    private final class TickSpreadingSubscriber implements FlowableSubscriber<T>, Subscription, Runnable {
+
+        /**
+         * The downstream subscriber.
+         */
+        private final Subscriber<? super T> downstream;
+
+        /**
+         * The items received from the upstream and not yet emitted.
+         */
+        private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+
+        /**
+         * The outstanding downstream demand.
+         */
+        private final AtomicLong requested = new AtomicLong();
+
+        /**
+         * The upstream subscription.
+         */
+        private Subscription upstream;
+
+        /**
+         * The tick task.
+         */
+        private volatile BukkitTask tickTask;
+
+        /**
+         * The items requested from the upstream and not yet emitted, only touched by the tick task.
+         */
+        private long outstanding;
+
+        /**
+         * If the upstream terminated.
+         */
+        private volatile boolean done;
+
+        /**
+         * The error of the upstream, null if it completed.
+         */
+        private Throwable error;
+
+        /**
+         * If the downstream cancelled or the subscriber terminated.
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * Create a new tick spreading subscriber.
+         *
+         * @param downstream The downstream subscriber.
+         */
+        TickSpreadingSubscriber(Subscriber<? super T> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (SubscriptionHelper.validate(upstream, subscription)) {
+                upstream = subscription;
+                downstream.onSubscribe(this);
+                tickTask = bukkitScheduler.runTaskTimer(plugin, this, 0L, 1L);
+
+                // A downstream cancelling right in onSubscribe couldn't stop the task yet.
+                if (cancelled) {
+                    stopTicking();
+                }
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            queue.offer(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done = true;
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+        }
+
+        @Override
+        public void request(long n) {
+            if (!SubscriptionHelper.validate(n)) {
+                return;
+            }
+
+            long current;
+            long next;
+
+            do {
+                current = requested.get();
+                next = current + n < 0 ? Long.MAX_VALUE : current + n;
+            } while (!requested.compareAndSet(current, next));
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled) {
+                return;
+            }
+
+            cancelled = true;
+            upstream.cancel();
+            stopTicking();
+        }
+
+        @Override
+        public void run() {
+            long deadlineNanos = System.nanoTime() + sliceNanos;
+
+            while (!cancelled) {
+                boolean terminated = done;
+                T item = queue.peek();
+
+                if (item == null) {
+                    if (terminated) {
+                        terminate();
+                        return;
+                    }
+
+                    if (outstanding > 0) {
+                        // The upstream is asynchronous, its items will be emitted in a later tick.
+                        return;
+                    }
+
+                    outstanding = prefetch;
+                    upstream.request(prefetch);
+                    continue;
+                }
+
+                long demand = requested.get();
+                if (demand == 0L) {
+                    return;
+                }
+
+                queue.poll();
+                outstanding--;
+                downstream.onNext(item);
+
+                if (demand != Long.MAX_VALUE) {
+                    requested.decrementAndGet();
+                }
+
+                if (System.nanoTime() >= deadlineNanos) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Forward the termination of the upstream once all items were emitted.
+         */
+        private void terminate() {
+            cancelled = true;
+            stopTicking();
+
+            if (error != null) {
+                downstream.onError(error);
+            } else {
+                downstream.onComplete();
+            }
+        }
+
+        /**
+         * Cancel the tick task.
+         */
+        private void stopTicking() {
+            BukkitTask task = tickTask;
+            if (task != null) {
+                task.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.recorder;
+
+import org.bukkit.event.Event;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Turns events of one class into the payload of a journal record and back.
+ * <p>
+ * Only the plugin knows which parts of an event matter and how to get hold of the bukkit objects it references, so
+ * every recorded event class needs a codec. Encoding happens on the thread that calls the event, decoding on the
+ * server thread right before the event is called again.
+ *
+ * @param <EventType> The type of the event.
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public interface EventCodec<EventType extends Event> {
+
+    /**
+     * Write an event.
+     *
+     * @param event  The event.
+     * @param output The output.
+     * @throws IOException If the event can't be written.
+     */
+    void encode(EventType event, DataOutput output) throws IOException;
+
+    /**
+     * Create an event from what {@link #encode(Event, DataOutput)} wrote.
+     *
+     * @param input The input.
+     * @return The event.
+     * @throws IOException If the event can't be read.
+     */
+    EventType decode(DataInput input) throws IOException;
+}
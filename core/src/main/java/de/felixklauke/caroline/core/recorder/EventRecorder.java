@@ -0,0 +1,258 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.recorder;
+
+import de.felixklauke.caroline.core.emitter.EventDispatchHub;
+import de.felixklauke.caroline.core.emitter.EventEmitter;
+import io.reactivex.Observable;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the events of selected classes into an event journal.
+ * <p>
+ * Events are encoded by their codec right in a lowest priority listener, so the journal holds them the way the server
+ * called them. Writing the journal happens on a dedicated thread. Disposing the recorder stops listening and closes
+ * the journal once everything recorded so far is written.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class EventRecorder implements Disposable {
+
+    /**
+     * The maximum amount of recorded event classes.
+     */
+    private static final int MAX_TYPES = 1 << Short.SIZE;
+
+    /**
+     * The initial capacity of the buffer an event is encoded into.
+     */
+    private static final int INITIAL_PAYLOAD_CAPACITY = 64;
+
+    /**
+     * The hub that holds the bukkit registrations.
+     */
+    private final EventDispatchHub dispatchHub;
+
+    /**
+     * The journal, only touched by the writer thread.
+     */
+    private final JournalWriter journal;
+
+    /**
+     * The single thread writing the journal.
+     */
+    private final ExecutorService writerExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "caroline-recorder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The subscriptions of the recorded event classes.
+     */
+    private final CompositeDisposable subscriptions = new CompositeDisposable();
+
+    /**
+     * The id of the next recorded event class.
+     */
+    private int nextTypeId;
+
+    /**
+     * The amount of events written to the journal.
+     */
+    private volatile long recordedEvents;
+
+    /**
+     * If writing the journal failed, only touched by the writer thread.
+     */
+    private boolean failed;
+
+    /**
+     * Create a new recorder, an existing journal at the path is replaced.
+     *
+     * @param path        The path of the journal file.
+     * @param dispatchHub The hub that holds the bukkit registrations.
+     * @throws IOException If the journal can't be created.
+     */
+    public EventRecorder(Path path, EventDispatchHub dispatchHub) throws IOException {
+        this.dispatchHub = dispatchHub;
+        this.journal = new JournalWriter(path);
+    }
+
+    /**
+     * Start recording the events of the given class, including cancelled ones.
+     *
+     * @param eventClazz  The class of the event.
+     * @param codec       The codec writing the events.
+     * @param <EventType> The type of the event.
+     * @return This recorder.
+     */
+    public synchronized <EventType extends Event> EventRecorder record(Class<EventType> eventClazz, EventCodec<EventType> codec) {
+        if (isDisposed()) {
+            throw new IllegalStateException("The recorder is disposed.");
+        }
+
+        if (nextTypeId == MAX_TYPES) {
+            throw new IllegalStateException("A recorder can't record more than " + MAX_TYPES + " event classes.");
+        }
+
+        int typeId = nextTypeId++;
+        String typeName = eventClazz.getName();
+        writerExecutor.execute(() -> write(() -> journal.defineType(typeId, typeName)));
+
+        subscriptions.add(Observable.create(new EventEmitter<EventType>(eventClazz, false, EventPriority.LOWEST, dispatchHub))
+                .subscribe(event -> onEvent(typeId, event, codec), RxJavaPlugins::onError));
+        return this;
+    }
+
+    /**
+     * Get the amount of events written to the journal.
+     *
+     * @return The amount of recorded events.
+     */
+    public long getRecordedEvents() {
+        return recordedEvents;
+    }
+
+    /**
+     * Wait until the journal is closed after the recorder was disposed.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit    The unit of the timeout.
+     * @return If the journal is closed.
+     * @throws InterruptedException If the current thread is interrupted while waiting.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return writerExecutor.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public synchronized void dispose() {
+        if (isDisposed()) {
+            return;
+        }
+
+        subscriptions.dispose();
+        writerExecutor.execute(this::closeJournal);
+        writerExecutor.shutdown();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return subscriptions.isDisposed();
+    }
+
+    /**
+     * Encode an event and hand it to the writer thread.
+     *
+     * @param typeId      The id of the event class.
+     * @param event       The event.
+     * @param codec       The codec writing the event.
+     * @param <EventType> The type of the event.
+     */
+    private <EventType extends Event> void onEvent(int typeId, EventType event, EventCodec<EventType> codec) {
+        long timeNanos = System.nanoTime();
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(INITIAL_PAYLOAD_CAPACITY);
+
+        try {
+            codec.encode(event, new DataOutputStream(payload));
+        } catch (Throwable throwable) {
+            Exceptions.throwIfFatal(throwable);
+            RxJavaPlugins.onError(throwable);
+            return;
+        }
+
+        byte[] bytes = payload.toByteArray();
+
+        try {
+            writerExecutor.execute(() -> write(() -> {
+                journal.append(typeId, timeNanos, bytes);
+                recordedEvents++;
+            }));
+        } catch (RejectedExecutionException e) {
+            // The recorder was disposed while the event was encoded.
+        }
+    }
+
+    /**
+     * Run a write on the writer thread, after the first failure all further writes are skipped.
+     *
+     * @param journalWrite The write.
+     */
+    private void write(JournalWrite journalWrite) {
+        if (failed) {
+            return;
+        }
+
+        try {
+            journalWrite.run();
+        } catch (ClosedChannelException e) {
+            // The event was dispatched while the recorder got disposed and queued behind the close.
+        } catch (IOException e) {
+            failed = true;
+            RxJavaPlugins.onError(e);
+        }
+    }
+
+    /**
+     * Close the journal on the writer thread, even if writing it failed.
+     */
+    private void closeJournal() {
+        try {
+            journal.close();
+        } catch (IOException e) {
+            RxJavaPlugins.onError(e);
+        }
+    }
+
+    /**
+     * A single write of the journal.
+     */
+    @FunctionalInterface
+    private interface JournalWrite {
+
+        /**
+         * Write to the journal.
+         *
+         * @throws IOException If the journal can't be written.
+         */
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.recorder;
+
+import io.reactivex.Completable;
+import io.reactivex.CompletableEmitter;
+import io.reactivex.exceptions.Exceptions;
+import org.bukkit.event.Event;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Replays an event journal by calling the recorded events again through a plugin manager.
+ * <p>
+ * Events are decoded by the codecs registered for their class and called from a repeating task on the server thread,
+ * events of classes without a codec are skipped. Together with stand-ins for the plugin manager and the bukkit
+ * scheduler this drives rx pipelines with recorded traffic without a server. Asynchronous events are called from the
+ * server thread as well, which a real plugin manager refuses.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class EventReplayer {
+
+    /**
+     * The path of the journal file.
+     */
+    private final Path path;
+
+    /**
+     * The bukkit plugin we schedule the replay task for.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The plugin manager the events are called through.
+     */
+    private final PluginManager pluginManager;
+
+    /**
+     * The bukkit scheduler running the replay task.
+     */
+    private final BukkitScheduler bukkitScheduler;
+
+    /**
+     * The codecs by the name of their event class.
+     */
+    private final Map<String, EventCodec<?>> codecs = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new replayer.
+     *
+     * @param path            The path of the journal file.
+     * @param plugin          The bukkit plugin we schedule the replay task for.
+     * @param pluginManager   The plugin manager the events are called through.
+     * @param bukkitScheduler The bukkit scheduler running the replay task.
+     */
+    public EventReplayer(Path path, Plugin plugin, PluginManager pluginManager, BukkitScheduler bukkitScheduler) {
+        this.path = path;
+        this.plugin = plugin;
+        this.pluginManager = pluginManager;
+        this.bukkitScheduler = bukkitScheduler;
+    }
+
+    /**
+     * Replay the recorded events of the given class with the given codec.
+     *
+     * @param eventClazz  The class of the event.
+     * @param codec       The codec reading the events.
+     * @param <EventType> The type of the event.
+     * @return This replayer.
+     */
+    public <EventType extends Event> EventReplayer register(Class<EventType> eventClazz, EventCodec<EventType> codec) {
+        codecs.put(eventClazz.getName(), codec);
+        return this;
+    }
+
+    /**
+     * Replay the journal with the given speed, every subscription replays it once from the start.
+     *
+     * @param speed The speed.
+     * @return The completable that completes once all events were called.
+     */
+    public Completable replay(ReplaySpeed speed) {
+        return Completable.create(emitter -> {
+            ReplayTask replayTask = new ReplayTask(new JournalReader(path), speed, emitter);
+            replayTask.start();
+            emitter.setCancellable(replayTask::stop);
+        });
+    }
+
+    /**
+     * The repeating task calling the due events of a single replay.
+     */
+    private final class ReplayTask implements Runnable {
+
+        /**
+         * The reader of the journal.
+         */
+        private final JournalReader reader;
+
+        /**
+         * The speed of the replay.
+         */
+        private final ReplaySpeed speed;
+
+        /**
+         * The downstream emitter.
+         */
+        private final CompletableEmitter emitter;
+
+        /**
+         * The bukkit task running the replay, guarded by this task.
+         */
+        private BukkitTask bukkitTask;
+
+        /**
+         * The nano time of the first run.
+         */
+        private long startNanos;
+
+        /**
+         * If the reader stands on an event that isn't due yet.
+         */
+        private boolean holdsEvent;
+
+        /**
+         * If the replay is finished or stopped, guarded by this task.
+         */
+        private boolean stopped;
+
+        /**
+         * Create a new replay task.
+         *
+         * @param reader  The reader of the journal.
+         * @param speed   The speed of the replay.
+         * @param emitter The downstream emitter.
+         */
+        ReplayTask(JournalReader reader, ReplaySpeed speed, CompletableEmitter emitter) {
+            this.reader = reader;
+            this.speed = speed;
+            this.emitter = emitter;
+        }
+
+        /**
+         * Start the repeating bukkit task.
+         */
+        synchronized void start() {
+            bukkitTask = bukkitScheduler.runTaskTimer(plugin, this, 0L, 1L);
+        }
+
+        @Override
+        public synchronized void run() {
+            if (stopped) {
+                return;
+            }
+
+            if (startNanos == 0L) {
+                startNanos = System.nanoTime();
+            }
+
+            long elapsedNanos = speed == ReplaySpeed.MAX ? Long.MAX_VALUE : System.nanoTime() - startNanos;
+
+            try {
+                while (holdsEvent || reader.next()) {
+                    if (reader.getTimeNanos() > elapsedNanos) {
+                        holdsEvent = true;
+                        return;
+                    }
+
+                    holdsEvent = false;
+                    callEvent();
+                }
+            } catch (Throwable throwable) {
+                Exceptions.throwIfFatal(throwable);
+                stop();
+                emitter.tryOnError(throwable);
+                return;
+            }
+
+            stop();
+            emitter.onComplete();
+        }
+
+        /**
+         * Decode the current event and call it, if there is a codec for it.
+         *
+         * @throws IOException If the event can't be decoded.
+         */
+        private void callEvent() throws IOException {
+            EventCodec<?> codec = codecs.get(reader.getTypeName());
+
+            if (codec == null) {
+                return;
+            }
+
+            ByteBuffer payload = reader.getPayload();
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+
+            pluginManager.callEvent(codec.decode(new DataInputStream(new ByteArrayInputStream(bytes))));
+        }
+
+        /**
+         * Cancel the bukkit task and close the journal.
+         */
+        synchronized void stop() {
+            if (stopped) {
+                return;
+            }
+
+            stopped = true;
+
+            if (bukkitTask != null) {
+                bukkitTask.cancel();
+            }
+
+            try {
+                reader.close();
+            } catch (IOException e) {
+                emitter.tryOnError(e);
+            }
+        }
+    }
+}
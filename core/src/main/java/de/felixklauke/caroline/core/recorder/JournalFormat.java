@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.recorder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The binary layout of an event journal.
+ * <p>
+ * A journal starts with the magic number and the format version. Then follow records, each starting with its kind:
+ * type definitions carry an id and the name of an event class, events carry the id of their type, the nanoseconds
+ * since the previous event and the encoded event, all numbers but the type id as unsigned varints. A zero kind marks
+ * the end of a journal that wasn't closed properly.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+final class JournalFormat {
+
+    /**
+     * The magic number every journal starts with, CRJ1 in ascii.
+     */
+    static final int MAGIC = 0x43524A31;
+
+    /**
+     * The version of the format.
+     */
+    static final byte VERSION = 1;
+
+    /**
+     * The size of the journal header.
+     */
+    static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES;
+
+    /**
+     * The kind of the padding behind the last record of a journal that wasn't closed.
+     */
+    static final byte KIND_END = 0;
+
+    /**
+     * The kind of a type definition record.
+     */
+    static final byte KIND_TYPE = 1;
+
+    /**
+     * The kind of an event record.
+     */
+    static final byte KIND_EVENT = 2;
+
+    /**
+     * The maximum size of a record without its payload or type name.
+     */
+    static final int MAX_RECORD_HEADER_SIZE = Byte.BYTES + Short.BYTES + 10 + 5;
+
+    private JournalFormat() {
+    }
+
+    /**
+     * Write an unsigned varint.
+     *
+     * @param buffer The buffer.
+     * @param value  The value, negative values take ten bytes.
+     */
+    static void writeVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Read an unsigned varint.
+     *
+     * @param buffer The buffer.
+     * @return The value.
+     * @throws IOException If the varint is longer than ten bytes.
+     */
+    static long readVarLong(ByteBuffer buffer) throws IOException {
+        long value = 0L;
+
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte current = buffer.get();
+            value |= (long) (current & 0x7F) << shift;
+
+            if (current >= 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed varint in event journal.");
+    }
+}
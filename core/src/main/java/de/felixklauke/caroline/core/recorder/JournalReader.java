@@ -0,0 +1,230 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.recorder;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the events of an event journal one after another through memory mapped regions of the journal file.
+ * <p>
+ * Type definitions are consumed on the way, {@link #next()} only stops at events. The reader is not thread safe, it
+ * has to be owned by exactly one thread.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class JournalReader implements Closeable {
+
+    /**
+     * The size of a mapped region.
+     */
+    private static final int REGION_SIZE = 8 << 20;
+
+    /**
+     * The channel of the journal file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The size of the journal file.
+     */
+    private final long fileSize;
+
+    /**
+     * The names of the types by their id.
+     */
+    private final Map<Integer, String> typeNames = new HashMap<>();
+
+    /**
+     * The mapped region records are read from.
+     */
+    private MappedByteBuffer region;
+
+    /**
+     * The offset of the mapped region in the file.
+     */
+    private long regionOffset;
+
+    /**
+     * The name of the type of the current event.
+     */
+    private String typeName;
+
+    /**
+     * The nanoseconds between the first and the current event.
+     */
+    private long timeNanos;
+
+    /**
+     * The encoded current event.
+     */
+    private ByteBuffer payload;
+
+    /**
+     * Open a journal.
+     *
+     * @param path The path of the journal file.
+     * @throws IOException If the file can't be opened or isn't a journal.
+     */
+    public JournalReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+
+        try {
+            ensureRemaining(JournalFormat.HEADER_SIZE);
+
+            if (region.getInt() != JournalFormat.MAGIC || region.get() != JournalFormat.VERSION) {
+                throw new IOException("The file " + path + " isn't a caroline event journal.");
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Move on to the next event.
+     *
+     * @return If there is another event, false at the end of the journal.
+     * @throws IOException If the journal is truncated or malformed.
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            long remaining = fileSize - position();
+
+            if (remaining <= 0L) {
+                return false;
+            }
+
+            ensureRemaining((int) Math.min(JournalFormat.MAX_RECORD_HEADER_SIZE, remaining));
+            byte kind = region.get();
+
+            if (kind == JournalFormat.KIND_END) {
+                return false;
+            }
+
+            int typeId = region.getShort() & 0xFFFF;
+            long deltaNanos = kind == JournalFormat.KIND_EVENT ? JournalFormat.readVarLong(region) : 0L;
+            int length = (int) JournalFormat.readVarLong(region);
+
+            ensureRemaining(length);
+            ByteBuffer data = region.slice();
+            data.limit(length);
+            region.position(region.position() + length);
+
+            if (kind == JournalFormat.KIND_TYPE) {
+                byte[] name = new byte[length];
+                data.get(name);
+                typeNames.put(typeId, new String(name, StandardCharsets.UTF_8));
+                continue;
+            }
+
+            if (kind != JournalFormat.KIND_EVENT) {
+                throw new IOException("Unknown record kind " + kind + " in event journal.");
+            }
+
+            typeName = typeNames.get(typeId);
+            timeNanos += deltaNanos;
+            payload = data.asReadOnlyBuffer();
+
+            if (typeName == null) {
+                throw new IOException("Event of the undefined type " + typeId + " in event journal.");
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Get the name of the type of the current event.
+     *
+     * @return The type name, usually the event class.
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * Get the nanoseconds between the first and the current event.
+     *
+     * @return The time of the event.
+     */
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+
+    /**
+     * Get the encoded current event, only valid until the next call of {@link #next()}.
+     *
+     * @return The payload.
+     */
+    public ByteBuffer getPayload() {
+        return payload;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Get the position in the file.
+     *
+     * @return The position.
+     */
+    private long position() {
+        return region == null ? 0L : regionOffset + region.position();
+    }
+
+    /**
+     * Map a new region at the current position if the current one doesn't hold the given amount of bytes.
+     *
+     * @param bytes The amount of bytes.
+     * @throws IOException If the file ends before or the region can't be mapped.
+     */
+    private void ensureRemaining(int bytes) throws IOException {
+        if (region != null && region.remaining() >= bytes) {
+            return;
+        }
+
+        long offset = position();
+
+        if (fileSize - offset < bytes) {
+            throw new EOFException("The event journal is truncated.");
+        }
+
+        region = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(fileSize - offset, Math.max(REGION_SIZE, bytes)));
+        regionOffset = offset;
+    }
+}
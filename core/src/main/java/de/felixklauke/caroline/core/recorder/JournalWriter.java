@@ -0,0 +1,203 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.recorder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends records to an event journal through memory mapped regions of the journal file.
+ * <p>
+ * The file grows region by region and is cut down to the written records when the writer is closed. A journal whose
+ * writer wasn't closed ends in zeros, which readers take as its end. The writer is not thread safe, it has to be owned
+ * by exactly one thread. Once it is closed its region is unmapped eventually, so further records are refused.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class JournalWriter implements Closeable {
+
+    /**
+     * The size of a mapped region.
+     */
+    private static final int REGION_SIZE = 8 << 20;
+
+    /**
+     * The channel of the journal file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The mapped region records are written to.
+     */
+    private MappedByteBuffer region;
+
+    /**
+     * If the writer is closed.
+     */
+    private boolean closed;
+
+    /**
+     * The offset of the mapped region in the file.
+     */
+    private long regionOffset;
+
+    /**
+     * The nano time of the last event, if there is one.
+     */
+    private long lastTimeNanos;
+
+    /**
+     * If an event was written already.
+     */
+    private boolean hasEvents;
+
+    /**
+     * Create a new journal, an existing file is replaced.
+     *
+     * @param path The path of the journal file.
+     * @throws IOException If the file can't be created or mapped.
+     */
+    public JournalWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        ensureRemaining(JournalFormat.HEADER_SIZE);
+        region.putInt(JournalFormat.MAGIC);
+        region.put(JournalFormat.VERSION);
+    }
+
+    /**
+     * Define the name of a type id, it has to be defined before the first event of the type.
+     *
+     * @param typeId   The type id.
+     * @param typeName The name of the type, usually the event class.
+     * @throws IOException If the journal can't grow or the writer is closed.
+     */
+    public void defineType(int typeId, String typeName) throws IOException {
+        ensureOpen();
+        byte[] name = typeName.getBytes(StandardCharsets.UTF_8);
+
+        ensureRemaining(JournalFormat.MAX_RECORD_HEADER_SIZE + name.length);
+        region.put(JournalFormat.KIND_TYPE);
+        region.putShort((short) typeId);
+        JournalFormat.writeVarLong(region, name.length);
+        region.put(name);
+    }
+
+    /**
+     * Append an event.
+     *
+     * @param typeId    The id of the type of the event.
+     * @param timeNanos The nano time the event happened at, earlier times than the last event count as simultaneous.
+     * @param payload   The encoded event.
+     * @throws IOException If the journal can't grow or the writer is closed.
+     */
+    public void append(int typeId, long timeNanos, byte[] payload) throws IOException {
+        ensureOpen();
+
+        long deltaNanos = hasEvents ? Math.max(0L, timeNanos - lastTimeNanos) : 0L;
+
+        if (deltaNanos > 0L || !hasEvents) {
+            lastTimeNanos = timeNanos;
+            hasEvents = true;
+        }
+
+        ensureRemaining(JournalFormat.MAX_RECORD_HEADER_SIZE + payload.length);
+        region.put(JournalFormat.KIND_EVENT);
+        region.putShort((short) typeId);
+        JournalFormat.writeVarLong(region, deltaNanos);
+        JournalFormat.writeVarLong(region, payload.length);
+        region.put(payload);
+    }
+
+    /**
+     * Get the amount of bytes written so far.
+     *
+     * @return The size of the journal.
+     */
+    public long size() {
+        return regionOffset + region.position();
+    }
+
+    /**
+     * Flush the written records and cut the file down to them.
+     *
+     * @throws IOException If the file can't be flushed or truncated.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        try {
+            long size = size();
+            region.force();
+            channel.truncate(size);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Make sure the writer isn't closed.
+     *
+     * @throws ClosedChannelException If the writer is closed.
+     */
+    private void ensureOpen() throws ClosedChannelException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    /**
+     * Map a new region at the current position if the current one can't take the given amount of bytes.
+     *
+     * @param bytes The amount of bytes.
+     * @throws IOException If the region can't be mapped.
+     */
+    private void ensureRemaining(int bytes) throws IOException {
+        if (region != null && region.remaining() >= bytes) {
+            return;
+        }
+
+        long offset = region == null ? 0L : size();
+
+        if (region != null) {
+            region.force();
+        }
+
+        region = channel.map(FileChannel.MapMode.READ_WRITE, offset, Math.max(REGION_SIZE, bytes));
+        regionOffset = offset;
+    }
+}
@@ -24,8 +24,10 @@
 
 package de.felixklauke.caroline.core.scheduler;
 
+import de.felixklauke.caroline.core.metrics.MeteredScheduler;
+import de.felixklauke.caroline.core.metrics.SchedulerMetrics;
+import de.felixklauke.caroline.core.metrics.SlowTaskProfiler;
 import io.reactivex.Scheduler;
-import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.disposables.Disposable;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitScheduler;
@@ -36,7 +38,7 @@ import java.util.concurrent.TimeUnit;
 /**
  * @author Felix Klauke <fklauke@itemis.de>
  */
-public abstract class AbstractScheduler extends Scheduler {
+public abstract class AbstractScheduler extends Scheduler implements MeteredScheduler {
 
     /**
      * The bukkit plugin we schedule tasks for.
@@ -48,6 +50,11 @@ public abstract class AbstractScheduler extends Scheduler {
      */
     private final BukkitScheduler bukkitScheduler;
 
+    /**
+     * The metrics of all tasks scheduled by this scheduler.
+     */
+    private final SchedulerMetrics metrics;
+
     /**
      * Create a new abstract scheduler.
      *
@@ -55,8 +62,20 @@ public abstract class AbstractScheduler extends Scheduler {
      * @param bukkitScheduler The underlying bukkit scheduler.
      */
     public AbstractScheduler(Plugin plugin, BukkitScheduler bukkitScheduler) {
+        this(plugin, bukkitScheduler, new SchedulerMetrics("caroline", false));
+    }
+
+    /**
+     * Create a new abstract scheduler.
+     *
+     * @param plugin          The bukkit plugin we schedule tasks for.
+     * @param bukkitScheduler The underlying bukkit scheduler.
+     * @param metrics         The metrics of all tasks scheduled by this scheduler.
+     */
+    protected AbstractScheduler(Plugin plugin, BukkitScheduler bukkitScheduler, SchedulerMetrics metrics) {
         this.plugin = plugin;
         this.bukkitScheduler = bukkitScheduler;
+        this.metrics = metrics;
     }
 
     /**
@@ -77,6 +96,11 @@ public abstract class AbstractScheduler extends Scheduler {
         return bukkitScheduler;
     }
 
+    @Override
+    public SchedulerMetrics getMetrics() {
+        return metrics;
+    }
+
     @Override
     public Worker createWorker() {
         return new SpigotRxWorker();
@@ -109,95 +133,134 @@ public abstract class AbstractScheduler extends Scheduler {
      */
     protected abstract BukkitTask schedule(Runnable runnable, int delay, int interval);
 
+    /**
+     * Schedule a task with the given runnable and wrap it into a disposable.
+     * <p>
+     * Schedulers that don't need a bukkit task per runnable can override this.
+     *
+     * @param runnable The runnable.
+     * @return The disposable of the task.
+     */
+    protected Disposable scheduleTask(Runnable runnable) {
+        return new DisposableBukkitTask(schedule(runnable));
+    }
+
+    /**
+     * Schedule a task with the given delay and wrap it into a disposable.
+     * <p>
+     * The default implementation rounds the delay to minecraft server ticks.
+     *
+     * @param runnable The runnable.
+     * @param delay    The delay.
+     * @param unit     The unit of the delay.
+     * @return The disposable of the task.
+     */
+    protected Disposable scheduleTask(Runnable runnable, long delay, TimeUnit unit) {
+        return new DisposableBukkitTask(schedule(runnable, convertTimeToTicks(delay, unit)));
+    }
+
+    /**
+     * Schedule a periodic task and wrap it into a disposable.
+     * <p>
+     * The default implementation rounds the delay and period to minecraft server ticks.
+     *
+     * @param runnable     The runnable.
+     * @param initialDelay The initial delay.
+     * @param period       The period.
+     * @param unit         The unit of the delay and the period.
+     * @return The disposable of the task.
+     */
+    protected Disposable scheduleTask(Runnable runnable, long initialDelay, long period, TimeUnit unit) {
+        return new DisposableBukkitTask(schedule(runnable, convertTimeToTicks(initialDelay, unit), convertTimeToTicks(period, unit)));
+    }
+
+    /**
+     * Convert java time to bukkit ticks.
+     *
+     * @param time     The time.
+     * @param timeUnit The time unit.
+     * @return The time in bukkit ticks.
+     */
+    protected static int convertTimeToTicks(long time, TimeUnit timeUnit) {
+        return (int) Math.round((double) timeUnit.toMillis(time) / 50D);
+    }
+
+    /**
+     * Capture the assembly site of a new worker of a server thread scheduler while profiling.
+     * <p>
+     * Workers are created when a chain is subscribed, so the stack shows who subscribed it.
+     *
+     * @return The assembly site, null if nothing is profiled or the worker isn't sampled.
+     */
+    private Throwable sampleAssemblySite() {
+        SlowTaskProfiler profiler = SlowTaskProfiler.getActive();
+        return profiler != null && metrics.isMainThread() ? profiler.sampleAssemblySite() : null;
+    }
+
     /**
      * The worker implementation.
+     * <p>
+     * Every task is tracked in an intrusive task list it leaves once it ran or got disposed, so a long living worker
+     * only holds on to its pending and periodic tasks.
      */
     private final class SpigotRxWorker extends Worker {
 
         /**
-         * The compostie disposable for all workers.
+         * The pending tasks of this worker.
+         */
+        private final TaskList taskList = new TaskList();
+
+        /**
+         * The assembly site of the subscription that created this worker, null if it wasn't sampled.
          */
-        private final CompositeDisposable compositeDisposable = new CompositeDisposable();
+        private final Throwable assemblySite = sampleAssemblySite();
 
         @Override
         public Disposable schedule(Runnable runnable, long delay, TimeUnit unit) {
-            BukkitTask bukkitTask = AbstractScheduler.this.schedule(runnable, convertTimeToTicks(delay, unit));
-            Disposable disposable = new DisposableBukkitTask(bukkitTask);
-            compositeDisposable.add(disposable);
-            return disposable;
+            if (delay <= 0L) {
+                // Scheduler.scheduleDirect passes a zero delay, it belongs to the immediate tasks.
+                return schedule(runnable);
+            }
+
+            MeteredTask task = new MeteredTask(metrics, runnable, unit.toNanos(delay), 0L, taskList, assemblySite);
+            if (!taskList.add(task)) {
+                task.dispose();
+                return task;
+            }
+
+            return task.setUpstream(AbstractScheduler.this.scheduleTask(task, delay, unit));
         }
 
         @Override
         public Disposable schedulePeriodically(Runnable runnable, long initialDelay, long period, TimeUnit unit) {
-            BukkitTask bukkitTask = AbstractScheduler.this.schedule(runnable, convertTimeToTicks(initialDelay, unit), convertTimeToTicks(period, unit));
-            Disposable disposable = new DisposableBukkitTask(bukkitTask);
-            compositeDisposable.add(disposable);
-            return disposable;
+            MeteredTask task = new MeteredTask(metrics, runnable, unit.toNanos(initialDelay), Math.max(unit.toNanos(period), 1L), taskList, assemblySite);
+            if (!taskList.add(task)) {
+                task.dispose();
+                return task;
+            }
+
+            return task.setUpstream(AbstractScheduler.this.scheduleTask(task, initialDelay, period, unit));
         }
 
         @Override
         public Disposable schedule(Runnable runnable) {
-            BukkitTask bukkitTask = AbstractScheduler.this.schedule(runnable);
-            Disposable disposable = new DisposableBukkitTask(bukkitTask);
-            compositeDisposable.add(disposable);
-            return disposable;
-        }
+            MeteredTask task = new MeteredTask(metrics, runnable, 0L, 0L, taskList, assemblySite);
+            if (!taskList.add(task)) {
+                task.dispose();
+                return task;
+            }
 
-        /**
-         * Convert java time to bukkit ticks.
-         *
-         * @param time     The time.
-         * @param timeUnit The time unit.
-         * @return The time in bukkit ticks.
-         */
-        private int convertTimeToTicks(long time, TimeUnit timeUnit) {
-            return (int) Math.round((double) timeUnit.toMillis(time) / 50D);
+            return task.setUpstream(AbstractScheduler.this.scheduleTask(task));
         }
 
         @Override
         public void dispose() {
-            compositeDisposable.dispose();
+            taskList.dispose();
         }
 
         @Override
         public boolean isDisposed() {
-            return compositeDisposable.isDisposed();
-        }
-
-        /**
-         * Wrap a bukkit task in a disposable.
-         */
-        private final class DisposableBukkitTask implements Disposable {
-
-            /**
-             * The bukkit task we want to dispose.
-             */
-            private final BukkitTask bukkitTask;
-
-            /**
-             * If the task is disposed.
-             */
-            private boolean disposed;
-
-            /**
-             * Create a new disposable bukkit task.
-             *
-             * @param bukkitTask The bukkit task.
-             */
-            DisposableBukkitTask(BukkitTask bukkitTask) {
-                this.bukkitTask = bukkitTask;
-            }
-
-            @Override
-            public void dispose() {
-                disposed = true;
-                this.bukkitTask.cancel();
-            }
-
-            @Override
-            public boolean isDisposed() {
-                return disposed && !bukkitTask.getOwner().getServer().getScheduler().isCurrentlyRunning(bukkitTask.getTaskId());
-            }
+            return taskList.isDisposed();
         }
     }
 }
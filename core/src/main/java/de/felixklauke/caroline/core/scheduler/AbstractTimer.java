@@ -0,0 +1,299 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The base of the timers over a hierarchical {@link TimingWheel}.
+ * <p>
+ * Scheduling and cancelling only touch lock-free queues, the thread owning the wheel moves the timeouts into and out
+ * of it whenever the clock of the implementation calls {@link #advance()}. Expired timeouts are handed to the executor
+ * of the timer. A periodic timeout is only put back into the wheel once its run finished, so slow runs never overlap
+ * and skip the periods they missed instead.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public abstract class AbstractTimer {
+
+    /**
+     * The wheel, only touched by the thread that advances the timer.
+     */
+    private final TimingWheel<Timeout> wheel;
+
+    /**
+     * The timeouts waiting to be added to the wheel.
+     */
+    private final Queue<Timeout> scheduledTimeouts = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The timeouts waiting to be removed from the wheel.
+     */
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The executor that runs expired timeouts.
+     */
+    private final Executor executor;
+
+    /**
+     * The tick that will be processed by the next advance.
+     */
+    private volatile long currentTick;
+
+    /**
+     * The amount of times the timer was cleared, periodic timeouts running meanwhile aren't rescheduled.
+     */
+    private volatile int epoch;
+
+    /**
+     * Create a new timer.
+     *
+     * @param slotCount  The amount of wheel slots per level.
+     * @param levelCount The amount of wheel levels.
+     * @param executor   The executor that runs expired timeouts.
+     */
+    protected AbstractTimer(int slotCount, int levelCount, Executor executor) {
+        this.wheel = new TimingWheel<>(slotCount, levelCount);
+        this.executor = executor;
+    }
+
+    /**
+     * Schedule a runnable in the given tick and then repeatedly with the given period.
+     *
+     * @param runnable     The runnable.
+     * @param deadlineTick The absolute tick of the first execution.
+     * @param periodTicks  The period in ticks, zero for a one shot timeout.
+     * @return The disposable to cancel the timeout.
+     */
+    protected Disposable scheduleTimeout(Runnable runnable, long deadlineTick, long periodTicks) {
+        Timeout timeout = new Timeout(runnable, deadlineTick, Math.max(periodTicks, 0L), epoch);
+        scheduledTimeouts.offer(timeout);
+        return timeout;
+    }
+
+    /**
+     * Move the scheduled and cancelled timeouts into and out of the wheel, then process the current tick.
+     */
+    protected void advance() {
+        transferCancelledTimeouts();
+        transferScheduledTimeouts();
+
+        // Timeouts scheduled by expiring ones have to count their delay from the tick after the processed one.
+        currentTick = wheel.getCurrentTick() + 1;
+        wheel.advance(this::expire);
+    }
+
+    /**
+     * Dispose and drop all pending timeouts, only call it from the thread that advances the timer while it doesn't.
+     */
+    protected void clear() {
+        Timeout timeout;
+        epoch++;
+
+        while ((timeout = scheduledTimeouts.poll()) != null) {
+            timeout.state.set(Timeout.STATE_CANCELLED);
+        }
+
+        cancelledTimeouts.clear();
+        wheel.clear(removedTimeout -> removedTimeout.state.set(Timeout.STATE_CANCELLED));
+    }
+
+    /**
+     * Get the tick that will be processed by the next advance, also while the timeouts of the previous one expire.
+     *
+     * @return The current tick.
+     */
+    protected long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Move all newly scheduled timeouts into the wheel.
+     */
+    private void transferScheduledTimeouts() {
+        Timeout timeout;
+
+        while ((timeout = scheduledTimeouts.poll()) != null) {
+            if (timeout.state.compareAndSet(Timeout.STATE_PENDING, Timeout.STATE_SCHEDULED)) {
+                wheel.add(timeout, timeout.nextDeadlineTick);
+            }
+        }
+    }
+
+    /**
+     * Remove all cancelled timeouts from the wheel.
+     */
+    private void transferCancelledTimeouts() {
+        Timeout timeout;
+
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            wheel.remove(timeout);
+        }
+    }
+
+    /**
+     * Hand an expired timeout to the executor, a periodic one leaves the wheel until its run finished.
+     *
+     * @param timeout The timeout.
+     */
+    private void expire(Timeout timeout) {
+        Runnable task;
+
+        if (timeout.periodTicks > 0) {
+            if (!timeout.state.compareAndSet(Timeout.STATE_SCHEDULED, Timeout.STATE_RUNNING)) {
+                return;
+            }
+
+            timeout.nextDeadlineTick = timeout.getDeadlineTick() + timeout.periodTicks;
+            task = timeout;
+        } else if (timeout.state.compareAndSet(Timeout.STATE_SCHEDULED, Timeout.STATE_EXPIRED)) {
+            task = timeout.runnable;
+        } else {
+            return;
+        }
+
+        try {
+            executor.execute(task);
+        } catch (Throwable throwable) {
+            Exceptions.throwIfFatal(throwable);
+            RxJavaPlugins.onError(throwable);
+        }
+    }
+
+    /**
+     * A single timeout of the timer.
+     */
+    private final class Timeout extends TimingWheel.Entry implements Runnable, Disposable {
+
+        /**
+         * The timeout waits for the next advance.
+         */
+        static final int STATE_PENDING = 0;
+
+        /**
+         * The timeout is part of the wheel.
+         */
+        static final int STATE_SCHEDULED = 1;
+
+        /**
+         * The timeout was cancelled.
+         */
+        static final int STATE_CANCELLED = 2;
+
+        /**
+         * The one shot timeout fired.
+         */
+        static final int STATE_EXPIRED = 3;
+
+        /**
+         * The periodic timeout is running and waits to be put back into the wheel.
+         */
+        static final int STATE_RUNNING = 4;
+
+        /**
+         * The state of the timeout.
+         */
+        private final AtomicInteger state = new AtomicInteger(STATE_PENDING);
+
+        /**
+         * The runnable to execute.
+         */
+        private final Runnable runnable;
+
+        /**
+         * The period in ticks, zero for a one shot timeout.
+         */
+        private final long periodTicks;
+
+        /**
+         * The epoch of the timer the timeout belongs to.
+         */
+        private final int timeoutEpoch;
+
+        /**
+         * The absolute tick of the next execution.
+         */
+        private long nextDeadlineTick;
+
+        /**
+         * Create a new timeout.
+         *
+         * @param runnable            The runnable to execute.
+         * @param initialDeadlineTick The absolute tick of the first execution.
+         * @param periodTicks         The period in ticks, zero for a one shot timeout.
+         * @param timeoutEpoch        The epoch of the timer the timeout belongs to.
+         */
+        Timeout(Runnable runnable, long initialDeadlineTick, long periodTicks, int timeoutEpoch) {
+            this.runnable = runnable;
+            this.nextDeadlineTick = initialDeadlineTick;
+            this.periodTicks = periodTicks;
+            this.timeoutEpoch = timeoutEpoch;
+        }
+
+        /**
+         * Run the periodic timeout and queue it for the wheel again, skipping the periods it missed meanwhile.
+         */
+        @Override
+        public void run() {
+            try {
+                runnable.run();
+            } finally {
+                long tick = getCurrentTick();
+
+                if (nextDeadlineTick < tick) {
+                    nextDeadlineTick += (tick - nextDeadlineTick + periodTicks - 1) / periodTicks * periodTicks;
+                }
+
+                if (timeoutEpoch != epoch) {
+                    state.compareAndSet(STATE_RUNNING, STATE_CANCELLED);
+                } else if (state.compareAndSet(STATE_RUNNING, STATE_PENDING)) {
+                    scheduledTimeouts.offer(this);
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            int previousState = state.getAndSet(STATE_CANCELLED);
+
+            if (previousState == STATE_SCHEDULED) {
+                cancelledTimeouts.offer(this);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return state.get() == STATE_CANCELLED;
+        }
+    }
+}
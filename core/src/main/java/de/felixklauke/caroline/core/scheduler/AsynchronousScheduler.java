@@ -24,19 +24,43 @@
 
 package de.felixklauke.caroline.core.scheduler;
 
+import de.felixklauke.caroline.core.metrics.SchedulerMetrics;
+import io.reactivex.disposables.Disposable;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitScheduler;
 import org.bukkit.scheduler.BukkitTask;
 
 import javax.inject.Inject;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The scheduler implementation that will schedule asynchronous tasks.
+ * <p>
+ * In precise timer mode the delayed and periodic tasks run on a pool of their own, bukkit would only start them with
+ * the next server tick.
  *
  * @author Felix Klauke <fklauke@itemis.de>
  */
 public class AsynchronousScheduler extends AbstractScheduler {
 
+    /**
+     * The timer of delayed and periodic tasks, null if they are timed by bukkit.
+     */
+    private final WheelTimer wheelTimer;
+
+    /**
+     * The name of the scheduler.
+     */
+    private final String name;
+
+    /**
+     * The pool running the expired timeouts of the wheel timer, null while the scheduler isn't started.
+     */
+    private volatile ExecutorService timerExecutor;
+
     /**
      * Create a new asynchronous scheduler.
      *
@@ -45,7 +69,92 @@ public class AsynchronousScheduler extends AbstractScheduler {
      */
     @Inject
     public AsynchronousScheduler(Plugin plugin, BukkitScheduler bukkitScheduler) {
-        super(plugin, bukkitScheduler);
+        this(plugin, bukkitScheduler, AsyncTimerMode.TICKS);
+    }
+
+    /**
+     * Create a new asynchronous scheduler.
+     *
+     * @param plugin          The bukkit plugin we schedule tasks for.
+     * @param bukkitScheduler The underlying bukkit scheduler.
+     * @param timerMode       The way delayed and periodic tasks are timed.
+     */
+    public AsynchronousScheduler(Plugin plugin, BukkitScheduler bukkitScheduler, AsyncTimerMode timerMode) {
+        this(plugin, bukkitScheduler, timerMode, "caroline-async");
+    }
+
+    /**
+     * Create a new asynchronous scheduler with the given metrics name.
+     *
+     * @param plugin          The bukkit plugin we schedule tasks for.
+     * @param bukkitScheduler The underlying bukkit scheduler.
+     * @param timerMode       The way delayed and periodic tasks are timed.
+     * @param name            The name of the scheduler in the metrics and of its timer thread.
+     */
+    public AsynchronousScheduler(Plugin plugin, BukkitScheduler bukkitScheduler, AsyncTimerMode timerMode, String name) {
+        super(plugin, bukkitScheduler, new SchedulerMetrics(name, false));
+        this.name = name;
+        this.wheelTimer = timerMode == AsyncTimerMode.PRECISE ? new WheelTimer(this::executeExpired, name + "-timer") : null;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (wheelTimer == null) {
+            return;
+        }
+
+        if (timerExecutor == null) {
+            // Grows and shrinks like bukkits async pool, timeouts expiring after the shutdown are dropped.
+            timerExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                    new CarolineThreadFactory(name + "-worker"), new ThreadPoolExecutor.DiscardPolicy());
+        }
+
+        wheelTimer.start();
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (wheelTimer == null) {
+            return;
+        }
+
+        wheelTimer.shutdown();
+
+        if (timerExecutor != null) {
+            timerExecutor.shutdown();
+            timerExecutor = null;
+        }
+    }
+
+    @Override
+    protected Disposable scheduleTask(Runnable runnable, long delay, TimeUnit unit) {
+        if (wheelTimer == null) {
+            return super.scheduleTask(runnable, delay, unit);
+        }
+
+        return wheelTimer.schedule(runnable, delay, unit);
+    }
+
+    @Override
+    protected Disposable scheduleTask(Runnable runnable, long initialDelay, long period, TimeUnit unit) {
+        if (wheelTimer == null) {
+            return super.scheduleTask(runnable, initialDelay, period, unit);
+        }
+
+        return wheelTimer.schedule(runnable, initialDelay, period, unit);
+    }
+
+    /**
+     * Run an expired timeout of the wheel timer on the timer pool.
+     *
+     * @param runnable The timeout.
+     */
+    private void executeExpired(Runnable runnable) {
+        ExecutorService executor = timerExecutor;
+
+        if (executor != null) {
+            executor.execute(runnable);
+        }
     }
 
     @Override
@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import de.felixklauke.caroline.core.config.CarolineConfig;
+import io.reactivex.Scheduler;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+
+/**
+ * Creates the schedulers of caroline in their configured modes, shared by the guice module and the
+ * {@link de.felixklauke.caroline.core.CarolineBootstrap}.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public final class CarolineSchedulers {
+
+    private CarolineSchedulers() {
+    }
+
+    /**
+     * Create the synchronous scheduler in the configured mode and with the configured timer.
+     *
+     * @param plugin          The bukkit plugin.
+     * @param bukkitScheduler The bukkit scheduler.
+     * @param tickClock       The clock measuring the tick durations for shedding deferrable tasks.
+     * @param config          The caroline config.
+     * @return The synchronous scheduler.
+     */
+    public static Scheduler createSyncScheduler(Plugin plugin, BukkitScheduler bukkitScheduler, TickClock tickClock, CarolineConfig config) {
+        TickTrampoline trampoline = null;
+
+        if (config.getSyncSchedulerMode() == SyncSchedulerMode.TRAMPOLINE) {
+            trampoline = new TickTrampoline(plugin, bukkitScheduler, tickClock, config.getTickBudgetNanos(),
+                    config.getSheddingThresholdNanos(), config.getMaxDeferralTicks());
+        }
+
+        return new SynchronousScheduler(plugin, bukkitScheduler, trampoline, config.getSyncTimerMode(),
+                config.getMaxInlineDepth(), "caroline-sync");
+    }
+
+    /**
+     * Create the asynchronous scheduler with the configured timer.
+     *
+     * @param plugin          The bukkit plugin.
+     * @param bukkitScheduler The bukkit scheduler.
+     * @param config          The caroline config.
+     * @return The asynchronous scheduler.
+     */
+    public static Scheduler createAsyncScheduler(Plugin plugin, BukkitScheduler bukkitScheduler, CarolineConfig config) {
+        return new AsynchronousScheduler(plugin, bukkitScheduler, config.getAsyncTimerMode());
+    }
+
+    /**
+     * Create the scheduler that backs rx javas computation scheduler.
+     *
+     * @param syncScheduler The synchronous scheduler.
+     * @param config        The caroline config.
+     * @return The computation scheduler.
+     */
+    public static Scheduler createComputationScheduler(Scheduler syncScheduler, CarolineConfig config) {
+        if (config.getComputationSchedulerMode() == ComputationSchedulerMode.MAIN_THREAD) {
+            return syncScheduler;
+        }
+
+        return new EventLoopScheduler(config.getComputationThreads(), "caroline-computation");
+    }
+
+    /**
+     * Create the scheduler that backs rx javas io and new thread schedulers.
+     *
+     * @param asyncScheduler The asynchronous scheduler.
+     * @param config         The caroline config.
+     * @return The io scheduler.
+     */
+    public static Scheduler createIoScheduler(Scheduler asyncScheduler, CarolineConfig config) {
+        if (config.getIoSchedulerMode() == IoSchedulerMode.BUKKIT) {
+            return asyncScheduler;
+        }
+
+        return new VirtualThreadScheduler(config.getIoFallbackThreads());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import io.reactivex.disposables.Disposable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Wrap a bukkit task in a disposable.
+ * <p>
+ * The task is cancelled exactly once, the disposed state is answered without asking the bukkit scheduler.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+final class DisposableBukkitTask extends AtomicBoolean implements Disposable {
+
+    /**
+     * The serial version uid.
+     */
+    private static final long serialVersionUID = 8219375423475609121L;
+
+    /**
+     * The bukkit task we want to dispose.
+     */
+    private final BukkitTask bukkitTask;
+
+    /**
+     * Create a new disposable bukkit task.
+     *
+     * @param bukkitTask The bukkit task.
+     */
+    DisposableBukkitTask(BukkitTask bukkitTask) {
+        this.bukkitTask = bukkitTask;
+    }
+
+    @Override
+    public void dispose() {
+        if (compareAndSet(false, true)) {
+            bukkitTask.cancel();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return get();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import de.felixklauke.caroline.core.metrics.MeteredScheduler;
+import de.felixklauke.caroline.core.metrics.SchedulerMetrics;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A scheduler backed by a fixed amount of single threaded event loops.
+ * <p>
+ * Every worker is pinned to one event loop so its tasks are executed sequentially, new workers are assigned round
+ * robin. This is meant for cpu bound work that should never run on the server thread.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class EventLoopScheduler extends Scheduler implements MeteredScheduler {
+
+    /**
+     * The executors of the event loops.
+     */
+    private final ScheduledExecutorService[] eventLoops;
+
+    /**
+     * The rx schedulers wrapping the event loops.
+     */
+    private final Scheduler[] loopSchedulers;
+
+    /**
+     * The index of the next event loop to hand out.
+     */
+    private final AtomicInteger nextLoop = new AtomicInteger();
+
+    /**
+     * The metrics of all tasks scheduled by this scheduler.
+     */
+    private final SchedulerMetrics metrics;
+
+    /**
+     * Create a new event loop scheduler.
+     *
+     * @param threads    The amount of event loops, values below one will use one loop per available processor.
+     * @param namePrefix The prefix of the thread names.
+     */
+    public EventLoopScheduler(int threads, String namePrefix) {
+        int loopCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadFactory threadFactory = new CarolineThreadFactory(namePrefix);
+
+        this.eventLoops = new ScheduledExecutorService[loopCount];
+        this.loopSchedulers = new Scheduler[loopCount];
+        this.metrics = new SchedulerMetrics(namePrefix, false);
+
+        for (int i = 0; i < loopCount; i++) {
+            eventLoops[i] = Executors.newSingleThreadScheduledExecutor(threadFactory);
+            loopSchedulers[i] = Schedulers.from(eventLoops[i]);
+        }
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new MeteredWorker(nextLoopScheduler().createWorker(), metrics);
+    }
+
+    @Override
+    public Disposable scheduleDirect(Runnable runnable, long delay, TimeUnit unit) {
+        MeteredTask task = new MeteredTask(metrics, runnable, unit.toNanos(delay), 0L);
+        return task.setUpstream(nextLoopScheduler().scheduleDirect(task, delay, unit));
+    }
+
+    @Override
+    public SchedulerMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void shutdown() {
+        for (ScheduledExecutorService eventLoop : eventLoops) {
+            eventLoop.shutdownNow();
+        }
+    }
+
+    /**
+     * Get the amount of event loops.
+     *
+     * @return The amount of event loops.
+     */
+    public int getLoopCount() {
+        return eventLoops.length;
+    }
+
+    /**
+     * Get the scheduler of the next event loop in round robin order.
+     *
+     * @return The scheduler.
+     */
+    private Scheduler nextLoopScheduler() {
+        int index = (nextLoop.getAndIncrement() & Integer.MAX_VALUE) % loopSchedulers.length;
+        return loopSchedulers[index];
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import de.felixklauke.caroline.core.metrics.SchedulerMetrics;
+import de.felixklauke.caroline.core.metrics.SlowTaskProfiler;
+import io.reactivex.disposables.Disposable;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A task that records its latency, its execution and its cancellation into scheduler metrics.
+ * <p>
+ * If the task belongs to a task list it unlinks itself once it ran or got disposed, so workers don't hold on to
+ * finished tasks. Periodic tasks stay linked until they are disposed. Server thread tasks are handed to the
+ * {@link SlowTaskProfiler} while profiling.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+final class MeteredTask implements Runnable, Disposable {
+
+    /**
+     * The state of a task that may still run.
+     */
+    private static final int WAITING = 0;
+
+    /**
+     * The state of a one shot task that ran.
+     */
+    private static final int DONE = 1;
+
+    /**
+     * The state of a disposed task.
+     */
+    private static final int CANCELLED = 2;
+
+    /**
+     * The updater of the state, so tasks don't need an atomic per instance.
+     */
+    private static final AtomicIntegerFieldUpdater<MeteredTask> STATE = AtomicIntegerFieldUpdater.newUpdater(MeteredTask.class, "state");
+
+    /**
+     * The metrics to record into.
+     */
+    private final SchedulerMetrics metrics;
+
+    /**
+     * The runnable.
+     */
+    private final Runnable runnable;
+
+    /**
+     * The period in nanoseconds, zero or less for one shot tasks.
+     */
+    private final long periodNanos;
+
+    /**
+     * The list tracking the task, null if it isn't tracked.
+     */
+    private final TaskList taskList;
+
+    /**
+     * The assembly site of the subscription the task belongs to, null if it wasn't sampled.
+     */
+    private final Throwable assemblySite;
+
+    /**
+     * The previous task in the task list, guarded by the task list.
+     */
+    MeteredTask previous;
+
+    /**
+     * The next task in the task list, guarded by the task list.
+     */
+    MeteredTask next;
+
+    /**
+     * The moment the next run is due, only touched by the executing thread after construction.
+     */
+    private long dueNanos;
+
+    /**
+     * The state of the task.
+     */
+    private volatile int state;
+
+    /**
+     * The disposable of the scheduled task.
+     */
+    private volatile Disposable upstream;
+
+    /**
+     * Create a new metered task and record it as scheduled.
+     *
+     * @param metrics     The metrics to record into.
+     * @param runnable    The runnable.
+     * @param delayNanos  The delay in nanoseconds.
+     * @param periodNanos The period in nanoseconds, zero or less for one shot tasks.
+     */
+    MeteredTask(SchedulerMetrics metrics, Runnable runnable, long delayNanos, long periodNanos) {
+        this(metrics, runnable, delayNanos, periodNanos, null, null);
+    }
+
+    /**
+     * Create a new metered task tracked by a task list and record it as scheduled.
+     * <p>
+     * The task has to be added to the task list by the caller.
+     *
+     * @param metrics      The metrics to record into.
+     * @param runnable     The runnable.
+     * @param delayNanos   The delay in nanoseconds.
+     * @param periodNanos  The period in nanoseconds, zero or less for one shot tasks.
+     * @param taskList     The list tracking the task, null if it isn't tracked.
+     * @param assemblySite The assembly site of the subscription the task belongs to, null if it wasn't sampled.
+     */
+    MeteredTask(SchedulerMetrics metrics, Runnable runnable, long delayNanos, long periodNanos, TaskList taskList, Throwable assemblySite) {
+        this.metrics = metrics;
+        this.runnable = runnable;
+        this.periodNanos = periodNanos;
+        this.taskList = taskList;
+        this.assemblySite = assemblySite;
+        this.dueNanos = System.nanoTime() + Math.max(delayNanos, 0L);
+
+        metrics.onScheduled();
+    }
+
+    /**
+     * Set the disposable of the scheduled task, disposing it right away if the task got disposed meanwhile.
+     *
+     * @param upstream The disposable of the scheduled task.
+     * @return This task.
+     */
+    MeteredTask setUpstream(Disposable upstream) {
+        this.upstream = upstream;
+
+        if (state == CANCELLED) {
+            upstream.dispose();
+        }
+
+        return this;
+    }
+
+    @Override
+    public void run() {
+        if (periodNanos > 0 ? state != WAITING : !STATE.compareAndSet(this, WAITING, DONE)) {
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        long latencyNanos = startNanos - dueNanos;
+        dueNanos = startNanos + periodNanos;
+
+        SlowTaskProfiler profiler = metrics.isMainThread() ? SlowTaskProfiler.getActive() : null;
+        long mark = profiler != null ? profiler.mark() : 0L;
+
+        try {
+            runnable.run();
+        } finally {
+            long durationNanos = System.nanoTime() - startNanos;
+            metrics.onExecuted(latencyNanos, durationNanos);
+
+            if (profiler != null && profiler.isMainThread()) {
+                profiler.onTaskExecuted(metrics.getName(), runnable, assemblySite, durationNanos, mark);
+            }
+
+            if (periodNanos <= 0 && taskList != null) {
+                taskList.remove(this);
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (STATE.compareAndSet(this, WAITING, CANCELLED)) {
+            metrics.onCancelled();
+
+            if (taskList != null) {
+                taskList.remove(this);
+            }
+        }
+
+        Disposable current = upstream;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return state != WAITING;
+    }
+}
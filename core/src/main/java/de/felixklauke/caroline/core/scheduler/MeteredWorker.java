@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import de.felixklauke.caroline.core.metrics.SchedulerMetrics;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A worker that wraps all tasks of another worker into metered tasks.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+final class MeteredWorker extends Scheduler.Worker {
+
+    /**
+     * The worker that schedules the tasks.
+     */
+    private final Scheduler.Worker delegate;
+
+    /**
+     * The metrics to record into.
+     */
+    private final SchedulerMetrics metrics;
+
+    /**
+     * Create a new metered worker.
+     *
+     * @param delegate The worker that schedules the tasks.
+     * @param metrics  The metrics to record into.
+     */
+    MeteredWorker(Scheduler.Worker delegate, SchedulerMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Disposable schedule(Runnable runnable) {
+        MeteredTask task = new MeteredTask(metrics, runnable, 0L, 0L);
+        return task.setUpstream(delegate.schedule(task));
+    }
+
+    @Override
+    public Disposable schedule(Runnable runnable, long delay, TimeUnit unit) {
+        MeteredTask task = new MeteredTask(metrics, runnable, unit.toNanos(delay), 0L);
+        return task.setUpstream(delegate.schedule(task, delay, unit));
+    }
+
+    @Override
+    public Disposable schedulePeriodically(Runnable runnable, long initialDelay, long period, TimeUnit unit) {
+        MeteredTask task = new MeteredTask(metrics, runnable, unit.toNanos(initialDelay), Math.max(unit.toNanos(period), 1L));
+        return task.setUpstream(delegate.schedulePeriodically(task, initialDelay, period, unit));
+    }
+
+    @Override
+    public void dispose() {
+        delegate.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return delegate.isDisposed();
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import de.felixklauke.caroline.core.config.CarolineConfig;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import javax.inject.Inject;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Creates the {@link PluginSchedulers} of every plugin that asks for them and drops them once it is disabled.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class PluginSchedulerRegistry {
+
+    /**
+     * The schedulers by the name of their plugin.
+     */
+    private final ConcurrentMap<String, PluginSchedulers> schedulers = new ConcurrentHashMap<>();
+
+    /**
+     * The main thread time of the schedulers that were already removed.
+     */
+    private final LongAdder retiredMainThreadNanos = new LongAdder();
+
+    /**
+     * The underlying bukkit scheduler.
+     */
+    private final BukkitScheduler bukkitScheduler;
+
+    /**
+     * The clock measuring the tick durations.
+     */
+    private final TickClock tickClock;
+
+    /**
+     * The config of caroline.
+     */
+    private final CarolineConfig config;
+
+    /**
+     * Create a new plugin scheduler registry.
+     *
+     * @param bukkitScheduler The underlying bukkit scheduler.
+     * @param tickClock       The clock measuring the tick durations for shedding deferrable tasks.
+     * @param config          The config of caroline.
+     */
+    @Inject
+    public PluginSchedulerRegistry(BukkitScheduler bukkitScheduler, TickClock tickClock, CarolineConfig config) {
+        this.bukkitScheduler = bukkitScheduler;
+        this.tickClock = tickClock;
+        this.config = config;
+    }
+
+    /**
+     * Get the schedulers of the given plugin and create them if they don't exist yet.
+     *
+     * @param plugin The plugin.
+     * @return The schedulers.
+     */
+    public PluginSchedulers get(Plugin plugin) {
+        if (!plugin.isEnabled()) {
+            throw new IllegalStateException("Plugin " + plugin.getName() + " is not enabled.");
+        }
+
+        PluginSchedulers pluginSchedulers = schedulers.get(plugin.getName());
+
+        if (pluginSchedulers != null) {
+            return pluginSchedulers;
+        }
+
+        return schedulers.computeIfAbsent(plugin.getName(), name -> {
+            PluginSchedulers created = create(plugin);
+            created.start();
+            return created;
+        });
+    }
+
+    /**
+     * Stop and remove the schedulers of the given plugin.
+     *
+     * @param plugin The plugin.
+     */
+    public void remove(Plugin plugin) {
+        PluginSchedulers pluginSchedulers = schedulers.remove(plugin.getName());
+
+        if (pluginSchedulers != null) {
+            pluginSchedulers.shutdown();
+            retiredMainThreadNanos.add(pluginSchedulers.getMainThreadNanos());
+        }
+    }
+
+    /**
+     * Get the schedulers of all plugins.
+     *
+     * @return The schedulers.
+     */
+    public Collection<PluginSchedulers> getSchedulers() {
+        return Collections.unmodifiableCollection(schedulers.values());
+    }
+
+    /**
+     * Get the main thread time the schedulers of all plugins used so far, including the ones that were removed.
+     *
+     * @return The main thread time in nanoseconds.
+     */
+    public long getMainThreadNanos() {
+        long mainThreadNanos = retiredMainThreadNanos.sum();
+
+        for (PluginSchedulers pluginSchedulers : schedulers.values()) {
+            mainThreadNanos += pluginSchedulers.getMainThreadNanos();
+        }
+
+        return mainThreadNanos;
+    }
+
+    /**
+     * Stop and remove the schedulers of all plugins.
+     */
+    public void shutdown() {
+        for (PluginSchedulers pluginSchedulers : schedulers.values()) {
+            remove(pluginSchedulers.getPlugin());
+        }
+    }
+
+    /**
+     * Create the schedulers of the given plugin.
+     *
+     * @param plugin The plugin.
+     * @return The schedulers.
+     */
+    private PluginSchedulers create(Plugin plugin) {
+        String name = plugin.getName().toLowerCase(Locale.ROOT);
+        long tickQuotaNanos = config.getPluginTickQuotaNanos(plugin.getName());
+
+        TickTrampoline trampoline = new TickTrampoline(plugin, bukkitScheduler, tickClock, tickQuotaNanos,
+                config.getSheddingThresholdNanos(), config.getMaxDeferralTicks());
+        // Inline tasks run before the trampoline could account for them, so a quota rules them out.
+        int maxInlineDepth = tickQuotaNanos > 0 ? 0 : config.getMaxInlineDepth();
+        SynchronousScheduler syncScheduler = new SynchronousScheduler(plugin, bukkitScheduler, trampoline, config.getSyncTimerMode(), maxInlineDepth, name + "-sync");
+        AsynchronousScheduler asyncScheduler = new AsynchronousScheduler(plugin, bukkitScheduler, config.getAsyncTimerMode(), name + "-async");
+
+        return new PluginSchedulers(plugin, syncScheduler, asyncScheduler, tickQuotaNanos);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import de.felixklauke.caroline.core.metrics.SchedulerMetrics;
+import io.reactivex.Scheduler;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * The schedulers of a single plugin.
+ * <p>
+ * Their bukkit tasks are owned by the plugin, so bukkit attributes them to it and cancels them when it gets disabled.
+ * Main thread tasks are queued in a trampoline of their own that may only use the tick quota of the plugin, everything
+ * above rolls over to the next tick instead of delaying the tasks of other plugins. Delayed and periodic tasks are
+ * queued once they are due, and with a quota no task is executed inline.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class PluginSchedulers {
+
+    /**
+     * The plugin owning the schedulers.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The main thread time the plugin may use per tick in nanoseconds, zero for no limit.
+     */
+    private final long tickQuotaNanos;
+
+    /**
+     * The scheduler running tasks on the server thread.
+     */
+    private final SynchronousScheduler syncScheduler;
+
+    /**
+     * The scheduler running tasks on bukkits async pool.
+     */
+    private final AsynchronousScheduler asyncScheduler;
+
+    /**
+     * Create the schedulers of a plugin.
+     *
+     * @param plugin         The plugin owning the schedulers.
+     * @param syncScheduler  The scheduler running tasks on the server thread.
+     * @param asyncScheduler The scheduler running tasks on bukkits async pool.
+     * @param tickQuotaNanos The main thread time the plugin may use per tick in nanoseconds, zero for no limit.
+     */
+    public PluginSchedulers(Plugin plugin, SynchronousScheduler syncScheduler, AsynchronousScheduler asyncScheduler, long tickQuotaNanos) {
+        this.plugin = plugin;
+        this.syncScheduler = syncScheduler;
+        this.asyncScheduler = asyncScheduler;
+        this.tickQuotaNanos = tickQuotaNanos;
+    }
+
+    /**
+     * Start the schedulers.
+     */
+    public void start() {
+        syncScheduler.start();
+        asyncScheduler.start();
+    }
+
+    /**
+     * Stop the schedulers and drop all queued tasks.
+     */
+    public void shutdown() {
+        syncScheduler.shutdown();
+        asyncScheduler.shutdown();
+    }
+
+    /**
+     * Get the plugin owning the schedulers.
+     *
+     * @return The plugin.
+     */
+    public Plugin getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Get the main thread time the plugin may use per tick.
+     *
+     * @return The quota in nanoseconds, zero for no limit.
+     */
+    public long getTickQuotaNanos() {
+        return tickQuotaNanos;
+    }
+
+    /**
+     * Get the scheduler that runs the tasks of the plugin on the server thread.
+     *
+     * @return The main thread scheduler.
+     */
+    public Scheduler mainThread() {
+        return syncScheduler;
+    }
+
+    /**
+     * Get the scheduler that runs the tasks of the plugin on the server thread with the given priority.
+     * <p>
+     * Critical tasks ignore the tick quota.
+     *
+     * @param priority The priority of the tasks.
+     * @return The main thread scheduler.
+     */
+    public Scheduler mainThread(TaskPriority priority) {
+        return syncScheduler.withPriority(priority);
+    }
+
+    /**
+     * Get the scheduler that runs the tasks of the plugin on bukkits async pool.
+     *
+     * @return The asynchronous scheduler.
+     */
+    public Scheduler async() {
+        return asyncScheduler;
+    }
+
+    /**
+     * Get the main thread time the tasks of the plugin used so far.
+     *
+     * @return The main thread time in nanoseconds.
+     */
+    public long getMainThreadNanos() {
+        return syncScheduler.getMetrics().getMainThreadNanos();
+    }
+
+    /**
+     * Get the amount of ticks in which the quota held back tasks of the plugin.
+     *
+     * @return The amount of throttled ticks.
+     */
+    public long getThrottledTicks() {
+        return syncScheduler.getThrottledTicks();
+    }
+
+    /**
+     * Get the metrics of the synchronous scheduler.
+     *
+     * @return The metrics.
+     */
+    public SchedulerMetrics getSyncMetrics() {
+        return syncScheduler.getMetrics();
+    }
+}
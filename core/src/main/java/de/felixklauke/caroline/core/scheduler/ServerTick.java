@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+/**
+ * A server tick as emitted by the {@link TickClock}.
+ * <p>
+ * The clock reuses a single instance and updates it on the server thread before every emission, so read what you
+ * need while handling the tick and map it to values of your own before switching threads.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class ServerTick {
+
+    /**
+     * The number of the tick, counted from the start of the clock.
+     */
+    private long tick;
+
+    /**
+     * The nano time the tick started at.
+     */
+    private long startNanos;
+
+    /**
+     * The nanoseconds since the start of the previous tick.
+     */
+    private long intervalNanos;
+
+    /**
+     * The average milliseconds per tick over the rolling window.
+     */
+    private double mspt;
+
+    /**
+     * The average ticks per second over the rolling window.
+     */
+    private double tps;
+
+    /**
+     * Update the tick before it is emitted.
+     *
+     * @param tick          The number of the tick.
+     * @param startNanos    The nano time the tick started at.
+     * @param intervalNanos The nanoseconds since the start of the previous tick.
+     * @param mspt          The average milliseconds per tick.
+     * @param tps           The average ticks per second.
+     */
+    void update(long tick, long startNanos, long intervalNanos, double mspt, double tps) {
+        this.tick = tick;
+        this.startNanos = startNanos;
+        this.intervalNanos = intervalNanos;
+        this.mspt = mspt;
+        this.tps = tps;
+    }
+
+    /**
+     * Get the number of the tick, counted from the start of the clock.
+     *
+     * @return The tick number.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Get the nano time the tick started at.
+     *
+     * @return The start in nanoseconds.
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Get the nanoseconds since the start of the previous tick.
+     *
+     * @return The interval in nanoseconds, zero for the first tick.
+     */
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    /**
+     * Get the average milliseconds the server needed per tick over the rolling window.
+     * <p>
+     * This is the time spent ticking as reported by paper's tick end event or kept by the vanilla server. Comparisons
+     * with {@code NaN} are always false, so write conditions that should hold on servers without tick times in the
+     * negated form, like {@code !(tick.getMspt() > 40D)}.
+     *
+     * @return The milliseconds per tick, {@code NaN} if the server doesn't report its tick durations.
+     */
+    public double getMspt() {
+        return mspt;
+    }
+
+    /**
+     * Get the average ticks per second over the rolling window.
+     *
+     * @return The ticks per second, at most 20.
+     */
+    public double getTps() {
+        return tps;
+    }
+
+    @Override
+    public String toString() {
+        return "ServerTick{tick=" + tick + ", mspt=" + mspt + ", tps=" + tps + "}";
+    }
+}
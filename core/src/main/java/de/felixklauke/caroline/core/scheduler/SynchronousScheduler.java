@@ -24,11 +24,23 @@
 
 package de.felixklauke.caroline.core.scheduler;
 
+import de.felixklauke.caroline.core.metrics.SchedulerMetrics;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitScheduler;
 import org.bukkit.scheduler.BukkitTask;
 
 import javax.inject.Inject;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The scheduler implementation that will schedule synchronous tasks.
@@ -37,6 +49,36 @@ import javax.inject.Inject;
  */
 public class SynchronousScheduler extends AbstractScheduler {
 
+    /**
+     * The amount of nested inline executions on the server thread, only touched by the server thread.
+     */
+    private static int inlineDepth;
+
+    /**
+     * The trampoline that drains immediate tasks, null if every task gets its own bukkit task.
+     */
+    private final TickTrampoline trampoline;
+
+    /**
+     * The timer of delayed and periodic tasks, null if every such task gets its own bukkit task.
+     */
+    private final TickTimer tickTimer;
+
+    /**
+     * The priority of all tasks scheduled by this scheduler.
+     */
+    private final TaskPriority priority;
+
+    /**
+     * The schedulers sharing the trampoline by their priority.
+     */
+    private final Map<TaskPriority, SynchronousScheduler> priorityViews;
+
+    /**
+     * The maximum amount of nested inline executions, zero to never execute inline.
+     */
+    private final int maxInlineDepth;
+
     /**
      * Create a new synchronous scheduler.
      *
@@ -45,7 +87,208 @@ public class SynchronousScheduler extends AbstractScheduler {
      */
     @Inject
     public SynchronousScheduler(Plugin plugin, BukkitScheduler bukkitScheduler) {
-        super(plugin, bukkitScheduler);
+        this(plugin, bukkitScheduler, SyncSchedulerMode.TASK);
+    }
+
+    /**
+     * Create a new synchronous scheduler.
+     *
+     * @param plugin          The bukkit plugin we schedule tasks for.
+     * @param bukkitScheduler The underlying bukkit scheduler.
+     * @param mode            The way tasks are handed to the server thread.
+     */
+    public SynchronousScheduler(Plugin plugin, BukkitScheduler bukkitScheduler, SyncSchedulerMode mode) {
+        this(plugin, bukkitScheduler, mode == SyncSchedulerMode.TRAMPOLINE ? new TickTrampoline(plugin, bukkitScheduler) : null);
+    }
+
+    /**
+     * Create a new synchronous scheduler.
+     *
+     * @param plugin          The bukkit plugin we schedule tasks for.
+     * @param bukkitScheduler The underlying bukkit scheduler.
+     * @param trampoline      The trampoline that drains immediate tasks, null to use a bukkit task per task.
+     */
+    public SynchronousScheduler(Plugin plugin, BukkitScheduler bukkitScheduler, TickTrampoline trampoline) {
+        this(plugin, bukkitScheduler, trampoline, 0);
+    }
+
+    /**
+     * Create a new synchronous scheduler.
+     * <p>
+     * With a positive inline depth immediate tasks scheduled on the server thread are executed right away instead of
+     * waiting for the next tick, as long as their worker has nothing queued and isn't running a task already.
+     *
+     * @param plugin          The bukkit plugin we schedule tasks for.
+     * @param bukkitScheduler The underlying bukkit scheduler.
+     * @param trampoline      The trampoline that drains immediate tasks, null to use a bukkit task per task.
+     * @param maxInlineDepth  The maximum amount of nested inline executions, zero to never execute inline.
+     */
+    public SynchronousScheduler(Plugin plugin, BukkitScheduler bukkitScheduler, TickTrampoline trampoline, int maxInlineDepth) {
+        this(plugin, bukkitScheduler, trampoline, maxInlineDepth, "caroline-sync");
+    }
+
+    /**
+     * Create a new synchronous scheduler with the given metrics name.
+     *
+     * @param plugin          The bukkit plugin we schedule tasks for.
+     * @param bukkitScheduler The underlying bukkit scheduler.
+     * @param trampoline      The trampoline that drains immediate tasks, null to use a bukkit task per task.
+     * @param maxInlineDepth  The maximum amount of nested inline executions, zero to never execute inline.
+     * @param name            The name of the scheduler in the metrics.
+     */
+    public SynchronousScheduler(Plugin plugin, BukkitScheduler bukkitScheduler, TickTrampoline trampoline, int maxInlineDepth, String name) {
+        this(plugin, bukkitScheduler, trampoline, SyncTimerMode.TASKS, maxInlineDepth, name);
+    }
+
+    /**
+     * Create a new synchronous scheduler with the given metrics name.
+     * <p>
+     * With a trampoline the delayed and periodic tasks are queued in it once they are due, so they share its tick
+     * budget and priorities with the immediate tasks. The wheel timer is advanced by the trampoline then and queues
+     * them for the drain of the same tick, with a bukkit task per task they may wait for the drain of the next tick.
+     *
+     * @param plugin          The bukkit plugin we schedule tasks for.
+     * @param bukkitScheduler The underlying bukkit scheduler.
+     * @param trampoline      The trampoline that drains immediate tasks, null to use a bukkit task per task.
+     * @param timerMode       The way delayed and periodic tasks are timed.
+     * @param maxInlineDepth  The maximum amount of nested inline executions, zero to never execute inline.
+     * @param name            The name of the scheduler in the metrics.
+     */
+    public SynchronousScheduler(Plugin plugin, BukkitScheduler bukkitScheduler, TickTrampoline trampoline, SyncTimerMode timerMode, int maxInlineDepth, String name) {
+        this(plugin, bukkitScheduler, trampoline, timerMode == SyncTimerMode.WHEEL ? createTickTimer(plugin, bukkitScheduler, trampoline) : null, maxInlineDepth, TaskPriority.NORMAL, new EnumMap<>(TaskPriority.class), new SchedulerMetrics(name, true));
+
+        if (trampoline == null) {
+            return;
+        }
+
+        for (TaskPriority taskPriority : TaskPriority.values()) {
+            SynchronousScheduler view = taskPriority == priority ? this : new SynchronousScheduler(plugin, bukkitScheduler, trampoline, tickTimer, maxInlineDepth, taskPriority, priorityViews, getMetrics());
+            priorityViews.put(taskPriority, view);
+        }
+    }
+
+    /**
+     * Create a new synchronous scheduler that shares its trampoline and timer with other priorities.
+     *
+     * @param plugin          The bukkit plugin we schedule tasks for.
+     * @param bukkitScheduler The underlying bukkit scheduler.
+     * @param trampoline      The trampoline that drains immediate tasks.
+     * @param tickTimer       The timer of delayed and periodic tasks, null to use a bukkit task per task.
+     * @param maxInlineDepth  The maximum amount of nested inline executions, zero to never execute inline.
+     * @param priority        The priority of all tasks scheduled by this scheduler.
+     * @param priorityViews   The schedulers sharing the trampoline by their priority.
+     * @param metrics         The metrics shared by all priorities.
+     */
+    private SynchronousScheduler(Plugin plugin, BukkitScheduler bukkitScheduler, TickTrampoline trampoline, TickTimer tickTimer, int maxInlineDepth, TaskPriority priority, Map<TaskPriority, SynchronousScheduler> priorityViews, SchedulerMetrics metrics) {
+        super(plugin, bukkitScheduler, metrics);
+        this.trampoline = trampoline;
+        this.tickTimer = tickTimer;
+        this.maxInlineDepth = priority == TaskPriority.DEFERRABLE ? 0 : maxInlineDepth;
+        this.priority = priority;
+        this.priorityViews = priorityViews;
+    }
+
+    /**
+     * Create the wheel timer of a scheduler.
+     *
+     * @param plugin          The bukkit plugin we schedule tasks for.
+     * @param bukkitScheduler The underlying bukkit scheduler.
+     * @param trampoline      The trampoline that drains immediate tasks, null if every task gets its own bukkit task.
+     * @return The timer advanced by the trampoline, or one with a tick task of its own if there is no trampoline.
+     */
+    private static TickTimer createTickTimer(Plugin plugin, BukkitScheduler bukkitScheduler, TickTrampoline trampoline) {
+        return trampoline != null ? trampoline.getTickTimer() : new TickTimer(plugin, bukkitScheduler);
+    }
+
+    @Override
+    public Worker createWorker() {
+        Worker worker = super.createWorker();
+        return maxInlineDepth > 0 ? new InlineWorker(worker) : worker;
+    }
+
+    /**
+     * Get a scheduler that queues its immediate tasks with the given priority.
+     * <p>
+     * Priorities only have an effect in trampoline mode, otherwise this scheduler is returned.
+     *
+     * @param priority The priority.
+     * @return The scheduler.
+     */
+    public Scheduler withPriority(TaskPriority priority) {
+        return priorityViews.getOrDefault(priority, this);
+    }
+
+    /**
+     * Get the amount of tasks queued in the trampoline with the given priority.
+     *
+     * @param priority The priority.
+     * @return The amount of queued tasks, zero if every task gets its own bukkit task.
+     */
+    public int getQueuedTasks(TaskPriority priority) {
+        return trampoline == null ? 0 : trampoline.getQueuedTasks(priority);
+    }
+
+    /**
+     * Get the amount of ticks in which the tick budget held back tasks, always zero in task mode.
+     *
+     * @return The amount of throttled ticks.
+     */
+    public long getThrottledTicks() {
+        return trampoline == null ? 0L : trampoline.getThrottledTicks();
+    }
+
+    @Override
+    public void start() {
+        if (trampoline != null) {
+            trampoline.start();
+        }
+
+        if (tickTimer != null) {
+            tickTimer.start();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (trampoline != null) {
+            trampoline.shutdown();
+        }
+
+        if (tickTimer != null) {
+            tickTimer.shutdown();
+        }
+    }
+
+    @Override
+    protected Disposable scheduleTask(Runnable runnable) {
+        if (trampoline == null) {
+            return super.scheduleTask(runnable);
+        }
+
+        return trampoline.offer(runnable, priority);
+    }
+
+    @Override
+    protected Disposable scheduleTask(Runnable runnable, long delay, TimeUnit unit) {
+        Runnable task = trampoline != null ? new DueTask(runnable) : runnable;
+
+        if (tickTimer == null) {
+            return super.scheduleTask(task, delay, unit);
+        }
+
+        return tickTimer.schedule(task, convertTimeToTicks(delay, unit));
+    }
+
+    @Override
+    protected Disposable scheduleTask(Runnable runnable, long initialDelay, long period, TimeUnit unit) {
+        Runnable task = trampoline != null ? new DueTask(runnable) : runnable;
+
+        if (tickTimer == null) {
+            return super.scheduleTask(task, initialDelay, period, unit);
+        }
+
+        // A period shorter than half a tick rounds to zero, which the timer would treat as a one shot task.
+        return tickTimer.schedule(task, convertTimeToTicks(initialDelay, unit), Math.max(1, convertTimeToTicks(period, unit)));
     }
 
     @Override
@@ -60,6 +303,205 @@ public class SynchronousScheduler extends AbstractScheduler {
 
     @Override
     protected BukkitTask schedule(Runnable runnable, int delay, int interval) {
-        return getBukkitScheduler().runTaskTimerAsynchronously(getPlugin(), runnable, delay, interval);
+        return getBukkitScheduler().runTaskTimer(getPlugin(), runnable, delay, interval);
+    }
+
+    /**
+     * A delayed or periodic task that is queued in the trampoline once it is due.
+     * <p>
+     * It is queued at most once at a time, a periodic task the tick budget holds back skips its next periods instead
+     * of piling up in the trampoline. Tasks disposed after they were queued are skipped by the metered task itself.
+     */
+    private final class DueTask implements Runnable {
+
+        /**
+         * If the task is queued in the trampoline.
+         */
+        private final AtomicBoolean queued = new AtomicBoolean();
+
+        /**
+         * The task.
+         */
+        private final Runnable runnable;
+
+        /**
+         * Create a new due task.
+         *
+         * @param runnable The task.
+         */
+        DueTask(Runnable runnable) {
+            this.runnable = runnable;
+        }
+
+        @Override
+        public void run() {
+            if (!queued.compareAndSet(false, true)) {
+                return;
+            }
+
+            trampoline.offer(() -> {
+                queued.set(false);
+                runnable.run();
+            }, priority);
+        }
+    }
+
+    /**
+     * A worker that executes immediate tasks inline when it is safe to do so and queues them otherwise.
+     */
+    private final class InlineWorker extends Worker {
+
+        /**
+         * The worker that queues the tasks.
+         */
+        private final Worker delegate;
+
+        /**
+         * The amount of queued immediate tasks that are neither executed nor disposed.
+         */
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        /**
+         * If a task of this worker is running right now, only touched by the server thread.
+         */
+        private boolean running;
+
+        /**
+         * Create a new inline worker.
+         *
+         * @param delegate The worker that queues the tasks.
+         */
+        InlineWorker(Worker delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Disposable schedule(Runnable runnable) {
+            if (delegate.isDisposed()) {
+                return Disposables.disposed();
+            }
+
+            // Only run inline if it can't overtake queued tasks or nest into a running task of this worker.
+            if (Bukkit.isPrimaryThread() && !running && inlineDepth < maxInlineDepth && outstanding.get() == 0) {
+                SchedulerMetrics metrics = getMetrics();
+                metrics.onScheduled();
+
+                long startNanos = System.nanoTime();
+                inlineDepth++;
+
+                try {
+                    runGuarded(runnable);
+                } finally {
+                    inlineDepth--;
+                    metrics.onExecuted(0L, System.nanoTime() - startNanos);
+                }
+
+                return Disposables.disposed();
+            }
+
+            QueuedTask queuedTask = new QueuedTask(runnable);
+            outstanding.incrementAndGet();
+            queuedTask.upstream = delegate.schedule(queuedTask);
+            return queuedTask;
+        }
+
+        @Override
+        public Disposable schedule(Runnable runnable, long delay, TimeUnit unit) {
+            return delegate.schedule(() -> runGuarded(runnable), delay, unit);
+        }
+
+        @Override
+        public Disposable schedulePeriodically(Runnable runnable, long initialDelay, long period, TimeUnit unit) {
+            return delegate.schedulePeriodically(() -> runGuarded(runnable), initialDelay, period, unit);
+        }
+
+        @Override
+        public void dispose() {
+            delegate.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return delegate.isDisposed();
+        }
+
+        /**
+         * Run a task of this worker and mark the worker as running meanwhile.
+         *
+         * @param runnable The task.
+         */
+        private void runGuarded(Runnable runnable) {
+            boolean wasRunning = running;
+            running = true;
+
+            try {
+                runnable.run();
+            } catch (Throwable throwable) {
+                Exceptions.throwIfFatal(throwable);
+                RxJavaPlugins.onError(throwable);
+            } finally {
+                running = wasRunning;
+            }
+        }
+
+        /**
+         * A queued immediate task that leaves the outstanding count when it is executed or disposed.
+         */
+        private final class QueuedTask implements Runnable, Disposable {
+
+            /**
+             * If the task was executed or disposed.
+             */
+            private final AtomicBoolean done = new AtomicBoolean();
+
+            /**
+             * The runnable.
+             */
+            private final Runnable runnable;
+
+            /**
+             * The disposable of the queued task.
+             */
+            private volatile Disposable upstream;
+
+            /**
+             * Create a new queued task.
+             *
+             * @param runnable The runnable.
+             */
+            QueuedTask(Runnable runnable) {
+                this.runnable = runnable;
+            }
+
+            @Override
+            public void run() {
+                if (!done.compareAndSet(false, true)) {
+                    return;
+                }
+
+                try {
+                    runGuarded(runnable);
+                } finally {
+                    outstanding.decrementAndGet();
+                }
+            }
+
+            @Override
+            public void dispose() {
+                if (done.compareAndSet(false, true)) {
+                    outstanding.decrementAndGet();
+                }
+
+                Disposable current = upstream;
+                if (current != null) {
+                    current.dispose();
+                }
+            }
+
+            @Override
+            public boolean isDisposed() {
+                return done.get();
+            }
+        }
     }
 }
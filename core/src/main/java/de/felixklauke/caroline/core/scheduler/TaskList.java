@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+/**
+ * An intrusive doubly linked list of the tasks of a single worker.
+ * <p>
+ * The links live in the tasks themselves, so tracking a task never allocates and a finished task unlinks itself in
+ * constant time. Disposing the list disposes all tasks that are still linked and rejects all further tasks.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+final class TaskList {
+
+    /**
+     * The first linked task, guarded by this list.
+     */
+    private MeteredTask head;
+
+    /**
+     * The amount of linked tasks, guarded by this list.
+     */
+    private int size;
+
+    /**
+     * If the list is disposed.
+     */
+    private volatile boolean disposed;
+
+    /**
+     * Link a task.
+     *
+     * @param task The task.
+     * @return If the task was linked, false if the list is disposed.
+     */
+    boolean add(MeteredTask task) {
+        if (disposed) {
+            return false;
+        }
+
+        synchronized (this) {
+            if (disposed) {
+                return false;
+            }
+
+            task.next = head;
+            if (head != null) {
+                head.previous = task;
+            }
+
+            head = task;
+            size++;
+            return true;
+        }
+    }
+
+    /**
+     * Unlink a task, does nothing if it isn't linked anymore.
+     *
+     * @param task The task.
+     */
+    void remove(MeteredTask task) {
+        if (disposed) {
+            return;
+        }
+
+        synchronized (this) {
+            if (disposed || (task.previous == null && head != task)) {
+                return;
+            }
+
+            if (task.previous != null) {
+                task.previous.next = task.next;
+            } else {
+                head = task.next;
+            }
+
+            if (task.next != null) {
+                task.next.previous = task.previous;
+            }
+
+            task.previous = null;
+            task.next = null;
+            size--;
+        }
+    }
+
+    /**
+     * Dispose all linked tasks and reject all further tasks.
+     */
+    void dispose() {
+        MeteredTask task;
+
+        synchronized (this) {
+            if (disposed) {
+                return;
+            }
+
+            disposed = true;
+            task = head;
+            head = null;
+            size = 0;
+        }
+
+        // The chain is detached now, tasks finishing concurrently won't touch the links of a disposed list.
+        while (task != null) {
+            MeteredTask next = task.next;
+            task.previous = null;
+            task.next = null;
+            task.dispose();
+            task = next;
+        }
+    }
+
+    /**
+     * Check if the list is disposed.
+     *
+     * @return If the list is disposed.
+     */
+    boolean isDisposed() {
+        return disposed;
+    }
+
+    /**
+     * Get the amount of linked tasks.
+     *
+     * @return The amount of tasks.
+     */
+    synchronized int size() {
+        return size;
+    }
+}
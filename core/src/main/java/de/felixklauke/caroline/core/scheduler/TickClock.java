@@ -0,0 +1,351 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import de.felixklauke.caroline.core.emitter.EventDispatchHub;
+import de.felixklauke.caroline.core.emitter.EventDispatcher;
+import io.reactivex.Emitter;
+import io.reactivex.Observable;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import javax.inject.Inject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A shared clock that emits every server tick from a single repeating main thread task.
+ * <p>
+ * However many subscribers there are, they all cost the one task instead of a bukkit task each like an
+ * {@code interval()} would. Every emission is the same {@link ServerTick}, updated with the tick number, its start and
+ * the milliseconds per tick and ticks per second averaged over the last {@value #WINDOW_SIZE} ticks. The milliseconds
+ * per tick are the durations reported by paper's tick end event, or the tick times the vanilla server keeps itself if
+ * there is no such event. They are {@code NaN} if neither is available, the time between two ticks says nothing about
+ * how busy a server is that keeps up.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class TickClock implements Runnable, Emitter<Event> {
+
+    /**
+     * The amount of ticks the averages are taken over.
+     */
+    private static final int WINDOW_SIZE = 100;
+
+    /**
+     * The ticks per second of a server that keeps up.
+     */
+    private static final double MAX_TPS = 20D;
+
+    /**
+     * The name of the event paper calls at the end of every tick.
+     */
+    private static final String TICK_END_EVENT = "com.destroystokyo.paper.event.server.ServerTickEndEvent";
+
+    /**
+     * The bukkit plugin we schedule the clock task for.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The underlying bukkit scheduler.
+     */
+    private final BukkitScheduler bukkitScheduler;
+
+    /**
+     * The hub that holds all bukkit event registrations.
+     */
+    private final EventDispatchHub dispatchHub;
+
+    /**
+     * The subject all ticks are emitted to.
+     */
+    private final Subject<ServerTick> ticks = PublishSubject.create();
+
+    /**
+     * The tick updated before every emission.
+     */
+    private final ServerTick tick = new ServerTick();
+
+    /**
+     * The last intervals between two ticks in nanoseconds, a ring buffer.
+     */
+    private final long[] intervals = new long[WINDOW_SIZE];
+
+    /**
+     * The last tick durations in nanoseconds, a ring buffer.
+     */
+    private final long[] durations = new long[WINDOW_SIZE];
+
+    /**
+     * The sum of the intervals in the ring buffer.
+     */
+    private long intervalSum;
+
+    /**
+     * The sum of the durations in the ring buffer.
+     */
+    private long durationSum;
+
+    /**
+     * The amount of samples in the interval ring buffer, at most the window size.
+     */
+    private int samples;
+
+    /**
+     * The amount of durations reported since the clock started.
+     */
+    private long durationCount;
+
+    /**
+     * The number of the next tick.
+     */
+    private long nextTick;
+
+    /**
+     * The nano time the previous tick started at, zero before the first tick.
+     */
+    private long lastStartNanos;
+
+    /**
+     * The duration of the previous tick reported by the tick end event, negative if there was none.
+     */
+    private long lastTickDurationNanos = -1L;
+
+    /**
+     * The event class of the tick end event, null if the server doesn't have one.
+     */
+    private Class<? extends Event> tickEndEvent;
+
+    /**
+     * The getter of the tick duration in milliseconds of the tick end event.
+     */
+    private Method tickDurationGetter;
+
+    /**
+     * The tick times in nanoseconds the vanilla server keeps, null if the tick end event is used or they weren't found.
+     */
+    private long[] vanillaTickTimes;
+
+    /**
+     * The average milliseconds per tick as of the last tick, {@code NaN} if unknown.
+     */
+    private volatile double mspt = Double.NaN;
+
+    /**
+     * The repeating clock task, null if not started.
+     */
+    private BukkitTask clockTask;
+
+    /**
+     * Create a new tick clock.
+     *
+     * @param plugin          The bukkit plugin we schedule the clock task for.
+     * @param bukkitScheduler The underlying bukkit scheduler.
+     * @param dispatchHub     The hub that holds all bukkit event registrations.
+     */
+    @Inject
+    public TickClock(Plugin plugin, BukkitScheduler bukkitScheduler, EventDispatchHub dispatchHub) {
+        this.plugin = plugin;
+        this.bukkitScheduler = bukkitScheduler;
+        this.dispatchHub = dispatchHub;
+    }
+
+    /**
+     * Start the repeating clock task and listen to the tick end event if the server has one.
+     */
+    public synchronized void start() {
+        if (clockTask != null) {
+            return;
+        }
+
+        clockTask = bukkitScheduler.runTaskTimer(plugin, this, 0L, 1L);
+
+        try {
+            tickEndEvent = Class.forName(TICK_END_EVENT).asSubclass(Event.class);
+            tickDurationGetter = tickEndEvent.getMethod("getTickDuration");
+            getTickEndDispatcher().add(this);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            tickEndEvent = null;
+            tickDurationGetter = null;
+            vanillaTickTimes = findVanillaTickTimes();
+        }
+    }
+
+    /**
+     * Stop the repeating clock task, subscribers stay subscribed but get no more ticks.
+     */
+    public synchronized void shutdown() {
+        if (clockTask != null) {
+            clockTask.cancel();
+            clockTask = null;
+        }
+
+        if (tickEndEvent != null) {
+            getTickEndDispatcher().remove(this);
+            tickEndEvent = null;
+        }
+
+        vanillaTickTimes = null;
+        lastStartNanos = 0L;
+    }
+
+    /**
+     * Get the average milliseconds per tick as of the last tick.
+     *
+     * @return The milliseconds per tick, {@code NaN} if the server doesn't report its tick durations.
+     */
+    public double getMspt() {
+        return mspt;
+    }
+
+    /**
+     * Get the hot observable of all server ticks, emitted on the server thread.
+     *
+     * @return The ticks.
+     */
+    public Observable<ServerTick> getTicks() {
+        return ticks.hide();
+    }
+
+    @Override
+    public void run() {
+        long startNanos = System.nanoTime();
+        long intervalNanos = lastStartNanos != 0L ? startNanos - lastStartNanos : 0L;
+        lastStartNanos = startNanos;
+
+        if (intervalNanos > 0L) {
+            int index = (int) (nextTick % WINDOW_SIZE);
+
+            intervalSum += intervalNanos - intervals[index];
+            intervals[index] = intervalNanos;
+            samples = Math.min(samples + 1, WINDOW_SIZE);
+        }
+
+        if (lastTickDurationNanos >= 0L) {
+            int index = (int) (durationCount++ % WINDOW_SIZE);
+
+            durationSum += lastTickDurationNanos - durations[index];
+            durations[index] = lastTickDurationNanos;
+            lastTickDurationNanos = -1L;
+        }
+
+        double mspt = durationCount > 0L
+                ? durationSum / (double) Math.min(durationCount, WINDOW_SIZE) / TimeUnit.MILLISECONDS.toNanos(1)
+                : averageVanillaTickTime();
+        double tps = samples > 0 ? Math.min(MAX_TPS, samples * (double) TimeUnit.SECONDS.toNanos(1) / intervalSum) : MAX_TPS;
+
+        this.mspt = mspt;
+        tick.update(nextTick++, startNanos, intervalNanos, mspt, tps);
+        ticks.onNext(tick);
+    }
+
+    @Override
+    public void onNext(Event event) {
+        try {
+            double tickDurationMillis = ((Number) tickDurationGetter.invoke(event)).doubleValue();
+            lastTickDurationNanos = (long) (tickDurationMillis * TimeUnit.MILLISECONDS.toNanos(1));
+        } catch (ReflectiveOperationException e) {
+            RxJavaPlugins.onError(e);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        RxJavaPlugins.onError(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+    }
+
+    /**
+     * Average the tick times the vanilla server keeps.
+     *
+     * @return The average milliseconds per tick, {@code NaN} if there are no tick times.
+     */
+    private double averageVanillaTickTime() {
+        if (vanillaTickTimes == null) {
+            return Double.NaN;
+        }
+
+        long sum = 0L;
+        int count = 0;
+        for (long tickTime : vanillaTickTimes) {
+            if (tickTime > 0L) {
+                sum += tickTime;
+                count++;
+            }
+        }
+
+        return count > 0 ? sum / (double) count / TimeUnit.MILLISECONDS.toNanos(1) : Double.NaN;
+    }
+
+    /**
+     * Find the ring buffer of the last {@value #WINDOW_SIZE} tick times of the vanilla server behind the bukkit server.
+     *
+     * @return The tick times in nanoseconds, null if they can't be found.
+     */
+    private long[] findVanillaTickTimes() {
+        try {
+            Object server = plugin.getServer().getClass().getMethod("getServer").invoke(plugin.getServer());
+
+            for (Class<?> type = server.getClass(); type != null; type = type.getSuperclass()) {
+                for (Field field : type.getDeclaredFields()) {
+                    if (field.getType() != long[].class || Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+
+                    field.setAccessible(true);
+                    long[] tickTimes = (long[]) field.get(server);
+                    if (tickTimes != null && tickTimes.length == WINDOW_SIZE) {
+                        return tickTimes;
+                    }
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the dispatcher of the tick end event.
+     *
+     * @return The dispatcher.
+     */
+    private EventDispatcher getTickEndDispatcher() {
+        return dispatchHub.getDispatcher(tickEndEvent, EventPriority.MONITOR, false);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import io.reactivex.disposables.Disposable;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * A server tick timer driven by one repeating main thread task over a hierarchical {@link TimingWheel}.
+ * <p>
+ * Delayed and periodic main thread tasks don't need a bukkit task of their own this way, no matter how many of them
+ * are pending. Scheduling and cancelling only touch lock-free queues, the tick task moves the timeouts into and out of
+ * the wheel before it runs the expired ones right away on the server thread.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class TickTimer extends AbstractTimer implements Runnable {
+
+    /**
+     * The amount of wheel slots per level, the lowest level covers a bit more than three seconds.
+     */
+    private static final int SLOT_COUNT = 64;
+
+    /**
+     * The amount of wheel levels, enough to cover almost ten days without a second round.
+     */
+    private static final int LEVEL_COUNT = 4;
+
+    /**
+     * The bukkit plugin we schedule the tick task for.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The underlying bukkit scheduler.
+     */
+    private final BukkitScheduler bukkitScheduler;
+
+    /**
+     * The repeating tick task.
+     */
+    private BukkitTask tickTask;
+
+    /**
+     * Create a new tick timer.
+     *
+     * @param plugin          The bukkit plugin we schedule the tick task for.
+     * @param bukkitScheduler The underlying bukkit scheduler.
+     */
+    public TickTimer(Plugin plugin, BukkitScheduler bukkitScheduler) {
+        super(SLOT_COUNT, LEVEL_COUNT, Runnable::run);
+        this.plugin = plugin;
+        this.bukkitScheduler = bukkitScheduler;
+    }
+
+    /**
+     * Create a new tick timer without a tick task of its own, the owner has to call {@link #run()} every tick.
+     */
+    TickTimer() {
+        this(null, null);
+    }
+
+    /**
+     * Start the repeating tick task, does nothing if the timer is advanced by its owner.
+     */
+    public synchronized void start() {
+        if (tickTask != null || bukkitScheduler == null) {
+            return;
+        }
+
+        tickTask = bukkitScheduler.runTaskTimer(plugin, this, 1L, 1L);
+    }
+
+    /**
+     * Stop the repeating tick task and dispose all pending timeouts, has to be called on the server thread.
+     */
+    public synchronized void shutdown() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+
+        clear();
+    }
+
+    /**
+     * Schedule a runnable after the given amount of ticks.
+     *
+     * @param runnable   The runnable.
+     * @param delayTicks The delay in ticks.
+     * @return The disposable to cancel the timeout.
+     */
+    public Disposable schedule(Runnable runnable, long delayTicks) {
+        return schedule(runnable, delayTicks, 0L);
+    }
+
+    /**
+     * Schedule a runnable after the given amount of ticks and then repeatedly with the given period.
+     * <p>
+     * Like a bukkit task scheduled from outside of the scheduler heartbeat, the runnable runs in the tick the given
+     * amount of ticks after the current one, but at least in the next one.
+     *
+     * @param runnable    The runnable.
+     * @param delayTicks  The initial delay in ticks.
+     * @param periodTicks The period in ticks, zero for a one shot timeout.
+     * @return The disposable to cancel the timeout.
+     */
+    public Disposable schedule(Runnable runnable, long delayTicks, long periodTicks) {
+        return scheduleTimeout(runnable, getCurrentTick() + Math.max(delayTicks, 1L) - 1L, periodTicks);
+    }
+
+    @Override
+    public void run() {
+        advance();
+    }
+}
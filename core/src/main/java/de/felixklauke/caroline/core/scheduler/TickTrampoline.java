@@ -0,0 +1,369 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects runnables from any thread and drains them from one repeating main thread task every tick.
+ * <p>
+ * Every {@link TaskPriority} has its own FIFO queue so the order of every worker is preserved. Critical tasks always
+ * run, normal and deferrable tasks share what they left of the tick budget and roll over to the next tick once it is
+ * used up. While the milliseconds per tick of the {@link TickClock} are above the shedding threshold deferrable tasks
+ * are held back until they waited for the maximum deferral. Runnables queued while a drain is running are executed in
+ * the next tick, except for those queued by the timeouts of the {@link #getTickTimer() tick timer}, which expire right
+ * before the drain.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class TickTrampoline implements Runnable {
+
+    /**
+     * The queues by the ordinal of their priority.
+     */
+    private final TaskQueue[] queues = new TaskQueue[TaskPriority.values().length];
+
+    /**
+     * The bukkit plugin we schedule the drain task for.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The underlying bukkit scheduler.
+     */
+    private final BukkitScheduler bukkitScheduler;
+
+    /**
+     * The clock measuring the tick durations, null to never hold deferrable tasks back.
+     */
+    private final TickClock tickClock;
+
+    /**
+     * The nanoseconds normal and deferrable tasks may use per tick, zero for no limit.
+     */
+    private final long tickBudgetNanos;
+
+    /**
+     * The average tick duration in nanoseconds above which deferrable tasks are held back, zero to never hold them back.
+     */
+    private final long sheddingThresholdNanos;
+
+    /**
+     * The maximum amount of ticks a deferrable task is held back.
+     */
+    private final int maxDeferralTicks;
+
+    /**
+     * The timer advanced at the start of every drain.
+     */
+    private final TickTimer tickTimer = new TickTimer();
+
+    /**
+     * The number of the current tick.
+     */
+    private volatile long currentTick;
+
+    /**
+     * The amount of ticks in which the tick budget held back tasks.
+     */
+    private volatile long throttledTicks;
+
+    /**
+     * The repeating drain task.
+     */
+    private BukkitTask drainTask;
+
+    /**
+     * Create a new tick trampoline without a tick budget.
+     *
+     * @param plugin          The bukkit plugin we schedule the drain task for.
+     * @param bukkitScheduler The underlying bukkit scheduler.
+     */
+    public TickTrampoline(Plugin plugin, BukkitScheduler bukkitScheduler) {
+        this(plugin, bukkitScheduler, null, 0L, 0L, 0);
+    }
+
+    /**
+     * Create a new tick trampoline.
+     *
+     * @param plugin                 The bukkit plugin we schedule the drain task for.
+     * @param bukkitScheduler        The underlying bukkit scheduler.
+     * @param tickClock              The clock measuring the tick durations, null to never hold deferrable tasks back.
+     * @param tickBudgetNanos        The nanoseconds normal and deferrable tasks may use per tick, zero for no limit.
+     * @param sheddingThresholdNanos The tick duration above which deferrable tasks are held back, zero to disable.
+     * @param maxDeferralTicks       The maximum amount of ticks a deferrable task is held back.
+     */
+    public TickTrampoline(Plugin plugin, BukkitScheduler bukkitScheduler, TickClock tickClock, long tickBudgetNanos, long sheddingThresholdNanos, int maxDeferralTicks) {
+        this.plugin = plugin;
+        this.bukkitScheduler = bukkitScheduler;
+        this.tickClock = tickClock;
+        this.tickBudgetNanos = tickBudgetNanos;
+        this.sheddingThresholdNanos = sheddingThresholdNanos;
+        this.maxDeferralTicks = maxDeferralTicks;
+
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new TaskQueue();
+        }
+    }
+
+    /**
+     * Start the repeating drain task.
+     */
+    public synchronized void start() {
+        if (drainTask != null) {
+            return;
+        }
+
+        drainTask = bukkitScheduler.runTaskTimer(plugin, this, 0L, 1L);
+    }
+
+    /**
+     * Stop the repeating drain task and drop all queued tasks and pending timeouts.
+     */
+    public synchronized void shutdown() {
+        if (drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+
+        for (TaskQueue queue : queues) {
+            queue.clear();
+        }
+
+        tickTimer.shutdown();
+    }
+
+    /**
+     * Get the timer that is advanced at the start of every drain.
+     * <p>
+     * Its timeouts run before the queued tasks are drained, so a timeout that queues its task here gets it executed in
+     * the same tick and under the same budget as the immediate tasks.
+     *
+     * @return The tick timer.
+     */
+    public TickTimer getTickTimer() {
+        return tickTimer;
+    }
+
+    /**
+     * Queue the given runnable for the next drain.
+     *
+     * @param runnable The runnable.
+     * @return The disposable of the queued task.
+     */
+    public Disposable offer(Runnable runnable) {
+        return offer(runnable, TaskPriority.NORMAL);
+    }
+
+    /**
+     * Queue the given runnable with the given priority.
+     *
+     * @param runnable The runnable.
+     * @param priority The priority.
+     * @return The disposable of the queued task.
+     */
+    public Disposable offer(Runnable runnable, TaskPriority priority) {
+        TrampolineTask task = new TrampolineTask(runnable, currentTick);
+        queues[priority.ordinal()].offer(task);
+        return task;
+    }
+
+    /**
+     * Get the amount of queued tasks of the given priority, including disposed tasks that weren't drained yet.
+     *
+     * @param priority The priority.
+     * @return The amount of queued tasks.
+     */
+    public int getQueuedTasks(TaskPriority priority) {
+        return queues[priority.ordinal()].pending.get();
+    }
+
+    /**
+     * Get the amount of ticks in which the tick budget held back tasks.
+     *
+     * @return The amount of throttled ticks.
+     */
+    public long getThrottledTicks() {
+        return throttledTicks;
+    }
+
+    @Override
+    public void run() {
+        tickTimer.run();
+
+        long drainStartNanos = System.nanoTime();
+        long tick = currentTick++;
+
+        long deadlineNanos = tickBudgetNanos > 0 ? drainStartNanos + tickBudgetNanos : Long.MAX_VALUE;
+        boolean shedding = sheddingThresholdNanos > 0 && tickClock != null
+                && tickClock.getMspt() * TimeUnit.MILLISECONDS.toNanos(1) > sheddingThresholdNanos;
+
+        queues[TaskPriority.CRITICAL.ordinal()].drain(Long.MAX_VALUE, Long.MAX_VALUE);
+        boolean throttled = queues[TaskPriority.NORMAL.ordinal()].drain(deadlineNanos, Long.MAX_VALUE);
+
+        long deferralLimitTick = shedding ? tick - maxDeferralTicks : Long.MAX_VALUE;
+        throttled |= queues[TaskPriority.DEFERRABLE.ordinal()].drain(deadlineNanos, deferralLimitTick);
+
+        if (throttled) {
+            throttledTicks++;
+        }
+    }
+
+    /**
+     * The FIFO queue of a single priority.
+     */
+    private static final class TaskQueue {
+
+        /**
+         * The queued tasks.
+         */
+        private final Queue<TrampolineTask> queue = new ConcurrentLinkedQueue<>();
+
+        /**
+         * The amount of queued tasks.
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+
+        /**
+         * Queue a task.
+         *
+         * @param task The task.
+         */
+        void offer(TrampolineTask task) {
+            queue.offer(task);
+            pending.incrementAndGet();
+        }
+
+        /**
+         * Run the tasks that were queued when the drain started.
+         * <p>
+         * The first task is always executed so every queue makes progress, all others stop the drain once the
+         * deadline passed. Tasks queued after the given tick stop the drain too, they are held back.
+         *
+         * @param deadlineNanos The nano time after which no more tasks are started.
+         * @param maxQueuedTick The latest tick a task may have been queued in to be executed.
+         * @return If the deadline stopped the drain.
+         */
+        boolean drain(long deadlineNanos, long maxQueuedTick) {
+            boolean first = true;
+
+            for (int remaining = pending.get(); remaining > 0; remaining--) {
+                TrampolineTask task = queue.peek();
+
+                if (task == null || task.queuedTick > maxQueuedTick) {
+                    return false;
+                }
+
+                if (!first && deadlineNanos != Long.MAX_VALUE && System.nanoTime() >= deadlineNanos) {
+                    return true;
+                }
+
+                queue.poll();
+                pending.decrementAndGet();
+                first = false;
+                task.run();
+            }
+
+            return false;
+        }
+
+        /**
+         * Dispose and remove all queued tasks.
+         */
+        void clear() {
+            TrampolineTask task;
+
+            while ((task = queue.poll()) != null) {
+                pending.decrementAndGet();
+                task.dispose();
+            }
+        }
+    }
+
+    /**
+     * A queued runnable that can be disposed until it gets executed.
+     */
+    private static final class TrampolineTask implements Runnable, Disposable {
+
+        /**
+         * The tick the task was queued in.
+         */
+        private final long queuedTick;
+
+        /**
+         * The runnable, null once the task is disposed or done.
+         */
+        private volatile Runnable runnable;
+
+        /**
+         * Create a new trampoline task.
+         *
+         * @param runnable   The runnable.
+         * @param queuedTick The tick the task was queued in.
+         */
+        TrampolineTask(Runnable runnable, long queuedTick) {
+            this.runnable = runnable;
+            this.queuedTick = queuedTick;
+        }
+
+        @Override
+        public void run() {
+            Runnable current = runnable;
+
+            if (current == null) {
+                return;
+            }
+
+            try {
+                current.run();
+            } catch (Throwable throwable) {
+                Exceptions.throwIfFatal(throwable);
+                RxJavaPlugins.onError(throwable);
+            } finally {
+                runnable = null;
+            }
+        }
+
+        @Override
+        public void dispose() {
+            runnable = null;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return runnable == null;
+        }
+    }
+}
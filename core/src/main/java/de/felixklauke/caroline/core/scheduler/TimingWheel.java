@@ -0,0 +1,349 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical hashed timing wheel that keeps entries in intrusive doubly linked slots.
+ * <p>
+ * Every level has the same amount of slots, a slot of a level spans a whole revolution of the level below. Entries
+ * are added to the lowest level that can hold their deadline and cascade down one level whenever the level below
+ * completes a revolution, so long delays neither cost extra slots nor get visited every revolution. Adding and
+ * removing an entry costs O(1), advancing the wheel by one tick only visits the entries of the slots it passes.
+ * Entries further away than the top level can hold stay there for another round. The wheel is not thread safe, it
+ * has to be owned by exactly one thread.
+ *
+ * @param <EntryType> The type of the entries.
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class TimingWheel<EntryType extends TimingWheel.Entry> {
+
+    /**
+     * The slots of every level, the lowest level first.
+     */
+    private final Slot[][] levels;
+
+    /**
+     * The amount of bits of a tick that address a slot of a single level.
+     */
+    private final int slotBits;
+
+    /**
+     * The mask to map a tick onto its slot.
+     */
+    private final int mask;
+
+    /**
+     * The tick that will be processed by the next advance.
+     */
+    private long currentTick;
+
+    /**
+     * The amount of entries in the wheel.
+     */
+    private int size;
+
+    /**
+     * Create a new timing wheel with a single level.
+     *
+     * @param slotCount The amount of slots, will be rounded up to the next power of two.
+     */
+    public TimingWheel(int slotCount) {
+        this(slotCount, 1);
+    }
+
+    /**
+     * Create a new hierarchical timing wheel.
+     *
+     * @param slotCount  The amount of slots per level, will be rounded up to the next power of two.
+     * @param levelCount The amount of levels.
+     */
+    public TimingWheel(int slotCount, int levelCount) {
+        int normalizedSlotCount = Integer.highestOneBit(Math.max(slotCount, 2) - 1) << 1;
+
+        this.slotBits = Integer.numberOfTrailingZeros(normalizedSlotCount);
+        this.mask = normalizedSlotCount - 1;
+        this.levels = new Slot[Math.max(1, Math.min(levelCount, (Long.SIZE - 1) / slotBits))][normalizedSlotCount];
+
+        for (Slot[] slots : levels) {
+            for (int i = 0; i < normalizedSlotCount; i++) {
+                slots[i] = new Slot();
+            }
+        }
+    }
+
+    /**
+     * Add an entry that should expire in the given tick. Deadlines in the past expire with the next advance.
+     *
+     * @param entry        The entry.
+     * @param deadlineTick The absolute tick the entry expires in.
+     */
+    public void add(EntryType entry, long deadlineTick) {
+        Entry node = entry;
+
+        if (node.slot != null) {
+            throw new IllegalStateException("Entry is already part of a timing wheel.");
+        }
+
+        node.deadlineTick = Math.max(deadlineTick, currentTick);
+        link(node);
+        size++;
+    }
+
+    /**
+     * Remove an entry from the wheel. Entries that aren't part of the wheel are ignored.
+     *
+     * @param entry The entry.
+     * @return If the entry was part of the wheel.
+     */
+    public boolean remove(EntryType entry) {
+        Entry node = entry;
+
+        if (node.slot == null) {
+            return false;
+        }
+
+        node.slot.unlink(node);
+        size--;
+        return true;
+    }
+
+    /**
+     * Process the current tick and move on to the next one.
+     * <p>
+     * Entries removed by the consumer while the tick is processed may still be handed to it.
+     *
+     * @param expiredConsumer The consumer of all entries whose deadline is reached, they are already removed.
+     */
+    @SuppressWarnings("unchecked")
+    public void advance(Consumer<? super EntryType> expiredConsumer) {
+        long tick = currentTick;
+
+        // Cascade from the highest level whose revolution boundary is reached, so entries can drop several levels.
+        int cascadeLevel = 0;
+        while (cascadeLevel + 1 < levels.length && (tick & ((1L << (slotBits * (cascadeLevel + 1))) - 1)) == 0) {
+            cascadeLevel++;
+        }
+
+        for (int level = cascadeLevel; level > 0; level--) {
+            Entry entry = levels[level][(int) ((tick >>> (slotBits * level)) & mask)].detach();
+
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.previous = null;
+                entry.next = null;
+                link(entry);
+                entry = next;
+            }
+        }
+
+        currentTick = tick + 1;
+        Entry entry = levels[0][(int) (tick & mask)].detach();
+
+        while (entry != null) {
+            Entry next = entry.next;
+            entry.previous = null;
+            entry.next = null;
+
+            if (entry.deadlineTick <= tick) {
+                size--;
+                expiredConsumer.accept((EntryType) entry);
+            } else {
+                // Only entries beyond the reach of a single level wheel come by before their deadline.
+                levels[0][(int) (entry.deadlineTick & mask)].append(entry);
+            }
+
+            entry = next;
+        }
+    }
+
+    /**
+     * Remove all entries from the wheel.
+     *
+     * @param removedConsumer The consumer of all removed entries.
+     */
+    @SuppressWarnings("unchecked")
+    public void clear(Consumer<? super EntryType> removedConsumer) {
+        for (Slot[] slots : levels) {
+            for (Slot slot : slots) {
+                Entry entry = slot.detach();
+
+                while (entry != null) {
+                    Entry next = entry.next;
+                    entry.previous = null;
+                    entry.next = null;
+                    size--;
+                    removedConsumer.accept((EntryType) entry);
+                    entry = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the tick that will be processed by the next advance.
+     *
+     * @return The current tick.
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Get the amount of entries in the wheel.
+     *
+     * @return The amount of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Link an entry into the lowest level that can hold its deadline.
+     *
+     * @param entry The entry.
+     */
+    private void link(Entry entry) {
+        long delta = entry.deadlineTick - currentTick;
+        int level = 0;
+
+        while (level + 1 < levels.length && delta >= 1L << (slotBits * (level + 1))) {
+            level++;
+        }
+
+        levels[level][(int) ((entry.deadlineTick >>> (slotBits * level)) & mask)].append(entry);
+    }
+
+    /**
+     * The base of all entries that can be kept in a timing wheel.
+     */
+    public abstract static class Entry {
+
+        /**
+         * The absolute tick the entry expires in.
+         */
+        private long deadlineTick;
+
+        /**
+         * The slot the entry is linked into, null if it isn't part of a wheel.
+         */
+        private Slot slot;
+
+        /**
+         * The previous entry in the slot.
+         */
+        private Entry previous;
+
+        /**
+         * The next entry in the slot.
+         */
+        private Entry next;
+
+        /**
+         * Get the absolute tick the entry expires in.
+         *
+         * @return The deadline tick.
+         */
+        public long getDeadlineTick() {
+            return deadlineTick;
+        }
+    }
+
+    /**
+     * A single slot of the wheel.
+     */
+    private static final class Slot {
+
+        /**
+         * The first entry.
+         */
+        private Entry head;
+
+        /**
+         * The last entry.
+         */
+        private Entry tail;
+
+        /**
+         * Append an entry to the slot.
+         *
+         * @param entry The entry.
+         */
+        void append(Entry entry) {
+            entry.slot = this;
+            entry.previous = tail;
+
+            if (tail == null) {
+                head = entry;
+            } else {
+                tail.next = entry;
+            }
+
+            tail = entry;
+        }
+
+        /**
+         * Remove all entries from the slot at once. They are no longer part of the wheel, but stay chained through
+         * their next pointers so the caller can walk them.
+         *
+         * @return The first entry, null if the slot was empty.
+         */
+        Entry detach() {
+            Entry first = head;
+
+            for (Entry entry = first; entry != null; entry = entry.next) {
+                entry.slot = null;
+            }
+
+            head = null;
+            tail = null;
+            return first;
+        }
+
+        /**
+         * Unlink an entry from the slot.
+         *
+         * @param entry The entry.
+         */
+        void unlink(Entry entry) {
+            if (entry.previous == null) {
+                head = entry.next;
+            } else {
+                entry.previous.next = entry.next;
+            }
+
+            if (entry.next == null) {
+                tail = entry.previous;
+            } else {
+                entry.next.previous = entry.previous;
+            }
+
+            entry.slot = null;
+            entry.previous = null;
+            entry.next = null;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import de.felixklauke.caroline.core.metrics.MeteredScheduler;
+import de.felixklauke.caroline.core.metrics.SchedulerMetrics;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A scheduler for blocking io that runs every task on its own virtual thread.
+ * <p>
+ * Virtual threads are only available on java 21 and newer. Older runtimes fall back to a bounded pool of platform
+ * threads so a load spike can't spawn an unbounded amount of threads. Tasks of a single worker are still executed
+ * one after another.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class VirtualThreadScheduler extends Scheduler implements MeteredScheduler {
+
+    /**
+     * The executor service running the tasks.
+     */
+    private final ExecutorService executorService;
+
+    /**
+     * The rx scheduler wrapping the executor service.
+     */
+    private final Scheduler executorScheduler;
+
+    /**
+     * If the executor service uses virtual threads.
+     */
+    private final boolean virtual;
+
+    /**
+     * The metrics of all tasks scheduled by this scheduler.
+     */
+    private final SchedulerMetrics metrics = new SchedulerMetrics("caroline-io", false);
+
+    /**
+     * Create a new virtual thread scheduler.
+     *
+     * @param fallbackThreads The maximum amount of platform threads when virtual threads aren't available.
+     */
+    public VirtualThreadScheduler(int fallbackThreads) {
+        ExecutorService virtualExecutor = createVirtualThreadExecutor();
+
+        this.virtual = virtualExecutor != null;
+        this.executorService = virtual ? virtualExecutor : createPlatformThreadExecutor(fallbackThreads);
+        this.executorScheduler = Schedulers.from(executorService);
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new MeteredWorker(executorScheduler.createWorker(), metrics);
+    }
+
+    @Override
+    public Disposable scheduleDirect(Runnable runnable, long delay, TimeUnit unit) {
+        MeteredTask task = new MeteredTask(metrics, runnable, unit.toNanos(delay), 0L);
+        return task.setUpstream(executorScheduler.scheduleDirect(task, delay, unit));
+    }
+
+    @Override
+    public SchedulerMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void shutdown() {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Check if the tasks run on virtual threads.
+     *
+     * @return If virtual threads are used.
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Create an executor that starts a new virtual thread per task.
+     *
+     * @return The executor or null if the runtime doesn't support virtual threads.
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Method factoryMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factoryMethod.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Create a bounded executor of platform threads whose idle threads time out.
+     *
+     * @param threads The maximum amount of threads.
+     * @return The executor.
+     */
+    private static ExecutorService createPlatformThreadExecutor(int threads) {
+        int maximumThreads = Math.max(threads, 1);
+
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(maximumThreads, maximumThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CarolineThreadFactory("caroline-io"));
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
+    }
+}
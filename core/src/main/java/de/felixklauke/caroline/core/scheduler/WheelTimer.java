@@ -0,0 +1,177 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import io.reactivex.disposables.Disposable;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A millisecond precision timer driven by a dedicated thread over a {@link TimingWheel}.
+ * <p>
+ * Scheduling and cancelling only touch lock-free queues, the timer thread moves the timeouts into and out of the
+ * wheel once per tick. Expired timeouts are handed to an executor so slow tasks can't delay other timeouts.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public class WheelTimer extends AbstractTimer {
+
+    /**
+     * The length of one timer tick in nanoseconds.
+     */
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * The amount of wheel slots per level, the lowest level covers one second.
+     */
+    private static final int SLOT_COUNT = 1024;
+
+    /**
+     * The amount of wheel levels, enough to cover twelve days without a second round.
+     */
+    private static final int LEVEL_COUNT = 3;
+
+    /**
+     * The factory of the timer thread.
+     */
+    private final CarolineThreadFactory threadFactory;
+
+    /**
+     * The nano time the timer was created at, tick zero.
+     */
+    private final long startNanos;
+
+    /**
+     * If the timer thread should keep running.
+     */
+    private volatile boolean running;
+
+    /**
+     * The current or last timer thread, null if the timer was never started.
+     */
+    private Thread timerThread;
+
+    /**
+     * Create a new wheel timer.
+     *
+     * @param executor   The executor that runs expired timeouts.
+     * @param threadName The name of the timer thread.
+     */
+    public WheelTimer(Executor executor, String threadName) {
+        super(SLOT_COUNT, LEVEL_COUNT, executor);
+        this.threadFactory = new CarolineThreadFactory(threadName);
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Start a new timer thread, after the previous one stopped if the timer was shut down before.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        if (timerThread != null) {
+            try {
+                timerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the previous timer thread.", e);
+            }
+        }
+
+        running = true;
+        timerThread = threadFactory.newThread(this::runTimer);
+        timerThread.start();
+    }
+
+    /**
+     * Stop the timer thread, it disposes all pending timeouts before it ends.
+     */
+    public synchronized void shutdown() {
+        running = false;
+
+        if (timerThread != null) {
+            LockSupport.unpark(timerThread);
+        }
+    }
+
+    /**
+     * Schedule a runnable after the given delay.
+     *
+     * @param runnable The runnable.
+     * @param delay    The delay.
+     * @param unit     The unit of the delay.
+     * @return The disposable to cancel the timeout.
+     */
+    public Disposable schedule(Runnable runnable, long delay, TimeUnit unit) {
+        return schedule(runnable, delay, 0L, unit);
+    }
+
+    /**
+     * Schedule a runnable after the given delay and then repeatedly with the given period.
+     *
+     * @param runnable     The runnable.
+     * @param initialDelay The initial delay.
+     * @param period       The period, zero for a one shot timeout.
+     * @param unit         The unit of the delay and period.
+     * @return The disposable to cancel the timeout.
+     */
+    public Disposable schedule(Runnable runnable, long initialDelay, long period, TimeUnit unit) {
+        long deadlineNanos = System.nanoTime() + unit.toNanos(Math.max(initialDelay, 0L));
+        long periodTicks = period > 0 ? Math.max(1L, unit.toNanos(period) / TICK_NANOS) : 0L;
+        long deadlineTick = (deadlineNanos - startNanos + TICK_NANOS - 1) / TICK_NANOS;
+
+        return scheduleTimeout(runnable, deadlineTick, periodTicks);
+    }
+
+    /**
+     * The loop of the timer thread.
+     */
+    private void runTimer() {
+        while (running) {
+            waitForTick(getCurrentTick());
+            advance();
+        }
+
+        clear();
+    }
+
+    /**
+     * Park the timer thread until the given tick started.
+     *
+     * @param tick The tick.
+     */
+    private void waitForTick(long tick) {
+        long tickStartNanos = startNanos + tick * TICK_NANOS;
+        long sleepNanos;
+
+        while (running && (sleepNanos = tickStartNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, sleepNanos);
+        }
+    }
+}
@@ -0,0 +1,401 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core;
+
+import org.bukkit.Server;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+/**
+ * A server whose ticks are advanced by the test, with a bukkit scheduler that runs due tasks on {@link #tick()}.
+ * <p>
+ * Asynchronous tasks are run by the tick as well, so tests stay single threaded and deterministic. The thread that
+ * creates the server is its primary thread. Events called at the plugin manager are handed to all registered
+ * executors of their class on the calling thread.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+public final class ManualServer {
+
+    /**
+     * The logger of the server and plugin.
+     */
+    private static final Logger LOGGER = Logger.getLogger("caroline-test");
+
+    /**
+     * The queued tasks.
+     */
+    private final List<ManualTask> tasks = new ArrayList<>();
+
+    /**
+     * The event registrations.
+     */
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+
+    /**
+     * The primary thread.
+     */
+    private final Thread primaryThread = Thread.currentThread();
+
+    /**
+     * The bukkit scheduler.
+     */
+    private final BukkitScheduler scheduler;
+
+    /**
+     * The plugin manager.
+     */
+    private final PluginManager pluginManager;
+
+    /**
+     * The server.
+     */
+    private final Server server;
+
+    /**
+     * The plugin.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The id of the next task.
+     */
+    private int nextTaskId;
+
+    /**
+     * The tick processed by the next call of {@link #tick()}.
+     */
+    private long currentTick;
+
+    /**
+     * Create a new manual server.
+     */
+    public ManualServer() {
+        this.scheduler = proxy(BukkitScheduler.class, (method, args) -> {
+            switch (method) {
+                case "runTask":
+                case "runTaskAsynchronously":
+                    return queue((Runnable) args[1], 0L, 0L);
+                case "runTaskLater":
+                case "runTaskLaterAsynchronously":
+                    return queue((Runnable) args[1], (Long) args[2], 0L);
+                case "runTaskTimer":
+                case "runTaskTimerAsynchronously":
+                    return queue((Runnable) args[1], (Long) args[2], Math.max((Long) args[3], 1L));
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+        this.pluginManager = proxy(PluginManager.class, (method, args) -> {
+            switch (method) {
+                case "registerEvent":
+                    registrations.add(new Registration((Class<?>) args[0], (Listener) args[1], (EventExecutor) args[3]));
+                    return null;
+                case "callEvent":
+                    callEvent((Event) args[0]);
+                    return null;
+                case "getPlugin":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+        this.server = proxy(Server.class, (method, args) -> {
+            switch (method) {
+                case "getScheduler":
+                    return scheduler;
+                case "getPluginManager":
+                    return pluginManager;
+                case "isPrimaryThread":
+                    return Thread.currentThread() == primaryThread;
+                case "getLogger":
+                    return LOGGER;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+        this.plugin = proxy(Plugin.class, (method, args) -> {
+            switch (method) {
+                case "getServer":
+                    return server;
+                case "getLogger":
+                    return LOGGER;
+                case "getName":
+                    return "caroline-test";
+                case "isEnabled":
+                    return true;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    /**
+     * Run one tick: execute all due tasks in the order they were scheduled.
+     */
+    public void tick() {
+        long tick = currentTick++;
+
+        for (ManualTask task : new ArrayList<>(tasks)) {
+            if (task.cancelled || task.nextRunTick > tick) {
+                continue;
+            }
+
+            task.runnable.run();
+
+            if (task.periodTicks > 0) {
+                task.nextRunTick = tick + task.periodTicks;
+            } else {
+                task.cancelled = true;
+            }
+        }
+
+        tasks.removeIf(task -> task.cancelled);
+    }
+
+    /**
+     * Run the given amount of ticks.
+     *
+     * @param ticks The amount of ticks.
+     */
+    public void tick(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            tick();
+        }
+    }
+
+    /**
+     * Get the amount of tasks that weren't cancelled or done at the end of the last tick.
+     *
+     * @return The amount of pending tasks.
+     */
+    public int getPendingTasks() {
+        return (int) tasks.stream().filter(task -> !task.cancelled).count();
+    }
+
+    /**
+     * Get the bukkit scheduler.
+     *
+     * @return The scheduler.
+     */
+    public BukkitScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Get the plugin manager.
+     *
+     * @return The plugin manager.
+     */
+    public PluginManager getPluginManager() {
+        return pluginManager;
+    }
+
+    /**
+     * Get the plugin owning all tasks.
+     *
+     * @return The plugin.
+     */
+    public Plugin getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Hand an event to the executors registered for its class.
+     *
+     * @param event The event.
+     */
+    private void callEvent(Event event) {
+        for (Registration registration : registrations) {
+            if (!registration.eventClazz.isInstance(event)) {
+                continue;
+            }
+
+            try {
+                registration.executor.execute(registration.listener, event);
+            } catch (EventException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Queue a task.
+     *
+     * @param runnable    The runnable.
+     * @param delayTicks  The delay in ticks.
+     * @param periodTicks The period in ticks, zero for one shot tasks.
+     * @return The task.
+     */
+    private BukkitTask queue(Runnable runnable, long delayTicks, long periodTicks) {
+        ManualTask task = new ManualTask(runnable, currentTick + Math.max(delayTicks, 0L), periodTicks);
+        tasks.add(task);
+
+        int taskId = ++nextTaskId;
+        return proxy(BukkitTask.class, (method, args) -> {
+            switch (method) {
+                case "cancel":
+                    task.cancelled = true;
+                    return null;
+                case "isCancelled":
+                    return task.cancelled;
+                case "getTaskId":
+                    return taskId;
+                case "getOwner":
+                    return plugin;
+                case "isSync":
+                    return true;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    /**
+     * Create a proxy of the given interface.
+     *
+     * @param type    The interface.
+     * @param handler The handler of the calls by method name.
+     * @param <T>     The type of the interface.
+     * @return The proxy.
+     */
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return type.getSimpleName();
+                }
+            }
+
+            return handler.handle(method.getName(), args);
+        }));
+    }
+
+    /**
+     * The handler of proxied calls.
+     */
+    @FunctionalInterface
+    private interface Handler {
+
+        /**
+         * Handle a call.
+         *
+         * @param method The name of the method.
+         * @param args   The arguments.
+         * @return The result.
+         */
+        Object handle(String method, Object[] args);
+    }
+
+    /**
+     * An event registration.
+     */
+    private static final class Registration {
+
+        /**
+         * The class of the events.
+         */
+        private final Class<?> eventClazz;
+
+        /**
+         * The listener.
+         */
+        private final Listener listener;
+
+        /**
+         * The executor.
+         */
+        private final EventExecutor executor;
+
+        /**
+         * Create a new registration.
+         *
+         * @param eventClazz The class of the events.
+         * @param listener   The listener.
+         * @param executor   The executor.
+         */
+        Registration(Class<?> eventClazz, Listener listener, EventExecutor executor) {
+            this.eventClazz = eventClazz;
+            this.listener = listener;
+            this.executor = executor;
+        }
+    }
+
+    /**
+     * A queued task.
+     */
+    private static final class ManualTask {
+
+        /**
+         * The runnable.
+         */
+        private final Runnable runnable;
+
+        /**
+         * The period in ticks, zero for one shot tasks.
+         */
+        private final long periodTicks;
+
+        /**
+         * The tick the task runs in next.
+         */
+        private long nextRunTick;
+
+        /**
+         * If the task was cancelled or is done.
+         */
+        private boolean cancelled;
+
+        /**
+         * Create a new task.
+         *
+         * @param runnable    The runnable.
+         * @param nextRunTick The tick the task runs in next.
+         * @param periodTicks The period in ticks, zero for one shot tasks.
+         */
+        ManualTask(Runnable runnable, long nextRunTick, long periodTicks) {
+            this.runnable = runnable;
+            this.nextRunTick = nextRunTick;
+            this.periodTicks = periodTicks;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core;
+
+import de.felixklauke.caroline.core.emitter.EventDispatchHub;
+import de.felixklauke.caroline.core.scheduler.SynchronousScheduler;
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the event flows of {@link RxCaroline} against a {@link ManualServer}.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+class RxCarolineTest {
+
+    /**
+     * The server.
+     */
+    private final ManualServer server = new ManualServer();
+
+    /**
+     * The hub holding the event registrations.
+     */
+    private final EventDispatchHub dispatchHub = new EventDispatchHub(server.getPluginManager(), server.getPlugin());
+
+    /**
+     * The errors reported to rx java.
+     */
+    private final List<Throwable> errors = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        RxJavaPlugins.setErrorHandler(errors::add);
+        RxJavaPlugins.setIoSchedulerHandler(scheduler -> Schedulers.trampoline());
+        RxCaroline.initialize(server.getPlugin(), dispatchHub, null, null, null, null, null, new SynchronousScheduler(server.getPlugin(), server.getScheduler()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RxCaroline.reset();
+        RxJavaPlugins.reset();
+    }
+
+    @Test
+    void dropCountsTheEventsWithoutDemand() {
+        TestSubscriber<TestEvent> subscriber = RxCaroline.flowEvent(TestEvent.class, BackpressureStrategy.DROP).test(1L);
+
+        fire(3);
+
+        subscriber.assertValueCount(1);
+        assertEquals(2L, getDroppedEvents());
+    }
+
+    @Test
+    void latestOnlyCountsReplacedEvents() {
+        TestSubscriber<TestEvent> subscriber = RxCaroline.flowEvent(TestEvent.class, BackpressureStrategy.LATEST).test(0L);
+
+        List<TestEvent> events = fire(3);
+        assertEquals(2L, getDroppedEvents());
+
+        subscriber.request(1L);
+        subscriber.assertValue(events.get(2));
+        assertEquals(2L, getDroppedEvents(), "the delivered event must not count as dropped");
+    }
+
+    @Test
+    void concurrentAsyncEventsAreSerialized() throws InterruptedException {
+        int threads = 4;
+        int eventsPerThread = 10_000;
+        TestSubscriber<TestEvent> subscriber = RxCaroline.flowEvent(TestEvent.class, threads * eventsPerThread).test();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread caller = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                for (int j = 0; j < eventsPerThread; j++) {
+                    server.getPluginManager().callEvent(new TestEvent(true));
+                }
+            });
+            caller.start();
+            callers.add(caller);
+        }
+
+        start.countDown();
+        for (Thread caller : callers) {
+            caller.join(TimeUnit.SECONDS.toMillis(10L));
+        }
+
+        subscriber.assertNoErrors();
+        subscriber.assertValueCount(threads * eventsPerThread);
+        assertTrue(subscriber.values().stream().allMatch(TestEvent.class::isInstance));
+    }
+
+    @Test
+    void failingSnapshotsAreReportedAndSkipped() {
+        AtomicInteger snapshots = new AtomicInteger();
+        TestObserver<List<Integer>> observer = RxCaroline.observeEventAsync(TestEvent.class, event -> {
+            int snapshot = snapshots.incrementAndGet();
+            if (snapshot == 2) {
+                throw new IllegalStateException("snapshot failed");
+            }
+            return snapshot;
+        }).test();
+
+        fire(3);
+        server.tick(2);
+
+        observer.assertNoErrors();
+        observer.assertNotComplete();
+        observer.assertValue(Arrays.asList(1, 3));
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof IllegalStateException);
+    }
+
+    @Test
+    void failingHandlersAreReportedAndSkipTheirBatch() {
+        AtomicInteger batches = new AtomicInteger();
+        List<Integer> applied = new ArrayList<>();
+        RxCaroline.handleEventAsync(TestEvent.class, event -> 1, snapshots -> {
+            int batch = batches.incrementAndGet();
+            if (batch == 1) {
+                throw new IllegalStateException("handler failed");
+            }
+            if (batch == 2) {
+                return null;
+            }
+            return Collections.singletonList(() -> applied.add(batch));
+        });
+
+        for (int i = 0; i < 3; i++) {
+            fire(1);
+            server.tick(2);
+        }
+
+        assertEquals(Collections.singletonList(3), applied);
+        assertEquals(2, errors.size());
+        assertTrue(errors.get(0) instanceof IllegalStateException);
+        assertTrue(errors.get(1) instanceof NullPointerException);
+    }
+
+    /**
+     * Call synchronous test events.
+     *
+     * @param amount The amount of events.
+     * @return The events in the order they were called.
+     */
+    private List<TestEvent> fire(int amount) {
+        List<TestEvent> events = new ArrayList<>();
+
+        for (int i = 0; i < amount; i++) {
+            TestEvent event = new TestEvent(false);
+            events.add(event);
+            server.getPluginManager().callEvent(event);
+        }
+
+        return events;
+    }
+
+    /**
+     * Get the amount of test events the default registration dropped.
+     *
+     * @return The amount of dropped events.
+     */
+    private long getDroppedEvents() {
+        return dispatchHub.getDispatcher(TestEvent.class, EventPriority.NORMAL, false).getDroppedEvents();
+    }
+
+    /**
+     * An event of the tests.
+     */
+    static final class TestEvent extends Event {
+
+        /**
+         * The handlers of the event.
+         */
+        private static final HandlerList HANDLERS = new HandlerList();
+
+        /**
+         * Create a new test event.
+         *
+         * @param async If the event is called off the server thread.
+         */
+        TestEvent(boolean async) {
+            super(async);
+        }
+
+        @Override
+        public HandlerList getHandlers() {
+            return HANDLERS;
+        }
+    }
+}
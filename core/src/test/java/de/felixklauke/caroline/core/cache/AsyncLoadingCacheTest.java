@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.cache;
+
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests the order of loads and writes of the {@link AsyncLoadingCache}.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+class AsyncLoadingCacheTest {
+
+    /**
+     * The scheduler running loads and writes when triggered.
+     */
+    private final TestScheduler scheduler = new TestScheduler();
+
+    /**
+     * The backing store.
+     */
+    private final Map<String, String> store = new HashMap<>();
+
+    /**
+     * The loads and writes in their order.
+     */
+    private final List<String> operations = new ArrayList<>();
+
+    /**
+     * The cache under test.
+     */
+    private final AsyncLoadingCache<String, String> cache = new AsyncLoadingCache<>(key -> {
+        operations.add("load " + key);
+        return store.getOrDefault(key, "default");
+    }, (key, value) -> {
+        operations.add("write " + key + "=" + value);
+        store.put(key, value);
+    }, 0, 0L, TimeUnit.MILLISECONDS, scheduler);
+
+    @AfterEach
+    void tearDown() {
+        cache.dispose();
+    }
+
+    @Test
+    void loadsAreSharedAndCached() {
+        store.put("a", "stored");
+
+        TestObserver<String> first = cache.get("a").test();
+        TestObserver<String> second = cache.get("a").test();
+        assertNull(cache.getIfPresent("a"));
+
+        scheduler.triggerActions();
+
+        first.assertValue("stored");
+        second.assertValue("stored");
+        assertEquals("stored", cache.getIfPresent("a"));
+        assertEquals(Arrays.asList("load a"), operations);
+    }
+
+    @Test
+    void loadAfterInvalidateWaitsForTheWrite() {
+        cache.put("a", "changed");
+        cache.invalidate("a");
+
+        TestObserver<String> observer = cache.get("a").test();
+        scheduler.triggerActions();
+
+        observer.assertValue("changed");
+        assertEquals(Arrays.asList("write a=changed", "load a"), operations);
+    }
+
+    @Test
+    void loadRunningDuringInvalidateIsNotCached() {
+        TestObserver<String> observer = cache.get("a").test();
+        cache.invalidate("a");
+        scheduler.triggerActions();
+
+        observer.assertValue("default");
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void writesOfAKeyRunInOrder() {
+        cache.put("a", "first");
+        cache.flush("a");
+        cache.put("a", "second");
+        cache.invalidate("a");
+
+        scheduler.triggerActions();
+
+        assertEquals(Arrays.asList("write a=first", "write a=second"), operations);
+        assertEquals("second", store.get("a"));
+    }
+
+    @Test
+    void disposeRunsPendingWritesBehind() {
+        cache.put("a", "first");
+        cache.flush("a");
+        cache.put("a", "second");
+        cache.invalidate("a");
+        cache.put("b", "quit");
+        cache.invalidate("b");
+
+        // The scheduler never runs the queued writes, like bukkit cancelling the tasks of a disabled plugin.
+        cache.dispose();
+
+        assertEquals(Arrays.asList("write a=first", "write a=second", "write b=quit"), operations);
+        assertEquals("second", store.get("a"));
+
+        scheduler.triggerActions();
+        assertEquals(3, operations.size(), "the writes must not run twice");
+    }
+
+    @Test
+    void evictedValuesAreWrittenBehind() throws InterruptedException {
+        AsyncLoadingCache<String, String> expiring = new AsyncLoadingCache<>(key -> "loaded", (key, value) -> store.put(key, value), 0, 1L, TimeUnit.MILLISECONDS, scheduler);
+        expiring.put("a", "changed");
+
+        // The access times are real nano times.
+        Thread.sleep(5L);
+        scheduler.advanceTimeBy(1L, TimeUnit.SECONDS);
+
+        assertEquals(0, expiring.size());
+        assertEquals("changed", store.get("a"));
+        expiring.dispose();
+    }
+}
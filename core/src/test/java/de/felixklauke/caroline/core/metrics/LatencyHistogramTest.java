@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the bucketing and the percentiles of the {@link LatencyHistogram}.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+class LatencyHistogramTest {
+
+    /**
+     * A value far above every value recorded by the tests, so percentiles aren't capped at the maximum.
+     */
+    private static final long CEILING = 1L << 39;
+
+    @Test
+    void smallValuesAreExact() {
+        for (long value = 0L; value < 32L; value++) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+            histogram.record(CEILING);
+
+            assertEquals(value, histogram.getValueAtPercentile(50D));
+        }
+    }
+
+    @Test
+    void bucketsKeepTheRelativeError() {
+        for (long value = 32L; value < CEILING; value = value * 3 / 2 + 1) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+            histogram.record(CEILING);
+
+            long upperBound = histogram.getValueAtPercentile(50D);
+            assertTrue(upperBound >= value, "bucket of " + value + " ends below it at " + upperBound);
+            assertTrue(upperBound - value < value / 16 + 1, "bucket of " + value + " ends too far above it at " + upperBound);
+        }
+    }
+
+    @Test
+    void bucketBoundsSplitPowersOfTwo() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1024L);
+        histogram.record(CEILING);
+        assertEquals(1087L, histogram.getValueAtPercentile(50D));
+
+        histogram = new LatencyHistogram();
+        histogram.record(1088L);
+        histogram.record(CEILING);
+        assertEquals(1151L, histogram.getValueAtPercentile(50D));
+    }
+
+    @Test
+    void percentilesFollowTheDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1L; value <= 1000L; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(1000L, histogram.getCount());
+        assertEquals(500L, histogram.getMean());
+        assertEquals(1000L, histogram.getMax());
+        assertEquals(1000L, histogram.getValueAtPercentile(100D));
+        assertWithin(500L, histogram.getValueAtPercentile(50D));
+        assertWithin(990L, histogram.getValueAtPercentile(99D));
+    }
+
+    @Test
+    void outOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.getValueAtPercentile(99D));
+
+        histogram.record(-5L);
+        assertEquals(0L, histogram.getValueAtPercentile(50D));
+        assertEquals(0L, histogram.getMax());
+
+        histogram.record(Long.MAX_VALUE);
+        assertEquals((1L << 41) - 1, histogram.getMax());
+        assertEquals((1L << 41) - 1, histogram.getValueAtPercentile(100D));
+    }
+
+    /**
+     * Assert that a percentile lies at or at most one bucket width above the expected value.
+     *
+     * @param expected The exact value.
+     * @param actual   The value read from the histogram.
+     */
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual - expected <= expected / 16, "expected about " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.operator;
+
+import de.felixklauke.caroline.core.ManualServer;
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the {@link TickSpreadingTransformer} against a {@link ManualServer}.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+class TickSpreadingTransformerTest {
+
+    /**
+     * The server.
+     */
+    private final ManualServer server = new ManualServer();
+
+    @Test
+    void emitsAllItemsAndStopsTicking() {
+        TestSubscriber<Integer> subscriber = Flowable.range(0, 100)
+                .compose(new TickSpreadingTransformer<Integer>(server.getPlugin(), server.getScheduler(), 1L, TimeUnit.SECONDS, 16))
+                .test();
+
+        server.tick();
+
+        subscriber.assertValueCount(100).assertComplete();
+        assertEquals(0, server.getPendingTasks());
+    }
+
+    @Test
+    void cancellingInOnSubscribeStopsTheTickTask() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        subscriber.cancel();
+
+        Flowable.range(0, 100)
+                .compose(new TickSpreadingTransformer<Integer>(server.getPlugin(), server.getScheduler(), 1L, TimeUnit.SECONDS, 16))
+                .subscribe(subscriber);
+
+        server.tick();
+
+        subscriber.assertNoValues();
+        assertEquals(0, server.getPendingTasks());
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.recorder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the {@link JournalReader} reads back what the {@link JournalWriter} wrote.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+class JournalRoundTripTest {
+
+    /**
+     * The directory holding the journals.
+     */
+    @TempDir
+    Path directory;
+
+    @Test
+    void eventsAreReadBackInOrder() throws IOException {
+        Path path = directory.resolve("events.journal");
+
+        try (JournalWriter writer = new JournalWriter(path)) {
+            writer.defineType(0, "PlayerMoveEvent");
+            writer.append(0, 1_000L, bytes("first"));
+            writer.defineType(1, "BlockBreakEvent");
+            writer.append(1, 1_500L, bytes("second"));
+            writer.append(0, 1_500L, new byte[0]);
+            writer.append(1, 3_000L, bytes("fourth"));
+        }
+
+        try (JournalReader reader = new JournalReader(path)) {
+            assertEvent(reader, "PlayerMoveEvent", 0L, "first");
+            assertEvent(reader, "BlockBreakEvent", 500L, "second");
+            assertEvent(reader, "PlayerMoveEvent", 500L, "");
+            assertEvent(reader, "BlockBreakEvent", 2_000L, "fourth");
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void eventsSpanMappedRegions() throws IOException {
+        Path path = directory.resolve("large.journal");
+        int events = 3_000;
+        long size;
+
+        try (JournalWriter writer = new JournalWriter(path)) {
+            writer.defineType(7, "AsyncPlayerChatEvent");
+
+            for (int i = 0; i < events; i++) {
+                byte[] payload = new byte[4_096];
+                Arrays.fill(payload, (byte) i);
+                writer.append(7, i * 50L, payload);
+            }
+
+            size = writer.size();
+        }
+
+        assertEquals(size, Files.size(path), "the journal should be truncated to what was written");
+
+        try (JournalReader reader = new JournalReader(path)) {
+            for (int i = 0; i < events; i++) {
+                assertTrue(reader.next(), "event " + i + " is missing");
+                assertEquals(i * 50L, reader.getTimeNanos());
+
+                ByteBuffer payload = reader.getPayload();
+                assertEquals(4_096, payload.remaining());
+                assertEquals((byte) i, payload.get(0));
+                assertEquals((byte) i, payload.get(4_095));
+            }
+
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void foreignFilesAreRejected() throws IOException {
+        Path path = directory.resolve("foreign.journal");
+        Files.write(path, bytes("not a journal"));
+
+        assertThrows(IOException.class, () -> new JournalReader(path));
+    }
+
+    @Test
+    void truncatedJournalsFail() throws IOException {
+        Path path = directory.resolve("truncated.journal");
+
+        try (JournalWriter writer = new JournalWriter(path)) {
+            writer.defineType(0, "PlayerMoveEvent");
+            writer.append(0, 0L, bytes("complete"));
+            writer.append(0, 10L, bytes("cut off"));
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (JournalReader reader = new JournalReader(path)) {
+            assertEvent(reader, "PlayerMoveEvent", 0L, "complete");
+            assertThrows(EOFException.class, reader::next);
+        }
+    }
+
+    @Test
+    void closedWritersRefuseRecords() throws IOException {
+        Path path = directory.resolve("closed.journal");
+        JournalWriter writer = new JournalWriter(path);
+        writer.defineType(0, "PlayerMoveEvent");
+        writer.append(0, 0L, bytes("before"));
+        writer.close();
+
+        assertThrows(ClosedChannelException.class, () -> writer.append(0, 10L, bytes("after")));
+        assertThrows(ClosedChannelException.class, () -> writer.defineType(1, "BlockBreakEvent"));
+        writer.close();
+
+        try (JournalReader reader = new JournalReader(path)) {
+            assertEvent(reader, "PlayerMoveEvent", 0L, "before");
+            assertFalse(reader.next());
+        }
+    }
+
+    /**
+     * Read the next event and assert its type, time and payload.
+     *
+     * @param reader    The reader.
+     * @param typeName  The expected type name.
+     * @param timeNanos The expected time relative to the first event.
+     * @param payload   The expected payload as text.
+     * @throws IOException If the event can't be read.
+     */
+    private static void assertEvent(JournalReader reader, String typeName, long timeNanos, String payload) throws IOException {
+        assertTrue(reader.next(), "expected the event " + payload);
+        assertEquals(typeName, reader.getTypeName());
+        assertEquals(timeNanos, reader.getTimeNanos());
+
+        ByteBuffer buffer = reader.getPayload();
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        assertArrayEquals(bytes(payload), data);
+    }
+
+    /**
+     * Encode text as a payload.
+     *
+     * @param text The text.
+     * @return The utf-8 bytes.
+     */
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
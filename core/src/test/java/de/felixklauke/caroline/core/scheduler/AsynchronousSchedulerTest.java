@@ -0,0 +1,93 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import de.felixklauke.caroline.core.ManualServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the precise timer mode of the {@link AsynchronousScheduler}.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+class AsynchronousSchedulerTest {
+
+    /**
+     * The server, never ticked so nothing can depend on the bukkit scheduler.
+     */
+    private final ManualServer server = new ManualServer();
+
+    /**
+     * The scheduler under test.
+     */
+    private AsynchronousScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new AsynchronousScheduler(server.getPlugin(), server.getScheduler(), AsyncTimerMode.PRECISE, "test");
+        scheduler.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void delaysFireWithoutServerTicks() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicLong firedNanos = new AtomicLong();
+
+        long startNanos = System.nanoTime();
+        scheduler.scheduleDirect(() -> {
+            firedNanos.set(System.nanoTime());
+            latch.countDown();
+        }, 10L, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5L, TimeUnit.SECONDS), "the delay waited for a server tick");
+        assertTrue(firedNanos.get() - startNanos >= TimeUnit.MILLISECONDS.toNanos(10L), "the delay fired early");
+        assertEquals(0, server.getPendingTasks(), "the delay went through the bukkit scheduler");
+    }
+
+    @Test
+    void schedulerCanBeRestarted() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.start();
+
+        CountDownLatch latch = new CountDownLatch(1);
+        scheduler.scheduleDirect(latch::countDown, 1L, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5L, TimeUnit.SECONDS));
+    }
+}
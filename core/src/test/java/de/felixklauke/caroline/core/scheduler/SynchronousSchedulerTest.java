@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import de.felixklauke.caroline.core.ManualServer;
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the {@link SynchronousScheduler} against a {@link ManualServer}.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+class SynchronousSchedulerTest {
+
+    /**
+     * The server.
+     */
+    private ManualServer server;
+
+    /**
+     * The scheduler under test, timing its delayed and periodic tasks with a tick timer.
+     */
+    private SynchronousScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        server = new ManualServer();
+        scheduler = new SynchronousScheduler(server.getPlugin(), server.getScheduler(), null, SyncTimerMode.WHEEL, 0, "test");
+        scheduler.start();
+
+        // The tick timer starts running one tick after it was started.
+        server.tick();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void subTickPeriodRepeatsEveryTick() {
+        TestObserver<Long> observer = Observable.interval(10L, TimeUnit.MILLISECONDS, scheduler).test();
+
+        server.tick(5);
+        observer.assertValues(0L, 1L, 2L, 3L, 4L);
+
+        observer.dispose();
+        server.tick(5);
+        observer.assertValueCount(5);
+    }
+
+    @Test
+    void periodIsRoundedToTicks() {
+        TestObserver<Long> observer = Observable.interval(100L, TimeUnit.MILLISECONDS, scheduler).test();
+
+        server.tick(10);
+        observer.assertValues(0L, 1L, 2L, 3L, 4L);
+        observer.dispose();
+    }
+
+    @Test
+    void delayIsRoundedToTicks() {
+        TestObserver<Long> observer = Observable.timer(150L, TimeUnit.MILLISECONDS, scheduler).test();
+
+        server.tick(2);
+        observer.assertNoValues();
+
+        server.tick();
+        observer.assertValue(0L).assertComplete();
+        assertEquals(1, server.getPendingTasks(), "only the tick timer should be left");
+    }
+
+    @Test
+    void dueTasksShareTheTrampolineBudget() {
+        TickTrampoline trampoline = new TickTrampoline(server.getPlugin(), server.getScheduler(), null, TimeUnit.MILLISECONDS.toNanos(1), 0L, 0);
+        SynchronousScheduler budgeted = new SynchronousScheduler(server.getPlugin(), server.getScheduler(), trampoline, SyncTimerMode.WHEEL, 0, "budgeted");
+        budgeted.start();
+
+        List<String> executed = new ArrayList<>();
+        budgeted.scheduleDirect(spin(executed, "first"), 50L, TimeUnit.MILLISECONDS);
+        budgeted.scheduleDirect(spin(executed, "second"), 50L, TimeUnit.MILLISECONDS);
+        budgeted.withPriority(TaskPriority.CRITICAL).scheduleDirect(() -> executed.add("critical"), 50L, TimeUnit.MILLISECONDS);
+
+        server.tick();
+        assertEquals(Arrays.asList("critical", "first"), executed);
+        assertEquals(1L, budgeted.getThrottledTicks());
+
+        server.tick();
+        assertEquals(Arrays.asList("critical", "first", "second"), executed);
+        budgeted.shutdown();
+    }
+
+    /**
+     * Create a runnable that records its name and keeps the thread busy for two milliseconds.
+     *
+     * @param executed The names of the executed runnables.
+     * @param name     The name.
+     * @return The runnable.
+     */
+    private static Runnable spin(List<String> executed, String name) {
+        return () -> {
+            executed.add(name);
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2L);
+            while (System.nanoTime() < deadline) {
+                // Busy.
+            }
+        };
+    }
+}
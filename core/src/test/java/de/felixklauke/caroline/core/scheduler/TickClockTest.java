@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import de.felixklauke.caroline.core.ManualServer;
+import de.felixklauke.caroline.core.emitter.EventDispatchHub;
+import io.reactivex.observers.TestObserver;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link TickClock} against a {@link ManualServer}.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+class TickClockTest {
+
+    @Test
+    void emitsEveryTickFromOneTask() {
+        ManualServer server = new ManualServer();
+        TickClock tickClock = new TickClock(server.getPlugin(), server.getScheduler(), new EventDispatchHub(null, server.getPlugin()));
+        tickClock.start();
+
+        List<Long> ticks = new ArrayList<>();
+        TestObserver<ServerTick> first = tickClock.getTicks().doOnNext(tick -> ticks.add(tick.getTick())).test();
+        TestObserver<ServerTick> second = tickClock.getTicks().test();
+
+        server.tick(3);
+
+        assertEquals(3, first.valueCount());
+        assertEquals(3, second.valueCount());
+        assertEquals(1, server.getPendingTasks());
+        assertEquals(0L, (long) ticks.get(0));
+        assertEquals(2L, (long) ticks.get(2));
+
+        tickClock.shutdown();
+        server.tick();
+        assertEquals(0, server.getPendingTasks());
+        assertEquals(3, first.valueCount());
+    }
+
+    @Test
+    void msptIsUnknownWithoutTickTimes() {
+        ManualServer server = new ManualServer();
+        TickClock tickClock = new TickClock(server.getPlugin(), server.getScheduler(), new EventDispatchHub(null, server.getPlugin()));
+        tickClock.start();
+
+        TestObserver<ServerTick> observer = tickClock.getTicks().test();
+        server.tick(2);
+
+        assertTrue(Double.isNaN(tickClock.getMspt()));
+        assertTrue(Double.isNaN(observer.values().get(1).getMspt()));
+        tickClock.shutdown();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import de.felixklauke.caroline.core.ManualServer;
+import io.reactivex.disposables.Disposable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link TickTimer} against a {@link ManualServer}.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+class TickTimerTest {
+
+    /**
+     * The server.
+     */
+    private final ManualServer server = new ManualServer();
+
+    /**
+     * The timer under test.
+     */
+    private final TickTimer timer = new TickTimer(server.getPlugin(), server.getScheduler());
+
+    /**
+     * The amount of executions.
+     */
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        timer.start();
+
+        // The tick task starts running one tick after it was started.
+        server.tick();
+    }
+
+    @Test
+    void zeroDelayRunsInTheNextTick() {
+        timer.schedule(executions::incrementAndGet, 0L);
+
+        server.tick();
+        assertEquals(1, executions.get());
+
+        server.tick(5);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void delayIsCountedFromTheCurrentTick() {
+        timer.schedule(executions::incrementAndGet, 3L);
+
+        server.tick(2);
+        assertEquals(0, executions.get());
+
+        server.tick();
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void delayScheduledByATimeoutIsCountedFromTheNextTick() {
+        timer.schedule(() -> timer.schedule(executions::incrementAndGet, 2L), 1L);
+
+        server.tick();
+        assertEquals(0, executions.get());
+
+        server.tick();
+        assertEquals(0, executions.get(), "a delay of two ticks must not fire after one");
+
+        server.tick();
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void periodZeroIsOneShot() {
+        timer.schedule(executions::incrementAndGet, 1L, 0L);
+
+        server.tick(10);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void periodOneRepeatsEveryTick() {
+        Disposable timeout = timer.schedule(executions::incrementAndGet, 1L, 1L);
+
+        server.tick(10);
+        assertEquals(10, executions.get());
+
+        timeout.dispose();
+        server.tick(10);
+        assertEquals(10, executions.get());
+    }
+
+    @Test
+    void longDelaysCascadeThroughTheLevels() {
+        timer.schedule(executions::incrementAndGet, 5000L);
+
+        server.tick(4999);
+        assertEquals(0, executions.get());
+
+        server.tick();
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void shutdownDisposesPendingTimeouts() {
+        Disposable inWheel = timer.schedule(executions::incrementAndGet, 10L, 5L);
+        server.tick();
+        Disposable queued = timer.schedule(executions::incrementAndGet, 1L);
+
+        timer.shutdown();
+
+        assertTrue(inWheel.isDisposed());
+        assertTrue(queued.isDisposed());
+        assertEquals(0, server.getPendingTasks());
+
+        timer.start();
+        server.tick(20);
+        assertEquals(0, executions.get());
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import de.felixklauke.caroline.core.ManualServer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the tick budget and the deferral of the {@link TickTrampoline}.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+class TickTrampolineTest {
+
+    /**
+     * The server.
+     */
+    private final ManualServer server = new ManualServer();
+
+    /**
+     * The executed tasks in their order.
+     */
+    private final List<String> executed = new ArrayList<>();
+
+    @Test
+    void drainsQueuesInPriorityOrder() {
+        TickTrampoline trampoline = new TickTrampoline(server.getPlugin(), server.getScheduler());
+        trampoline.start();
+
+        trampoline.offer(record("deferrable"), TaskPriority.DEFERRABLE);
+        trampoline.offer(record("normal-1"));
+        trampoline.offer(record("critical"), TaskPriority.CRITICAL);
+        trampoline.offer(record("normal-2"));
+        trampoline.offer(record("disposed")).dispose();
+
+        server.tick();
+
+        assertEquals(Arrays.asList("critical", "normal-1", "normal-2", "deferrable"), executed);
+        assertEquals(0, trampoline.getQueuedTasks(TaskPriority.NORMAL));
+        trampoline.shutdown();
+    }
+
+    @Test
+    void budgetRollsTasksOverToTheNextTick() {
+        TickTrampoline trampoline = new TickTrampoline(server.getPlugin(), server.getScheduler(), null, TimeUnit.MILLISECONDS.toNanos(1), 0L, 0);
+        trampoline.start();
+
+        for (int i = 0; i < 3; i++) {
+            trampoline.offer(spin("normal-" + i, 2L));
+            trampoline.offer(record("critical-" + i), TaskPriority.CRITICAL);
+        }
+
+        server.tick();
+        assertEquals(Arrays.asList("critical-0", "critical-1", "critical-2", "normal-0"), executed);
+        assertEquals(2, trampoline.getQueuedTasks(TaskPriority.NORMAL));
+        assertEquals(1L, trampoline.getThrottledTicks());
+
+        server.tick(2);
+        assertEquals(Arrays.asList("critical-0", "critical-1", "critical-2", "normal-0", "normal-1", "normal-2"), executed);
+        assertEquals(2L, trampoline.getThrottledTicks());
+        trampoline.shutdown();
+    }
+
+    @Test
+    void deferrableTasksWaitWhileTicksAreSlow() {
+        FixedTickClock tickClock = new FixedTickClock(60D);
+        TickTrampoline trampoline = new TickTrampoline(server.getPlugin(), server.getScheduler(), tickClock, 0L, TimeUnit.MILLISECONDS.toNanos(45), 3);
+        trampoline.start();
+
+        trampoline.offer(record("deferrable"), TaskPriority.DEFERRABLE);
+        trampoline.offer(record("normal"));
+
+        server.tick(3);
+        assertEquals(Arrays.asList("normal"), executed);
+
+        server.tick();
+        assertEquals(Arrays.asList("normal", "deferrable"), executed);
+
+        tickClock.mspt = 20D;
+        trampoline.offer(record("fast"), TaskPriority.DEFERRABLE);
+        server.tick();
+        assertEquals(Arrays.asList("normal", "deferrable", "fast"), executed);
+        trampoline.shutdown();
+    }
+
+    @Test
+    void unknownTickDurationsNeverHoldTasksBack() {
+        TickTrampoline trampoline = new TickTrampoline(server.getPlugin(), server.getScheduler(), new FixedTickClock(Double.NaN), 0L, TimeUnit.MILLISECONDS.toNanos(45), 3);
+        trampoline.start();
+
+        trampoline.offer(record("deferrable"), TaskPriority.DEFERRABLE);
+        server.tick();
+
+        assertEquals(Arrays.asList("deferrable"), executed);
+        trampoline.shutdown();
+    }
+
+    /**
+     * Create a runnable that records its name.
+     *
+     * @param name The name.
+     * @return The runnable.
+     */
+    private Runnable record(String name) {
+        return () -> executed.add(name);
+    }
+
+    /**
+     * Create a runnable that records its name and then keeps the thread busy.
+     *
+     * @param name   The name.
+     * @param millis The milliseconds to keep the thread busy.
+     * @return The runnable.
+     */
+    private Runnable spin(String name, long millis) {
+        return () -> {
+            executed.add(name);
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+            while (System.nanoTime() < deadline) {
+                // Busy.
+            }
+        };
+    }
+
+    /**
+     * A tick clock that reports fixed milliseconds per tick.
+     */
+    private final class FixedTickClock extends TickClock {
+
+        /**
+         * The milliseconds per tick.
+         */
+        private double mspt;
+
+        /**
+         * Create a new fixed tick clock.
+         *
+         * @param mspt The milliseconds per tick.
+         */
+        FixedTickClock(double mspt) {
+            super(server.getPlugin(), server.getScheduler(), null);
+            this.mspt = mspt;
+        }
+
+        @Override
+        public double getMspt() {
+            return mspt;
+        }
+    }
+}
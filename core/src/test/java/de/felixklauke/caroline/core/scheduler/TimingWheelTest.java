@@ -0,0 +1,171 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the expiry and cascading of the {@link TimingWheel}.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+class TimingWheelTest {
+
+    /**
+     * A wheel of four levels with four slots each, covering 256 ticks.
+     */
+    private final TimingWheel<TestEntry> wheel = new TimingWheel<>(4, 4);
+
+    @Test
+    void entriesExpireInTheirTick() {
+        TestEntry now = add("now", 0L);
+        TestEntry next = add("next", 1L);
+        TestEntry later = add("later", 3L);
+
+        assertEquals(Collections.singletonList(now), advance());
+        assertEquals(Collections.singletonList(next), advance());
+        assertEquals(Collections.emptyList(), advance());
+        assertEquals(Collections.singletonList(later), advance());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void entriesCascadeDownAcrossLevels() {
+        List<Long> deadlines = Arrays.asList(4L, 5L, 17L, 63L, 64L, 200L, 255L);
+        for (long deadline : deadlines) {
+            add(Long.toString(deadline), deadline);
+        }
+
+        List<Long> expiredTicks = new ArrayList<>();
+        for (int tick = 0; tick < 256; tick++) {
+            for (TestEntry entry : advance()) {
+                assertEquals(tick, entry.getDeadlineTick(), entry.name);
+                expiredTicks.add((long) tick);
+            }
+        }
+
+        assertEquals(deadlines, expiredTicks);
+    }
+
+    @Test
+    void entriesBeyondTheTopLevelWaitForAnotherRound() {
+        add("far", 300L);
+
+        for (int tick = 0; tick < 300; tick++) {
+            assertEquals(Collections.emptyList(), advance(), "tick " + tick);
+        }
+
+        assertEquals(1, advance().size());
+    }
+
+    @Test
+    void deadlinesInThePastExpireWithTheNextAdvance() {
+        advance();
+        advance();
+        add("past", 0L);
+
+        assertEquals(1, advance().size());
+    }
+
+    @Test
+    void removedEntriesDontExpire() {
+        TestEntry entry = add("removed", 20L);
+
+        assertTrue(wheel.remove(entry));
+        assertFalse(wheel.remove(entry));
+
+        for (int tick = 0; tick < 32; tick++) {
+            assertEquals(Collections.emptyList(), advance());
+        }
+    }
+
+    @Test
+    void clearRemovesAllEntries() {
+        add("a", 1L);
+        add("b", 100L);
+
+        List<TestEntry> removed = new ArrayList<>();
+        wheel.clear(removed::add);
+
+        assertEquals(2, removed.size());
+        assertEquals(0, wheel.size());
+        for (int tick = 0; tick < 128; tick++) {
+            assertEquals(Collections.emptyList(), advance());
+        }
+    }
+
+    /**
+     * Add an entry to the wheel.
+     *
+     * @param name         The name of the entry.
+     * @param deadlineTick The deadline tick.
+     * @return The entry.
+     */
+    private TestEntry add(String name, long deadlineTick) {
+        TestEntry entry = new TestEntry(name);
+        wheel.add(entry, deadlineTick);
+        return entry;
+    }
+
+    /**
+     * Advance the wheel by one tick.
+     *
+     * @return The expired entries.
+     */
+    private List<TestEntry> advance() {
+        List<TestEntry> expired = new ArrayList<>();
+        wheel.advance(expired::add);
+        return expired;
+    }
+
+    /**
+     * A named wheel entry.
+     */
+    private static final class TestEntry extends TimingWheel.Entry {
+
+        /**
+         * The name.
+         */
+        private final String name;
+
+        /**
+         * Create a new entry.
+         *
+         * @param name The name.
+         */
+        TestEntry(String name) {
+            this.name = name;
+        }
+    }
+}
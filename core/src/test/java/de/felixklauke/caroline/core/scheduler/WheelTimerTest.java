@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Felix Klauke
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.felixklauke.caroline.core.scheduler;
+
+import io.reactivex.disposables.Disposable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the lifecycle of the {@link WheelTimer}.
+ *
+ * @author Felix Klauke <fklauke@itemis.de>
+ */
+class WheelTimerTest {
+
+    /**
+     * The timer under test, running expired timeouts on its own thread.
+     */
+    private final WheelTimer timer = new WheelTimer(Runnable::run, "caroline-test-timer");
+
+    @AfterEach
+    void tearDown() {
+        timer.shutdown();
+    }
+
+    @Test
+    void timeoutsFireAfterTheirDelay() throws InterruptedException {
+        timer.start();
+
+        CountDownLatch latch = new CountDownLatch(3);
+        long startNanos = System.nanoTime();
+        timer.schedule(latch::countDown, 5L, 5L, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5L, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(15));
+    }
+
+    @Test
+    void timerCanBeRestarted() throws InterruptedException {
+        timer.start();
+        timer.shutdown();
+        timer.start();
+
+        CountDownLatch latch = new CountDownLatch(1);
+        timer.schedule(latch::countDown, 1L, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5L, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shutdownDisposesPendingTimeouts() throws InterruptedException {
+        timer.start();
+        Disposable timeout = timer.schedule(() -> {
+        }, 1L, TimeUnit.HOURS);
+
+        // Give the timer thread a tick to move the timeout into the wheel.
+        Thread.sleep(10L);
+        timer.shutdown();
+        timer.start();
+
+        assertTrue(timeout.isDisposed());
+    }
+
+    @Test
+    void slowPeriodicRunsDontOverlap() throws InterruptedException {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        WheelTimer pooledTimer = new WheelTimer(executor, "caroline-test-pooled-timer");
+        pooledTimer.start();
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger runs = new AtomicInteger();
+
+        Disposable timeout = pooledTimer.schedule(() -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            runs.incrementAndGet();
+
+            try {
+                Thread.sleep(20L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+        }, 1L, 1L, TimeUnit.MILLISECONDS);
+
+        Thread.sleep(200L);
+        timeout.dispose();
+        pooledTimer.shutdown();
+        executor.shutdown();
+
+        assertEquals(1, maxRunning.get(), "periodic runs overlapped");
+        assertTrue(runs.get() <= 11, "missed periods should be skipped, but there were " + runs.get() + " runs");
+    }
+}